@@ -0,0 +1,105 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) against a stored baseline and fails when any score
+ * is worse by more than the threshold.
+ * <p>
+ * Scores are matched by benchmark, parameters and mode. Higher is better for throughput, lower is
+ * better for time and allocation. For sample-time results the p99 is compared as well, and the
+ * normalized allocation rate is compared whenever both runs used {@code -prof gc}.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.tracking.tracking_api.benchmark.BaselineComparison \
+ *     -Dbenchmark.args="target/baseline.json target/jmh-result.json 10"
+ * </pre>
+ */
+public class BaselineComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [threshold %, default 10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Map<String, Score>> baseline = read(objectMapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, Map<String, Score>> result = read(objectMapper.readTree(Path.of(args[1]).toFile()));
+
+        int regressions = 0;
+        System.out.printf("%-80s %-10s %14s %14s %9s%n", "benchmark", "metric", "baseline", "result", "change");
+        for (Map.Entry<String, Map<String, Score>> benchmark : result.entrySet()) {
+            Map<String, Score> baselineScores = baseline.get(benchmark.getKey());
+            if (baselineScores == null) {
+                System.out.printf("%-80s %-10s %14s%n", benchmark.getKey(), "", "no baseline");
+                continue;
+            }
+            for (Map.Entry<String, Score> metric : benchmark.getValue().entrySet()) {
+                Score before = baselineScores.get(metric.getKey());
+                if (before == null) {
+                    continue;
+                }
+                Score after = metric.getValue();
+                double change = (after.value() - before.value()) / before.value() * 100;
+                boolean regression = after.higherIsBetter() ? change < -threshold : change > threshold;
+                if (regression) {
+                    regressions++;
+                }
+                System.out.printf("%-80s %-10s %14.3f %14.3f %+8.1f%%%s%n", benchmark.getKey(), metric.getKey(),
+                        before.value(), after.value(), change, regression ? "  REGRESSION" : "");
+            }
+        }
+
+        System.out.printf("%n%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, Map<String, Score>> read(JsonNode results) {
+        Map<String, Map<String, Score>> benchmarks = new TreeMap<>();
+        for (JsonNode run : results) {
+            String mode = run.path("mode").asText();
+            Map<String, Score> scores = new LinkedHashMap<>();
+
+            JsonNode primary = run.path("primaryMetric");
+            scores.put("score", new Score(primary.path("score").asDouble(), mode.equals("thrpt")));
+            if (mode.equals("sample")) {
+                scores.put("p99", new Score(primary.path("scorePercentiles").path("99.0").asDouble(), false));
+            }
+
+            Iterator<Map.Entry<String, JsonNode>> secondary = run.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                // Older JMH versions prefix secondary metric names with a middle dot
+                if (metric.getKey().endsWith(ALLOCATION)) {
+                    scores.put("alloc B/op", new Score(metric.getValue().path("score").asDouble(), false));
+                }
+            }
+
+            benchmarks.put(key(run, mode), scores);
+        }
+        return benchmarks;
+    }
+
+    private static String key(JsonNode run, String mode) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                .replace("com.tracking.tracking_api.benchmark.", ""));
+        run.path("params").fields().forEachRemaining(param ->
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+        return key.append(" [").append(mode).append(']').toString();
+    }
+
+    private record Score(double value, boolean higherIsBetter) {
+    }
+}
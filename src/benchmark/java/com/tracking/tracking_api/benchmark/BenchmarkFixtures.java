@@ -0,0 +1,98 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Requests and application contexts shared by the benchmarks
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * Distinct requests cycled through by benchmarks that insert, so random mode does not run out of
+     * unused numbers for a single prefix (36^2 random characters times 100 sequence values each)
+     */
+    static final int REQUEST_VARIANTS = 1024;
+
+    private static final String[] SLUGS = {"redbox-logistics", "bluebird-express", "cargo-hub", "dhl-asia"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * The example request from the API documentation
+     */
+    static TrackingNumberRequest request() {
+        return request(new BigDecimal("1.234"), "redbox-logistics", OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+    }
+
+    /**
+     * Requests differing in weight, customer and order month
+     */
+    static List<TrackingNumberRequest> requestVariants() {
+        List<TrackingNumberRequest> requests = new ArrayList<>(REQUEST_VARIANTS);
+        for (int i = 0; i < REQUEST_VARIANTS; i++) {
+            requests.add(request(BigDecimal.valueOf(1000 + i, 3), SLUGS[i % SLUGS.length],
+                    OffsetDateTime.parse("2018-11-20T19:29:32+08:00").plusMonths(i % 12)));
+        }
+        return requests;
+    }
+
+    /**
+     * Query strings of {@link #requestVariants()} for the HTTP endpoints
+     */
+    static List<String> queryVariants() {
+        return requestVariants().stream()
+                .map(request -> "?origin_country_id=" + request.getOriginCountryId()
+                        + "&destination_country_id=" + request.getDestinationCountryId()
+                        + "&weight=" + request.getWeight().toPlainString()
+                        + "&created_at=" + request.getCreatedAt().toInstant()
+                        + "&customer_id=" + request.getCustomerId()
+                        + "&customer_name=" + request.getCustomerName().replace(" ", "%20")
+                        + "&customer_slug=" + request.getCustomerSlug())
+                .toList();
+    }
+
+    /**
+     * Start the application in-process with logging and SQL output turned down, on a random port
+     * unless a web environment is not wanted
+     */
+    static ConfigurableApplicationContext startApplication(String... properties) {
+        // Devtools would relaunch the application in a restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        String[] defaults = {
+                "server.port=0",
+                "spring.jpa.show-sql=false",
+                "spring.h2.console.enabled=false",
+                "logging.level.com.tracking=WARN",
+                "logging.level.org.springframework.web=WARN"
+        };
+        // Passed as command line arguments, builder properties would be overridden by application.properties
+        return new SpringApplicationBuilder(TrackingApiApplication.class)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(properties))
+                        .map(property -> "--" + property)
+                        .toArray(String[]::new));
+    }
+
+    private static TrackingNumberRequest request(BigDecimal weight, String slug, OffsetDateTime createdAt) {
+        TrackingNumberRequest request = new TrackingNumberRequest();
+        request.setOriginCountryId("MY");
+        request.setDestinationCountryId("ID");
+        request.setWeight(weight);
+        request.setCreatedAt(createdAt);
+        request.setCustomerId(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"));
+        request.setCustomerName("RedBox Logistics");
+        request.setCustomerSlug(slug);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package com.tracking.tracking_api.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of the synchronous and async endpoints under the platform and virtual thread execution
+ * modes, at several numbers of concurrent clients.
+ * <p>
+ * For each mode the application is started in-process on a random port with an in-memory database,
+ * then every client (one virtual thread each) sends {@code requestsPerClient} requests back to back.
+ * Client and server share the machine, so compare the modes with each other rather than reading
+ * the numbers as absolute capacity. Raise the open file limit ({@code ulimit -n}) above the largest
+ * client count first.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.tracking.tracking_api.benchmark.ExecutionModeLoadBenchmark \
+ *     -Dbenchmark.args="1000 5000 10000"
+ * </pre>
+ */
+public class ExecutionModeLoadBenchmark {
+
+    private static final String[] MODES = {"platform", "virtual"};
+    private static final String[] ENDPOINTS = {"/api/v1/next-tracking-number", "/api/v1/next-tracking-number/async"};
+    private static final String QUERY = "?origin_country_id=MY&destination_country_id=ID&weight=1.234"
+            + "&created_at=2018-11-20T19:29:32Z&customer_id=de619854-b59b-425e-9db4-943979e1bd49"
+            + "&customer_name=RedBox%20Logistics&customer_slug=redbox-logistics";
+
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("requestsPerClient", 5);
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 5_000, 10_000};
+
+        System.out.printf("%-9s %-36s %8s %10s %9s %9s %9s %9s %7s%n",
+                "mode", "endpoint", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+
+        for (String mode : MODES) {
+            try (ConfigurableApplicationContext context = start(mode)) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                for (String endpoint : ENDPOINTS) {
+                    URI uri = URI.create("http://localhost:" + port + endpoint + QUERY);
+                    run(uri, 200);
+                    for (int clients : clientCounts) {
+                        Result result = run(uri, clients);
+                        System.out.printf("%-9s %-36s %8d %10.0f %9.1f %9.1f %9.1f %9.1f %7d%n",
+                                mode, endpoint, clients, result.throughput(), result.percentile(0.50),
+                                result.percentile(0.99), result.percentile(0.999), result.percentile(1.0), result.errors());
+                    }
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        return BenchmarkFixtures.startApplication(
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=10000",
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+                "tracking.generator.mode=sequential",
+                "tracking.execution.mode=" + mode);
+    }
+
+    static Result run(URI uri, int clients) throws InterruptedException {
+        return run(uri, clients, () -> {
+        });
+    }
+
+    /**
+     * Run the load, calling {@code midpoint} once half of the requests have completed and the other clients are still busy
+     */
+    static Result run(URI uri, int clients, Runnable midpoint) throws InterruptedException {
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .executor(executor)
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    try {
+                        ready.countDown();
+                        go.await();
+                        for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                            long started = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            int completed = next.getAndIncrement();
+                            latencies[completed] = System.nanoTime() - started;
+                            if (completed == latencies.length / 2) {
+                                midpoint.run();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            ready.await();
+            long started = System.nanoTime();
+            go.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - started;
+
+            Arrays.sort(latencies);
+            return new Result(latencies, elapsed, errors.get());
+        }
+    }
+
+    record Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentile(double fraction) {
+            int index = (int) Math.ceil(fraction * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+    }
+}
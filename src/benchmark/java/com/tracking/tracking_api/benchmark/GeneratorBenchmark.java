@@ -0,0 +1,84 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.generator.RandomTrackingNumberGenerator;
+import com.tracking.tracking_api.generator.SequentialTrackingNumberGenerator;
+import com.tracking.tracking_api.generator.TrackingNumberGenerator;
+import com.tracking.tracking_api.generator.TrackingNumberTemplates;
+import com.tracking.tracking_api.random.BufferedRandomSource;
+import com.tracking.tracking_api.sequence.ClockSequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracking number creation alone, without the database, with one generator shared by 1, 4 and
+ * one thread per processor as in the running service.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="GeneratorBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"random", "sequential"})
+    private String mode;
+
+    private TrackingNumberGenerator generator;
+    private BufferedRandomSource randomSource;
+
+    @Setup
+    public void setUp() {
+        if (mode.equals("random")) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            randomSource = new BufferedRandomSource(0, 4096, 16, meterRegistry);
+            generator = new RandomTrackingNumberGenerator(randomSource, new TrackingNumberTemplates(new TrackingProperties(), meterRegistry), meterRegistry);
+        } else {
+            generator = new SequentialTrackingNumberGenerator(new ClockSequence(0, Clock.systemUTC()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (randomSource != null) {
+            randomSource.destroy();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread(RequestVariants requests) {
+        return generator.generate(requests.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String fourThreads(RequestVariants requests) {
+        return generator.generate(requests.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String allProcessors(RequestVariants requests) {
+        return generator.generate(requests.next());
+    }
+}
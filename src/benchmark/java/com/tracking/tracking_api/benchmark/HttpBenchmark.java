@@ -0,0 +1,93 @@
+package com.tracking.tracking_api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The synchronous endpoint end to end: through MockMvc (controller, validation and serialization
+ * without the network) and through the embedded Tomcat over a keep-alive HTTP connection.
+ * The difference between the two is the cost of the servlet container and the socket.
+ * Reports throughput and latency percentiles.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="HttpBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpBenchmark {
+
+    private static final String ENDPOINT = "/api/v1/next-tracking-number";
+
+    @Param({"mockmvc", "tomcat"})
+    private String transport;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private HttpClient httpClient;
+    private String baseUri;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("spring.datasource.url=jdbc:h2:mem:benchmark-http");
+        if (transport.equals("mockmvc")) {
+            mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        } else {
+            httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            baseUri = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port") + ENDPOINT;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public String nextTrackingNumber(RequestVariants requests) throws Exception {
+        String query = requests.nextQuery();
+        if (mockMvc != null) {
+            MvcResult result = mockMvc.perform(get(ENDPOINT + query)).andReturn();
+            return check(result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        }
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUri + query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        return check(response.statusCode(), response.body());
+    }
+
+    private static String check(int status, String body) {
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected status " + status + ": " + body);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.outbox.OutboxRelay;
+import com.tracking.tracking_api.outbox.TrackingNumberOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time the relay takes to lease, deliver and delete one batch of the outbox, by batch size, with a
+ * sink that accepts everything at once so only the database work is measured. Events per second
+ * are {@code batchSize} over the time per batch. Each batch is appended to the outbox before it
+ * is measured.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="OutboxRelayBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboxRelayBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberOutbox outbox;
+    private TransactionTemplate transactionTemplate;
+    private OutboxRelay relay;
+    private List<TrackingNumber> batch;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication(
+                "spring.main.web-application-type=none",
+                "spring.datasource.url=jdbc:h2:mem:outbox-benchmark",
+                "tracking.outbox.enabled=true",
+                // The application's own relay stays idle, batches are relayed by the benchmark
+                "tracking.outbox.workers=0",
+                "tracking.outbox.file=target/benchmark-outbox.ndjson");
+        outbox = context.getBean(TrackingNumberOutbox.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        TrackingProperties properties = new TrackingProperties();
+        properties.getOutbox().setBatchSize(batchSize);
+        relay = new OutboxRelay(outbox, events -> { }, transactionManager, properties, new SimpleMeterRegistry());
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(TrackingNumber.builder()
+                    .trackingNumber("MY1811" + String.format("%010d", i))
+                    .originCountryId("MY")
+                    .destinationCountryId("ID")
+                    .weight(new BigDecimal("1.234"))
+                    .customerId(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"))
+                    .customerSlug("redbox-logistics")
+                    .createdAt(OffsetDateTime.now())
+                    .build());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void appendBatch() {
+        transactionTemplate.executeWithoutResult(status -> outbox.append(batch));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int relayBatch() {
+        return relay.relayBatch();
+    }
+}
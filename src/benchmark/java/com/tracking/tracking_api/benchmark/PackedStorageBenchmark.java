@@ -0,0 +1,194 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.packed.PackedTrackingNumber;
+import com.tracking.tracking_api.packed.TrackingNumberCodec;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert rate and point-lookup latency with tracking numbers stored as strings and packed into two
+ * {@code BIGINT} columns, each with only the unique index its format looks numbers up by.
+ * <p>
+ * Runs against an H2 file database in {@code target/benchmark-db}, loaded once per format and table
+ * size, or against PostgreSQL with {@code -Dbenchmark.datasource.url=jdbc:postgresql://...} (and
+ * {@code benchmark.datasource.username} / {@code password}), where the size of the index each format
+ * relies on is printed as well. H2 does not report index sizes. Inserts run in sequential mode, so
+ * each is one {@code INSERT} into both the table and the index; lookups pick a random preloaded number.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="PackedStorageBenchmark -p rows=1000000"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackedStorageBenchmark {
+
+    private static final String PRELOADED_SLUG = "preloaded";
+    private static final int LOAD_BATCH = 10_000;
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final LocalDate ORDER_MONTH = LocalDate.of(2018, 11, 1);
+
+    @Param({"string", "packed"})
+    private String numberFormat;
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberService trackingNumberService;
+    private TrackingNumberLookup trackingNumberLookup;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url == null) {
+            Path database = Path.of("target", "benchmark-db", "numbers-" + numberFormat + "-" + rows).toAbsolutePath();
+            url = "jdbc:h2:file:" + database + ";CACHE_SIZE=262144";
+        }
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        context = BenchmarkFixtures.startApplication(
+                "spring.main.web-application-type=none",
+                "spring.datasource.url=" + url,
+                "spring.datasource.driverClassName=" + (postgres ? "org.postgresql.Driver" : "org.h2.Driver"),
+                "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "password"),
+                "spring.jpa.database-platform=org.hibernate.dialect." + (postgres ? "PostgreSQLDialect" : "H2Dialect"),
+                "spring.jpa.hibernate.ddl-auto=update",
+                "tracking.generator.mode=sequential",
+                "tracking.storage.number-format=" + numberFormat);
+        trackingNumberService = context.getBean(TrackingNumberService.class);
+        trackingNumberLookup = context.getBean(TrackingNumberLookup.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        preload(jdbcTemplate);
+        dropUnusedIndex(jdbcTemplate);
+        if (postgres) {
+            printIndexSizes(jdbcTemplate);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TrackingNumberResponse insert(RequestVariants requests) {
+        return trackingNumberService.generateTrackingNumber(requests.next());
+    }
+
+    @Benchmark
+    public Optional<TrackingNumber> findByTrackingNumber() {
+        return trackingNumberLookup.findByTrackingNumber(preloadedNumber(randomRow()));
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return trackingNumberLookup.exists(preloadedNumber(randomRow()), YearMonth.from(ORDER_MONTH));
+    }
+
+    private long randomRow() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    private static String preloadedNumber(long row) {
+        return "ZZ" + String.format("%014d", row);
+    }
+
+    /**
+     * Fill the table up to {@code rows} preloaded numbers with JDBC batches, which unlike a generated
+     * {@code INSERT ... SELECT} runs on both databases and packs the numbers the way the service does,
+     * and drop whatever an earlier run inserted
+     */
+    private void preload(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM tracking_numbers WHERE customer_slug <> ?", PRELOADED_SLUG);
+
+        long existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tracking_numbers WHERE customer_slug = ?", Long.class, PRELOADED_SLUG);
+        if (existing >= rows) {
+            return;
+        }
+
+        boolean packed = !numberFormat.equals("string");
+        OffsetDateTime createdAt = OffsetDateTime.parse("2018-11-20T19:29:32+08:00");
+        UUID customerId = UUID.randomUUID();
+        for (long from = existing + 1; from <= rows; from += LOAD_BATCH) {
+            List<Object[]> batch = new ArrayList<>(LOAD_BATCH);
+            for (long id = from; id < from + LOAD_BATCH && id <= rows; id++) {
+                String number = preloadedNumber(id);
+                PackedTrackingNumber packedNumber = packed ? TrackingNumberCodec.encode(number) : null;
+                batch.add(new Object[]{id, number,
+                        packed ? packedNumber.high() : null, packed ? packedNumber.low() : null,
+                        createdAt, ORDER_MONTH, customerId, createdAt});
+            }
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO tracking_numbers (id, tracking_number, tracking_number_hi, tracking_number_lo,
+                        origin_country_id, destination_country_id, weight, order_created_at, order_month, customer_id,
+                        customer_name, customer_slug, created_at, version)
+                    VALUES (?, ?, ?, ?, 'ZZ', 'ID', 1.234, ?, ?, ?, 'Preloaded', 'preloaded', ?, 0)
+                    """, batch);
+        }
+        // The pooled optimizer treats a sequence value as the top of a block of ID_ALLOCATION_SIZE ids
+        jdbcTemplate.execute("ALTER SEQUENCE tracking_numbers_seq RESTART WITH " + (rows + ID_ALLOCATION_SIZE));
+    }
+
+    /**
+     * Keep only the unique index the format looks numbers up by, as after the last migration step
+     */
+    private void dropUnusedIndex(JdbcTemplate jdbcTemplate) {
+        if (numberFormat.equals("string")) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_tracking_number_packed");
+            return;
+        }
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_tracking_number");
+        // The column's own unique constraint, named by Hibernate
+        jdbcTemplate.queryForList("""
+                        SELECT tc.constraint_name FROM information_schema.table_constraints tc
+                        JOIN information_schema.key_column_usage k ON k.constraint_name = tc.constraint_name
+                        WHERE LOWER(tc.table_name) = 'tracking_numbers' AND tc.constraint_type = 'UNIQUE'
+                        AND LOWER(k.column_name) = 'tracking_number'
+                        """, String.class)
+                .forEach(constraint -> jdbcTemplate.execute(
+                        "ALTER TABLE tracking_numbers DROP CONSTRAINT IF EXISTS \"" + constraint + "\""));
+    }
+
+    private void printIndexSizes(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.query("""
+                        SELECT indexrelid::regclass AS name, pg_relation_size(indexrelid) AS bytes FROM pg_index
+                        WHERE indrelid = 'tracking_numbers'::regclass ORDER BY 1
+                        """,
+                (RowCallbackHandler) row -> System.out.printf("%s index %s: %.1f MB for %d rows%n", numberFormat,
+                        row.getString("name"), row.getLong("bytes") / 1024.0 / 1024.0, rows));
+    }
+}
@@ -0,0 +1,86 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.random.BufferedRandomSource;
+import com.tracking.tracking_api.random.RandomSource;
+import com.tracking.tracking_api.random.SharedSecureRandomSource;
+import com.tracking.tracking_api.random.SplittableRandomSource;
+import com.tracking.tracking_api.random.StripedDrbgRandomSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the random sources when drawing the two random characters of a tracking number,
+ * from one thread and from many threads sharing the source.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="RandomSourceBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+    @Param({"shared", "drbg", "buffered", "splittable"})
+    private String source;
+
+    private RandomSource randomSource;
+
+    @Setup
+    public void setUp() {
+        randomSource = switch (source) {
+            case "shared" -> new SharedSecureRandomSource();
+            case "drbg" -> new StripedDrbgRandomSource(0);
+            case "buffered" -> new BufferedRandomSource(0, 4096, 16, new SimpleMeterRegistry());
+            case "splittable" -> new SplittableRandomSource();
+            default -> throw new IllegalArgumentException(source);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (randomSource instanceof BufferedRandomSource buffered) {
+            buffered.destroy();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread(Blackhole blackhole) {
+        draw(blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fourThreads(Blackhole blackhole) {
+        draw(blackhole);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void allProcessors(Blackhole blackhole) {
+        draw(blackhole);
+    }
+
+    private void draw(Blackhole blackhole) {
+        blackhole.consume(randomSource.nextInt(36));
+        blackhole.consume(randomSource.nextInt(36));
+    }
+}
@@ -0,0 +1,126 @@
+package com.tracking.tracking_api.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * Throughput per core and memory per in-flight request of the blocking (servlet, JDBC) and
+ * reactive (WebFlux, R2DBC) stacks serving the same generation endpoint, at several numbers of
+ * concurrent clients.
+ * <p>
+ * Each stack is started in-process on a random port with an in-memory database, in sequential
+ * mode so that every request is one {@code INSERT} on both. Load comes from
+ * {@link ExecutionModeLoadBenchmark}'s clients, and for every client count two runs are made:
+ * <ul>
+ *     <li>Throughput and latency, with the CPU time of the server's threads, so requests per CPU
+ *     second is throughput per fully used core. The client runs on virtual threads and the HTTP
+ *     client's selector, which are left out</li>
+ *     <li>Memory, with a full GC once half of the requests are done and the remaining clients each
+ *     have a request in flight. The heap still in use above the idle heap, divided by the number of
+ *     clients, is the heap per in-flight request. Client state is included and is the same for both
+ *     stacks, so compare the two rather than reading the number as the server's alone. Platform
+ *     threads started for the load are reported too, each reserves its own stack outside the heap</li>
+ * </ul>
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.tracking.tracking_api.benchmark.ReactiveStackLoadBenchmark \
+ *     -Dbenchmark.args="1000 5000"
+ * </pre>
+ */
+public class ReactiveStackLoadBenchmark {
+
+    private static final String[] STACKS = {"servlet", "reactive"};
+    private static final String QUERY = "?origin_country_id=MY&destination_country_id=ID&weight=1.234"
+            + "&created_at=2018-11-20T19:29:32Z&customer_id=de619854-b59b-425e-9db4-943979e1bd49"
+            + "&customer_name=RedBox%20Logistics&customer_slug=redbox-logistics";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 5_000};
+
+        System.out.printf("%-9s %8s %10s %11s %7s %9s %9s %14s %8s %7s%n",
+                "stack", "clients", "req/s", "req/cpu-s", "cores", "p50 ms", "p99 ms", "heap KB/req", "threads", "errors");
+
+        for (String stack : STACKS) {
+            try (ConfigurableApplicationContext context = start(stack)) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                URI uri = URI.create("http://localhost:" + port + "/api/v1/next-tracking-number" + QUERY);
+                ExecutionModeLoadBenchmark.run(uri, 200);
+
+                for (int clients : clientCounts) {
+                    long cpuBefore = serverCpuNanos();
+                    ExecutionModeLoadBenchmark.Result result = ExecutionModeLoadBenchmark.run(uri, clients);
+                    double cpuSeconds = (serverCpuNanos() - cpuBefore) / 1e9;
+
+                    System.gc();
+                    long idleHeap = MEMORY.getHeapMemoryUsage().getUsed();
+                    int idleThreads = THREADS.getThreadCount();
+                    long[] loaded = new long[2];
+                    ExecutionModeLoadBenchmark.run(uri, clients, () -> {
+                        loaded[1] = THREADS.getThreadCount();
+                        System.gc();
+                        loaded[0] = MEMORY.getHeapMemoryUsage().getUsed();
+                    });
+
+                    System.out.printf("%-9s %8d %10.0f %11.0f %7.2f %9.1f %9.1f %14.1f %8d %7d%n",
+                            stack, clients, result.throughput(),
+                            result.sortedLatencies().length / cpuSeconds,
+                            cpuSeconds / (result.elapsedNanos() / 1e9),
+                            result.percentile(0.50), result.percentile(0.99),
+                            Math.max(0, loaded[0] - idleHeap) / 1024.0 / clients,
+                            loaded[1] - idleThreads, result.errors());
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String stack) {
+        String[] common = {
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=10000",
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + stack,
+                "spring.r2dbc.url=r2dbc:h2:mem:///benchmark-" + stack,
+                "tracking.generator.mode=sequential"
+        };
+        if (stack.equals("reactive")) {
+            String[] reactive = Arrays.copyOf(common, common.length + 1);
+            reactive[common.length] = "spring.profiles.active=reactive";
+            return BenchmarkFixtures.startApplication(reactive);
+        }
+        return BenchmarkFixtures.startApplication(common);
+    }
+
+    /**
+     * CPU time of every live platform thread except the load client's
+     */
+    private static long serverCpuNanos() {
+        long total = 0;
+        for (ThreadInfo thread : THREADS.getThreadInfo(THREADS.getAllThreadIds())) {
+            if (thread == null || isClientThread(thread.getThreadName())) {
+                continue;
+            }
+            long cpu = THREADS.getThreadCpuTime(thread.getThreadId());
+            if (cpu > 0) {
+                total += cpu;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Carriers of the client's virtual threads, and the HTTP client's selector
+     */
+    private static boolean isClientThread(String name) {
+        return name.startsWith("ForkJoinPool-") || name.startsWith("HttpClient-");
+    }
+}
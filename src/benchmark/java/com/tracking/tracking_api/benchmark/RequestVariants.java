@@ -0,0 +1,26 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Per-thread cursor over {@link BenchmarkFixtures#requestVariants()} and their query strings
+ */
+@State(Scope.Thread)
+public class RequestVariants {
+
+    private final List<TrackingNumberRequest> variants = BenchmarkFixtures.requestVariants();
+    private final List<String> queries = BenchmarkFixtures.queryVariants();
+    private int index;
+
+    TrackingNumberRequest next() {
+        return variants.get(index++ & (BenchmarkFixtures.REQUEST_VARIANTS - 1));
+    }
+
+    String nextQuery() {
+        return queries.get(index++ & (BenchmarkFixtures.REQUEST_VARIANTS - 1));
+    }
+}
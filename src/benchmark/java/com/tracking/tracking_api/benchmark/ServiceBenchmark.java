@@ -0,0 +1,109 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TrackingNumberService#generateTrackingNumber} against an H2 file database already holding
+ * {@code rows} tracking numbers, so the existence check and the insert hit an index of realistic size.
+ * <p>
+ * Each table size is loaded once into {@code target/benchmark-db} and reused by later runs; rows
+ * inserted by a previous run are deleted first. The 10M row database takes a few minutes to load
+ * and a few GB of disk. Reports throughput and latency percentiles. {@code pool=true} serves random
+ * mode from the pre-validated number pool.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="ServiceBenchmark -prof gc"
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="ServiceBenchmark -p generatorMode=random -p pool=false,true"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final String PRELOADED_SLUG = "preloaded";
+    private static final int LOAD_CHUNK = 100_000;
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Param({"0", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"random", "sequential"})
+    private String generatorMode;
+
+    @Param({"false"})
+    private boolean pool;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberService trackingNumberService;
+
+    @Setup
+    public void setUp() {
+        Path database = Path.of("target", "benchmark-db", "rows-" + rows).toAbsolutePath();
+        context = BenchmarkFixtures.startApplication(
+                "spring.main.web-application-type=none",
+                "spring.datasource.url=jdbc:h2:file:" + database + ";CACHE_SIZE=262144",
+                "spring.jpa.hibernate.ddl-auto=update",
+                "tracking.generator.mode=" + generatorMode,
+                "tracking.pool.enabled=" + pool);
+        trackingNumberService = context.getBean(TrackingNumberService.class);
+        preload(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TrackingNumberResponse generateTrackingNumber(RequestVariants requests) {
+        return trackingNumberService.generateTrackingNumber(requests.next());
+    }
+
+    /**
+     * Fill the table up to {@code rows} preloaded tracking numbers, which use a prefix the
+     * benchmark never generates, and drop whatever an earlier run inserted
+     */
+    private void preload(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM tracking_numbers WHERE customer_slug <> ?", PRELOADED_SLUG);
+
+        long existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tracking_numbers WHERE customer_slug = ?", Long.class, PRELOADED_SLUG);
+        if (existing >= rows) {
+            return;
+        }
+
+        for (long from = existing + 1; from <= rows; from += LOAD_CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO tracking_numbers (id, tracking_number, origin_country_id, destination_country_id, weight,
+                        order_created_at, order_month, customer_id, customer_name, customer_slug, created_at, version)
+                    SELECT X, 'ZZ' || LPAD(CAST(X AS VARCHAR), 14, '0'), 'ZZ', 'ID', 1.234,
+                        TIMESTAMP WITH TIME ZONE '2018-11-20 19:29:32+08', DATE '2018-11-01', RANDOM_UUID(), 'Preloaded', ?,
+                        CURRENT_TIMESTAMP, 0
+                    FROM SYSTEM_RANGE(?, ?)
+                    """, PRELOADED_SLUG, from, Math.min(from + LOAD_CHUNK - 1, rows));
+        }
+        // The pooled optimizer treats a sequence value as the top of a block of ID_ALLOCATION_SIZE ids
+        jdbcTemplate.execute("ALTER SEQUENCE tracking_numbers_seq RESTART WITH " + (rows + ID_ALLOCATION_SIZE));
+    }
+}
@@ -0,0 +1,155 @@
+package com.tracking.tracking_api.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Cold start of the packaged application: time from launching the JVM to the first tracking number
+ * served by {@code /next-tracking-number}, and resident memory once it has been idle for a few seconds.
+ * <p>
+ * Each variant is started as its own process {@code runs} times and the median and worst run are
+ * reported. Variants add one step of the {@code fast-start} profile at a time:
+ * <ul>
+ *     <li>{@code jar}: the executable jar, as {@code ./mvnw package} builds it</li>
+ *     <li>{@code extracted}: the same application extracted into plain jars</li>
+ *     <li>{@code aot}: extracted, with the bean definitions generated at build time</li>
+ *     <li>{@code aot+cds}: the {@code tracking-api.sh} launcher, which also maps the classes recorded by the training run</li>
+ * </ul>
+ * RSS is read from {@code /proc} and only reported on Linux. Build the layout first:
+ * <pre>
+ * ./mvnw -Pfast-start -DskipTests package
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.tracking.tracking_api.benchmark.StartupBenchmark \
+ *     -Dbenchmark.args="5"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path LAYOUT = TARGET.resolve("fast-start");
+    private static final String QUERY = "?origin_country_id=MY&destination_country_id=ID&weight=1.234"
+            + "&created_at=2018-11-20T19:29:32Z&customer_id=de619854-b59b-425e-9db4-943979e1bd49"
+            + "&customer_name=RedBox%20Logistics&customer_slug=redbox-logistics";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration IDLE = Duration.ofSeconds(5);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        if (!Files.exists(LAYOUT.resolve("app/app.jsa"))) {
+            throw new IllegalStateException("No fast-start layout in " + LAYOUT.toAbsolutePath()
+                    + ", build it with ./mvnw -Pfast-start -DskipTests package");
+        }
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String extracted = LAYOUT.resolve("app/tracking-api.jar").toString();
+        String[][] variants = {
+                {"jar", java, "-jar", executableJar().toString()},
+                {"extracted", java, "-jar", extracted},
+                {"aot", java, "-Dspring.aot.enabled=true", "-jar", extracted},
+                {"aot+cds", LAYOUT.resolve("tracking-api.sh").toString()}
+        };
+
+        System.out.printf("%-10s %5s %16s %16s %16s%n", "variant", "runs", "first ms (p50)", "first ms (max)", "idle RSS MB");
+        for (String[] variant : variants) {
+            long[] millis = new long[runs];
+            long[] rss = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long[] result = start(Arrays.copyOfRange(variant, 1, variant.length));
+                millis[run] = result[0];
+                rss[run] = result[1];
+            }
+            Arrays.sort(millis);
+            Arrays.sort(rss);
+            System.out.printf("%-10s %5d %16d %16d %16s%n", variant[0], runs, millis[runs / 2], millis[runs - 1],
+                    rss[runs / 2] < 0 ? "n/a" : String.format("%.1f", rss[runs / 2] / 1024.0));
+        }
+    }
+
+    /**
+     * Start the command, returning milliseconds until the first tracking number and idle RSS in KB
+     */
+    private static long[] start(String... command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(List.of(command));
+        arguments.add("--server.port=" + port);
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/next-tracking-number" + QUERY);
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            awaitFirstNumber(uri, process, started);
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            Thread.sleep(IDLE.toMillis());
+            return new long[]{millis, residentKilobytes(process.pid())};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void awaitFirstNumber(URI uri, Process process, long started) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build();
+        while (System.nanoTime() - started < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue());
+            }
+            try {
+                if (CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No tracking number within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * VmRSS of the process, -1 where {@code /proc} is not available
+     */
+    private static long residentKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1L);
+        }
+    }
+
+    private static Path executableJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files.filter(file -> file.getFileName().toString().matches("tracking-api-.*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No executable jar in " + TARGET.toAbsolutePath()));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tracking.tracking_api.benchmark;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.generator.LegacyTrackingNumberEncoder;
+import com.tracking.tracking_api.generator.TrackingNumberEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Original String-based encoding against {@link TrackingNumberEncoder}. Both use the same cheap
+ * random source so the comparison covers the formatting only; run with {@code -prof gc} to see
+ * the allocation rate per operation.
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="TrackingNumberEncoderBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackingNumberEncoderBenchmark {
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private TrackingNumberRequest request;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.request();
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyTrackingNumberEncoder.encode(request, random, ++sequence);
+    }
+
+    @Benchmark
+    public String encoder() {
+        return TrackingNumberEncoder.encode(request, random, ++sequence);
+    }
+
+    @Benchmark
+    public String sequential() {
+        return TrackingNumberEncoder.encodeSequential(request, ++sequence);
+    }
+}
@@ -0,0 +1,13 @@
+#!/usr/bin/env sh
+#
+# Starts the fast-start layout: AOT-generated bean definitions instead of configuration class parsing,
+# and the classes recorded by the training run mapped from app/app.jsa. Extra JVM options go in
+# JAVA_OPTS and application arguments after the script, e.g.
+#   JAVA_OPTS=-Xmx512m ./tracking-api.sh --server.port=8081
+# A JDK other than the one that trained the archive ignores it (-Xshare:auto) and starts normally.
+
+dir=$(cd "$(dirname "$0")" && pwd)
+
+# shellcheck disable=SC2086
+exec java -XX:SharedArchiveFile="$dir/app/app.jsa" -Xshare:auto -Dspring.aot.enabled=true $JAVA_OPTS \
+    -jar "$dir/app/tracking-api.jar" "$@"
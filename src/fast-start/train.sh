@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Builds the fast-start layout from the AOT-processed jar (run by ./mvnw -Pfast-start package):
+#   <destination>/app/         the jar extracted into tracking-api.jar and lib/, class data sharing needs plain jars
+#   <destination>/app/app.jsa  class data sharing archive recorded by a training run
+#   <destination>/tracking-api.sh
+#
+# The training run starts the application once with -XX:ArchiveClassesAtExit, waits until it is up,
+# calls /api/v1/next-tracking-number (synchronous and asynchronous) and stops it with SIGTERM. The
+# archive then holds every class loaded during startup and on the generation path, parsed and
+# verified, so later starts map them instead of loading them from the jars.
+#
+# Usage: train.sh <jar> <destination> [requests]
+
+set -euo pipefail
+
+jar=$1
+destination=$2
+requests=${3:-500}
+port=${TRAINING_PORT:-18089}
+query="origin_country_id=MY&destination_country_id=ID&weight=1.234&created_at=2018-11-20T19:29:32Z"
+query+="&customer_id=de619854-b59b-425e-9db4-943979e1bd49&customer_name=RedBox%20Logistics&customer_slug=redbox-logistics"
+
+rm -rf "$destination"
+mkdir -p "$destination"
+java -Djarmode=tools -jar "$jar" extract --destination "$destination/app" --application-filename tracking-api.jar
+cp "$(dirname "$0")/tracking-api.sh" "$destination/tracking-api.sh"
+chmod +x "$destination/tracking-api.sh"
+
+# Same JVM options as the launcher apart from the archive, or the archive is not used at runtime
+# Classes CDS cannot archive, such as JDK proxies, are skipped with a warning each
+java -XX:ArchiveClassesAtExit="$destination/app/app.jsa" -Xlog:cds=error -Dspring.aot.enabled=true \
+    -jar "$destination/app/tracking-api.jar" \
+    --server.port="$port" \
+    --spring.datasource.url=jdbc:h2:mem:training \
+    --logging.level.root=WARN &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 600); do
+    if curl -sf "http://localhost:$port/api/v1/health" > /dev/null; then
+        break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "Training run exited before it was up" >&2
+        exit 1
+    fi
+    sleep 0.1
+done
+
+for i in $(seq 1 "$requests"); do
+    # Vary the weight so random mode does not run out of numbers for one prefix
+    weight=$(printf '%d.%03d' $((1 + i / 1000)) $((i % 1000)))
+    curl -sf "http://localhost:$port/api/v1/next-tracking-number?${query/weight=1.234/weight=$weight}" > /dev/null
+    curl -sf "http://localhost:$port/api/v1/next-tracking-number/async?${query/weight=1.234/weight=$weight}" > /dev/null
+done
+
+# The archive is written when the JVM exits
+kill -TERM "$pid"
+wait "$pid" || true
+trap - EXIT
+
+if [[ ! -s "$destination/app/app.jsa" ]]; then
+    echo "Training run did not write $destination/app/app.jsa" >&2
+    exit 1
+fi
+echo "Fast-start layout written to $destination ($(du -h "$destination/app/app.jsa" | cut -f1) class data sharing archive)"
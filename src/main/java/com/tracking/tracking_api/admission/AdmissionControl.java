@@ -0,0 +1,119 @@
+package com.tracking.tracking_api.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.service.DatabaseConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control of the generation endpoints: a token bucket per customer and a limit on
+ * requests in progress over all customers.
+ * <p>
+ * Each customer gets {@code rate} requests per second with bursts of up to {@code burst}, or the
+ * limits configured for it under {@code customers}. Buckets of customers idle for
+ * {@code idleTimeout} are dropped, which refills them. The global limit defaults to the
+ * connection pool size, so one customer cannot hold every connection while others queue. Neither
+ * check ever waits: requests over a limit are refused at once.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.admission.enabled", havingValue = "true")
+@Slf4j
+public class AdmissionControl {
+
+    private final TrackingProperties.Admission settings;
+    private final Map<UUID, TrackingProperties.CustomerLimit> customerLimits = new HashMap<>();
+    private final Cache<UUID, TokenBucket> buckets;
+    private final Semaphore inFlight;
+    private final int maxConcurrency;
+    private final LongSupplier nanoClock;
+
+    private final Counter customerRejectedCounter;
+    private final Counter globalRejectedCounter;
+
+    public AdmissionControl(TrackingProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this(properties, dataSource, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControl(TrackingProperties properties, DataSource dataSource, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.settings = properties.getAdmission();
+        this.nanoClock = nanoClock;
+        settings.getCustomers().forEach((customerId, limit) -> customerLimits.put(UUID.fromString(customerId), limit));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxCustomers())
+                .expireAfterAccess(settings.getIdleTimeout())
+                .build();
+        this.maxConcurrency = settings.getMaxConcurrency() > 0
+                ? settings.getMaxConcurrency()
+                : DatabaseConcurrencyLimiter.poolSize(dataSource);
+        this.inFlight = new Semaphore(maxConcurrency);
+        log.info("Admitting {} requests per second per customer (burst {}), {} in progress at most",
+                settings.getRate(), settings.getBurst(), maxConcurrency);
+
+        Gauge.builder("tracking.admission.in.flight", this, control -> control.maxConcurrency - control.inFlight.availablePermits())
+                .description("Admitted generation requests in progress")
+                .register(meterRegistry);
+        Gauge.builder("tracking.admission.customers", buckets, Cache::estimatedSize)
+                .description("Customers with a token bucket")
+                .register(meterRegistry);
+        this.customerRejectedCounter = rejectedCounter(meterRegistry, "customer");
+        this.globalRejectedCounter = rejectedCounter(meterRegistry, "global");
+    }
+
+    /**
+     * Take a token from the customer's bucket, returning 0 when admitted or the nanoseconds until a token is available
+     */
+    public long tryAcquireCustomer(UUID customerId) {
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(customerId, id -> newBucket(id, now));
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            customerRejectedCounter.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Take one of the global in-progress slots, false if all are taken
+     */
+    public boolean tryEnter() {
+        if (inFlight.tryAcquire()) {
+            return true;
+        }
+        globalRejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Give back the slot taken by {@link #tryEnter()} once the request has completed
+     */
+    public void exit() {
+        inFlight.release();
+    }
+
+    private TokenBucket newBucket(UUID customerId, long now) {
+        TrackingProperties.CustomerLimit limit = customerLimits.get(customerId);
+        return limit != null
+                ? new TokenBucket(limit.getRate(), limit.getBurst(), now)
+                : new TokenBucket(settings.getRate(), settings.getBurst(), now);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("tracking.admission.rejected")
+                .description("Generation requests refused with 429, over their customer's rate or the global concurrency limit")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
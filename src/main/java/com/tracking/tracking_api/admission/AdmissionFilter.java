@@ -0,0 +1,169 @@
+package com.tracking.tracking_api.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds generation requests over their customer's rate or the global concurrency limit with
+ * {@code 429 Too Many Requests} and {@code Retry-After}, before the request is bound or touches
+ * the database.
+ * <p>
+ * The customer is read from the {@code customer_id} query parameter by scanning the raw query
+ * string, without parsing the other parameters. Only a percent-encoded parameter name ahead of it,
+ * or an encoded value, makes the filter ask the container for the decoded parameter instead, so
+ * encoding the name does not dodge the customer's limit. Paths are matched on the servlet path,
+ * which the container has already decoded and normalized. Batch requests carry their customers in the body,
+ * so they only count against the global limit. Requests without a well-formed customer id are let
+ * through, to be rejected with 400 by parameter validation. Runs after {@code RequestLoggingFilter},
+ * so refused requests are still logged with their correlation id.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.admission.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Set<String> GENERATION_PATHS = Set.of(
+            "/api/v1/next-tracking-number",
+            "/api/v1/next-tracking-number/async",
+            "/api/v1/tracking-numbers/batch");
+
+    private static final String CUSTOMER_ID_PARAMETER = "customer_id";
+    private static final String CUSTOMER_ID_PREFIX = CUSTOMER_ID_PARAMETER + "=";
+    private static final int UUID_LENGTH = 36;
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !GENERATION_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UUID customerId = customerId(request);
+        if (customerId != null) {
+            long waitNanos = admissionControl.tryAcquireCustomer(customerId);
+            if (waitNanos > 0) {
+                reject(response, waitNanos, "Request rate limit exceeded for customer " + customerId);
+                return;
+            }
+        }
+        if (!admissionControl.tryEnter()) {
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Too many requests in progress");
+            return;
+        }
+
+        boolean released = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // The slot is held until the async result has been written
+                request.getAsyncContext().addListener(new ExitListener());
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                admissionControl.exit();
+            }
+        }
+    }
+
+    /**
+     * The customer_id query parameter if it is a UUID, found without decoding the rest of the query
+     * string unless something before it or its value is percent-encoded
+     */
+    static UUID customerId(HttpServletRequest request) {
+        String queryString = request.getQueryString();
+        if (queryString == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < queryString.length()) {
+            int end = queryString.indexOf('&', start);
+            if (end < 0) {
+                end = queryString.length();
+            }
+            if (queryString.startsWith(CUSTOMER_ID_PREFIX, start)) {
+                int valueStart = start + CUSTOMER_ID_PREFIX.length();
+                return queryString.indexOf('%', valueStart, end) < 0
+                        ? parse(queryString.substring(valueStart, end))
+                        : parse(request.getParameter(CUSTOMER_ID_PARAMETER));
+            }
+            int nameEnd = queryString.indexOf('=', start, end);
+            if (queryString.indexOf('%', start, nameEnd < 0 ? end : nameEnd) >= 0) {
+                // The name may decode to customer_id, which only the container's decoding tells
+                return parse(request.getParameter(CUSTOMER_ID_PARAMETER));
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static UUID parse(String customerId) {
+        if (customerId == null || customerId.length() != UUID_LENGTH) {
+            return null;
+        }
+        try {
+            return UUID.fromString(customerId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        // Same shape as GlobalExceptionHandler's bodies; the message holds nothing that needs escaping
+        response.getWriter().write("{\"timestamp\":\"" + OffsetDateTime.now() + "\",\"status\":429"
+                + ",\"error\":\"Too Many Requests\",\"message\":\"" + message + "\"}");
+    }
+
+    private final class ExitListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admissionControl.exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nothing to do
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.tracking.tracking_api.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket of {@code rate} tokens per second holding up to {@code burst} tokens.
+ * <p>
+ * Kept as a single "theoretical arrival time" (the generic cell rate algorithm): each admitted
+ * request pushes it one emission interval further, and a request is admitted while that stays
+ * within {@code burst} intervals of now. Taking a token is one CAS, with no refill thread and no
+ * lock.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double rate, int burst, long nowNanos) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / rate));
+        this.toleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take a token, returning 0 when one was taken or the nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - toleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
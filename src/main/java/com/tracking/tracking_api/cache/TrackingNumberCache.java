@@ -0,0 +1,81 @@
+package com.tracking.tracking_api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberDetails;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.service.DatabaseConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of issued tracking numbers for the lookup endpoint.
+ * <p>
+ * Most lookups come within minutes of generation, so numbers are cached when their insert
+ * commits; numbers queued by write-behind are cached on their first read. Other numbers are loaded
+ * through {@link TrackingNumberLookup} on a miss, under the database concurrency limit, and
+ * concurrent misses for one number share a single query. Unknown numbers are not cached, since a
+ * number queued by write-behind or issued by another instance can appear at any time. Stored rows
+ * never change, so entries only leave the cache by size (W-TinyLFU) or after {@code cacheTtl}.
+ */
+@Component
+public class TrackingNumberCache {
+
+    private final TrackingNumberLookup trackingNumberLookup;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final Cache<String, TrackingNumberDetails> cache;
+
+    public TrackingNumberCache(TrackingNumberLookup trackingNumberLookup,
+                               DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                               TrackingProperties properties,
+                               MeterRegistry meterRegistry) {
+        TrackingProperties.Lookup settings = properties.getLookup();
+        this.trackingNumberLookup = trackingNumberLookup;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getCacheSize())
+                .expireAfterWrite(settings.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tracking.lookup");
+    }
+
+    /**
+     * The stored details of a tracking number, empty if it was never issued
+     */
+    public Optional<TrackingNumberDetails> find(String trackingNumber) {
+        return Optional.ofNullable(cache.get(trackingNumber, this::load));
+    }
+
+    /**
+     * Cache a number whose row was just stored
+     */
+    public void put(TrackingNumber entity) {
+        cache.put(entity.getTrackingNumber(), toDetails(entity));
+    }
+
+    private TrackingNumberDetails load(String trackingNumber) {
+        return databaseConcurrencyLimiter.execute(() -> trackingNumberLookup.findByTrackingNumber(trackingNumber))
+                .map(TrackingNumberCache::toDetails)
+                .orElse(null);
+    }
+
+    private static TrackingNumberDetails toDetails(TrackingNumber entity) {
+        return TrackingNumberDetails.builder()
+                .trackingNumber(entity.getTrackingNumber())
+                .originCountryId(entity.getOriginCountryId())
+                .destinationCountryId(entity.getDestinationCountryId())
+                .weight(entity.getWeight())
+                .orderCreatedAt(entity.getOrderCreatedAt())
+                .customerId(entity.getCustomerId())
+                .customerName(entity.getCustomerName())
+                .customerSlug(entity.getCustomerSlug())
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+}
@@ -1,24 +1,49 @@
 package com.tracking.tracking_api.config;
 
+import com.tracking.tracking_api.logging.MdcTaskDecorator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * In virtual mode this configuration steps aside: Boot's {@code spring.threads.virtual.enabled} (see
+ * {@link ExecutionModeEnvironmentPostProcessor}) runs Tomcat on virtual threads and builds the @Async executor,
+ * one virtual thread per call, bounded by DatabaseConcurrencyLimiter instead of a queue
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
+    @Bean
+    public TaskDecorator mdcTaskDecorator() {
+        return new MdcTaskDecorator();
+    }
+    
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor taskExecutor(MeterRegistry meterRegistry, TaskDecorator mdcTaskDecorator) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("Tracking-");
+        executor.setTaskDecorator(mdcTaskDecorator);
         executor.initialize();
+        
+        Gauge.builder("tracking.async.queue.depth", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("@Async calls waiting for a thread, calls beyond the queue capacity are rejected")
+                .register(meterRegistry);
+        Gauge.builder("tracking.async.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Threads running @Async calls")
+                .register(meterRegistry);
         return executor;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.tracking.tracking_api.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Maps {@code tracking.execution.mode=virtual} onto Boot's {@code spring.threads.virtual.enabled}, so Tomcat and
+ * the @Async executor run on virtual threads the way Boot sets them up. An explicit
+ * {@code spring.threads.virtual.enabled} still wins.
+ */
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String PROPERTY_SOURCE_NAME = "trackingExecutionMode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String mode = environment.getProperty("tracking.execution.mode");
+        if (TrackingProperties.ExecutionMode.VIRTUAL.name().equalsIgnoreCase(mode)) {
+            environment.getPropertySources().addLast(
+                    new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of("spring.threads.virtual.enabled", "true")));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.tracking.tracking_api.config;
+
+import com.tracking.tracking_api.existence.TrackingNumberExistenceFilter;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "random", matchIfMissing = true)
+public class ExistenceFilterConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.existence-filter.enabled", havingValue = "true", matchIfMissing = true)
+    public TrackingNumberExistenceFilter trackingNumberExistenceFilter(TrackingNumberRepository trackingNumberRepository,
+                                                                       TrackingProperties properties,
+                                                                       MeterRegistry meterRegistry) {
+        return new TrackingNumberExistenceFilter(trackingNumberRepository, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.tracking.tracking_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.outbox.FileOutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * The sink of the outbox relay. With {@code tracking.outbox.sink=custom} none is created here and
+ * the application provides its own {@code OutboxSink} bean.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracking.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.outbox.sink", havingValue = "file", matchIfMissing = true)
+    public FileOutboxSink fileOutboxSink(TrackingProperties properties, ObjectMapper objectMapper) {
+        return new FileOutboxSink(Path.of(properties.getOutbox().getFile()), objectMapper);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tracking.tracking_api.config;
+
+import com.tracking.tracking_api.partition.GlobalUniqueKeys;
+import com.tracking.tracking_api.partition.H2PartitionDialect;
+import com.tracking.tracking_api.partition.PartitionDialect;
+import com.tracking.tracking_api.partition.PartitionMaintenance;
+import com.tracking.tracking_api.partition.PostgresPartitionDialect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+
+@Configuration
+@ConditionalOnProperty(name = "tracking.storage.mode", havingValue = "partitioned")
+public class PartitionConfig {
+    
+    @Bean
+    public PartitionDialect partitionDialect(DataSource dataSource, JdbcTemplate jdbcTemplate) throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        return switch (DatabaseDriver.fromProductName(product)) {
+            case POSTGRESQL -> new PostgresPartitionDialect(jdbcTemplate);
+            case H2 -> new H2PartitionDialect(jdbcTemplate);
+            default -> throw new IllegalStateException("Partitioned storage is not supported on " + product);
+        };
+    }
+    
+    @Bean
+    public GlobalUniqueKeys globalUniqueKeys(JdbcTemplate jdbcTemplate) {
+        return new GlobalUniqueKeys(jdbcTemplate);
+    }
+    
+    @Bean
+    public PartitionMaintenance partitionMaintenance(PartitionDialect partitionDialect,
+                                                     PlatformTransactionManager transactionManager,
+                                                     TrackingProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new PartitionMaintenance(partitionDialect, transactionManager, properties, meterRegistry, Clock.systemUTC());
+    }
+}
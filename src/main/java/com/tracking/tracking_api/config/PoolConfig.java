@@ -0,0 +1,31 @@
+package com.tracking.tracking_api.config;
+
+import com.tracking.tracking_api.existence.TrackingNumberExistenceFilter;
+import com.tracking.tracking_api.generator.TrackingNumberTemplates;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.pool.TrackingNumberPool;
+import com.tracking.tracking_api.random.RandomSource;
+import com.tracking.tracking_api.service.TrackingNumberMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "random", matchIfMissing = true)
+public class PoolConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.pool.enabled", havingValue = "true")
+    public TrackingNumberPool trackingNumberPool(TrackingNumberLookup trackingNumberLookup,
+                                                 RandomSource randomSource,
+                                                 Optional<TrackingNumberExistenceFilter> existenceFilter,
+                                                 Optional<TrackingNumberTemplates> templates,
+                                                 TrackingNumberMetrics metrics,
+                                                 TrackingProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new TrackingNumberPool(trackingNumberLookup, randomSource, existenceFilter, templates, metrics, properties, meterRegistry);
+    }
+}
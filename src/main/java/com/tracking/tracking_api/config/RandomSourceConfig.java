@@ -0,0 +1,41 @@
+package com.tracking.tracking_api.config;
+
+import com.tracking.tracking_api.random.BufferedRandomSource;
+import com.tracking.tracking_api.random.RandomSource;
+import com.tracking.tracking_api.random.SharedSecureRandomSource;
+import com.tracking.tracking_api.random.SplittableRandomSource;
+import com.tracking.tracking_api.random.StripedDrbgRandomSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "random", matchIfMissing = true)
+public class RandomSourceConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.random.source", havingValue = "shared")
+    public RandomSource sharedSecureRandomSource() {
+        return new SharedSecureRandomSource();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.random.source", havingValue = "drbg")
+    public RandomSource stripedDrbgRandomSource(TrackingProperties properties) {
+        return new StripedDrbgRandomSource(properties.getRandom().getStripes());
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.random.source", havingValue = "buffered", matchIfMissing = true)
+    public RandomSource bufferedRandomSource(TrackingProperties properties, MeterRegistry meterRegistry) {
+        TrackingProperties.Random random = properties.getRandom();
+        return new BufferedRandomSource(random.getStripes(), random.getBlockBytes(), random.getPrefetchBlocks(), meterRegistry);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.random.source", havingValue = "splittable")
+    public RandomSource splittableRandomSource() {
+        return new SplittableRandomSource();
+    }
+}
@@ -0,0 +1,35 @@
+package com.tracking.tracking_api.config;
+
+import com.tracking.tracking_api.repository.SequenceBlockRepository;
+import com.tracking.tracking_api.sequence.BlockSequenceAllocator;
+import com.tracking.tracking_api.sequence.ClockSequence;
+import com.tracking.tracking_api.sequence.SequenceAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+
+@Configuration
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "sequential")
+public class SequenceConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.sequence.allocator", havingValue = "clock", matchIfMissing = true)
+    public SequenceAllocator clockSequence(TrackingProperties properties) {
+        return new ClockSequence(properties.getGenerator().getNodeId(), Clock.systemUTC());
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "tracking.sequence.allocator", havingValue = "block")
+    public SequenceAllocator blockSequenceAllocator(TrackingProperties properties,
+                                                    SequenceBlockRepository sequenceBlockRepository,
+                                                    PlatformTransactionManager transactionManager,
+                                                    MeterRegistry meterRegistry) {
+        TrackingProperties.Sequence sequence = properties.getSequence();
+        return new BlockSequenceAllocator(sequenceBlockRepository, transactionManager, meterRegistry,
+                sequence.getName(), sequence.getBlockSize(), sequence.getLowWatermark());
+    }
+}
@@ -0,0 +1,633 @@
+package com.tracking.tracking_api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application settings bound from the {@code tracking.*} properties
+ */
+@Data
+@ConfigurationProperties(prefix = "tracking")
+public class TrackingProperties {
+
+    private final Generator generator = new Generator();
+    private final Random random = new Random();
+    private final Templates templates = new Templates();
+    private final ExistenceFilter existenceFilter = new ExistenceFilter();
+    private final Pool pool = new Pool();
+    private final Sequence sequence = new Sequence();
+    private final Batch batch = new Batch();
+    private final Idempotency idempotency = new Idempotency();
+    private final Lookup lookup = new Lookup();
+    private final Export export = new Export();
+    private final Stats stats = new Stats();
+    private final Outbox outbox = new Outbox();
+    private final Admission admission = new Admission();
+    private final Persistence persistence = new Persistence();
+    private final Storage storage = new Storage();
+    private final Execution execution = new Execution();
+    private final Grpc grpc = new Grpc();
+    private final RequestLog requestLog = new RequestLog();
+
+    @Data
+    public static class Generator {
+
+        /**
+         * How tracking numbers are generated
+         */
+        private GeneratorMode mode = GeneratorMode.RANDOM;
+
+        /**
+         * Identifier of this instance, must be unique per replica in sequential mode (0-255)
+         */
+        private int nodeId = 0;
+    }
+
+    @Data
+    public static class Random {
+
+        /**
+         * Where the random characters of random mode come from
+         */
+        private RandomSourceType source = RandomSourceType.BUFFERED;
+
+        /**
+         * Independent generators to spread threads over, 0 for one per available processor (rounded up to a power of two)
+         */
+        private int stripes = 0;
+
+        /**
+         * Bytes pre-generated per block in buffered mode
+         */
+        private int blockBytes = 4096;
+
+        /**
+         * Filled blocks kept ready by the background refill thread in buffered mode
+         */
+        private int prefetchBlocks = 16;
+    }
+
+    @Data
+    public static class Templates {
+
+        /**
+         * Tracking number templates by customer slug, for customers not using the default layout (random mode)
+         */
+        private Map<String, String> customers = new HashMap<>();
+
+        /**
+         * Properties file of further templates by customer slug, applied without a restart when it changes
+         */
+        private String file;
+
+        /**
+         * How often the template file is checked for changes
+         */
+        private Duration reloadInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class ExistenceFilter {
+
+        /**
+         * Skip the existence query for candidates a Bloom filter of all tracking numbers has never seen (random mode)
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of tracking numbers the filter is sized for, the false positive rate rises beyond it
+         */
+        private long expectedEntries = 10_000_000;
+
+        /**
+         * Target false positive rate at the expected number of entries
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Rows read per query while loading the filter at startup
+         */
+        private int warmPageSize = 10_000;
+    }
+
+    @Data
+    public static class Pool {
+
+        /**
+         * Hand out random-mode numbers checked against the database ahead of time by a background thread
+         */
+        private boolean enabled = false;
+
+        /**
+         * Pre-validated numbers kept per prefix (origin, weight code, customer code and order month)
+         */
+        private int capacity = 256;
+
+        /**
+         * Remaining numbers of a prefix at which it is refilled
+         */
+        private int lowWatermark = 64;
+
+        /**
+         * Candidates checked per IN query while refilling
+         */
+        private int refillBatchSize = 128;
+
+        /**
+         * Prefixes pooled at once, the least used are dropped beyond it
+         */
+        private long maxPrefixes = 1_000;
+
+        /**
+         * Prefixes without requests for this long are dropped
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Sequence {
+
+        /**
+         * Where sequential mode takes its ids from
+         */
+        private SequenceAllocatorType allocator = SequenceAllocatorType.CLOCK;
+
+        /**
+         * Row of the sequence_blocks table leased from in block mode
+         */
+        private String name = "tracking_number";
+
+        /**
+         * Number of values leased per database round trip
+         */
+        private int blockSize = 1000;
+
+        /**
+         * Remaining values in the current block at which the next block is leased in the background
+         */
+        private int lowWatermark = 250;
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Largest number of requests accepted by the batch endpoint
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Entities inserted per flush, keep equal to hibernate.jdbc.batch_size
+         */
+        private int chunkSize = 50;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Answer repeated requests carrying the same Idempotency-Key header with the number issued first
+         */
+        private boolean enabled = true;
+
+        /**
+         * Treat requests without the header as repeats when customer id, order timestamp and weight match
+         */
+        private boolean deriveKey = false;
+
+        /**
+         * Issued numbers kept in memory, older keys are answered from the database
+         */
+        private long cacheSize = 100_000;
+
+        /**
+         * How long an issued number stays in memory after it was issued
+         */
+        private Duration cacheTtl = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Lookup {
+
+        /**
+         * Issued numbers kept in memory for the lookup endpoint
+         */
+        private long cacheSize = 100_000;
+
+        /**
+         * How long a number stays in memory after it was issued or first read
+         */
+        private Duration cacheTtl = Duration.ofHours(1);
+
+        /**
+         * Cache-Control max-age of lookup responses, which only clients may cache
+         */
+        private Duration maxAge = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Export {
+
+        /**
+         * Rows read per keyset page, the most an export holds in memory
+         */
+        private int pageSize = 1000;
+    }
+
+    @Data
+    public static class Stats {
+
+        /**
+         * Count issued numbers per customer, lane and order month for the statistics endpoint
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often counters are added to the rollup table, the most statistics lag behind
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+
+        /**
+         * How long flush ids are kept to recognize retries of a flush that was already applied
+         */
+        private Duration flushRetention = Duration.ofDays(1);
+    }
+
+    @Data
+    public static class Outbox {
+
+        /**
+         * Write an outbox record with every issued number and relay them to the sink
+         */
+        private boolean enabled = false;
+
+        /**
+         * Relay threads claiming batches concurrently, per instance
+         */
+        private int workers = 2;
+
+        /**
+         * Events claimed and delivered to the sink at once
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long a worker waits before polling again once the outbox is empty
+         */
+        private Duration pollInterval = Duration.ofMillis(100);
+
+        /**
+         * How long a worker holds the events it claimed before others may claim them again,
+         * longer than the sink takes to accept a batch
+         */
+        private Duration leaseTimeout = Duration.ofMinutes(1);
+
+        /**
+         * Where relayed events are delivered
+         */
+        private OutboxSinkType sink = OutboxSinkType.FILE;
+
+        /**
+         * File the file sink appends events to, one JSON object per line
+         */
+        private String file = "data/outbox/tracking-numbers.ndjson";
+
+        /**
+         * How long stopping waits for batches being delivered
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Admission {
+
+        /**
+         * Refuse generation requests over their customer's rate or the global concurrency limit with 429
+         */
+        private boolean enabled = false;
+
+        /**
+         * Requests per second allowed to each customer without a limit of its own
+         */
+        private double rate = 50;
+
+        /**
+         * Requests a customer can send at once after being idle
+         */
+        private int burst = 100;
+
+        /**
+         * Generation requests in progress over all customers, 0 for the connection pool size
+         */
+        private int maxConcurrency = 0;
+
+        /**
+         * Customers tracked at once, the least recently seen lose their bucket first
+         */
+        private long maxCustomers = 100_000;
+
+        /**
+         * How long an unused bucket is kept; a customer idle for longer starts with a full bucket
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Limits of individual customers by customer id, replacing rate and burst
+         */
+        private Map<String, CustomerLimit> customers = new HashMap<>();
+    }
+
+    @Data
+    public static class CustomerLimit {
+
+        /**
+         * Requests per second
+         */
+        private double rate = 50;
+
+        /**
+         * Requests that can be sent at once after being idle
+         */
+        private int burst = 100;
+    }
+
+    @Data
+    public static class Persistence {
+
+        /**
+         * When the tracking number row is inserted
+         */
+        private PersistenceMode mode = PersistenceMode.SYNC;
+
+        private final WriteBehind writeBehind = new WriteBehind();
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Records that may wait in memory before callers are pushed back
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Records inserted per micro-batch at most
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * Longest time a record waits for its batch to fill up
+         */
+        private Duration flushInterval = Duration.ofMillis(5);
+
+        /**
+         * How long a caller waits for queue space before it is refused with 503
+         */
+        private Duration offerTimeout = Duration.ofMillis(50);
+
+        /**
+         * How long shutdown waits for the queue to drain
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        private final Journal journal = new Journal();
+    }
+
+    @Data
+    public static class Journal {
+
+        /**
+         * Fsync every accepted record to a local log before answering, replayed on restart
+         */
+        private boolean enabled = false;
+
+        private String directory = "data/write-behind";
+    }
+
+    @Data
+    public static class Storage {
+
+        /**
+         * Layout of the tracking_numbers table
+         */
+        private StorageMode mode = StorageMode.SINGLE;
+
+        /**
+         * Column tracking numbers are looked up by, and whether the packed columns are filled
+         */
+        private NumberFormat numberFormat = NumberFormat.STRING;
+
+        /**
+         * Rows packed per statement when filling the packed columns of existing rows
+         */
+        private int backfillPageSize = 10_000;
+
+        private final Partitions partitions = new Partitions();
+    }
+
+    @Data
+    public static class Partitions {
+
+        /**
+         * Monthly partitions created ahead of the current month
+         */
+        private int premakeMonths = 3;
+
+        /**
+         * Order months kept before their partition is dropped or archived, 0 to keep everything
+         */
+        private int retentionMonths = 0;
+
+        /**
+         * What happens to partitions past retention
+         */
+        private RetentionAction retentionAction = RetentionAction.DROP;
+
+        /**
+         * Schema archived partitions are moved to
+         */
+        private String archiveSchema = "archive";
+
+        /**
+         * How often partitions are created and retention is applied
+         */
+        private Duration maintenanceInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Execution {
+
+        /**
+         * Threads running request handling and @Async work
+         */
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+        /**
+         * How long a request waits for a database permit in virtual mode before it is refused with 503
+         */
+        private Duration permitTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Grpc {
+
+        /**
+         * Serve the gRPC generation service next to the REST API
+         */
+        private boolean enabled = false;
+
+        /**
+         * Port of the gRPC server
+         */
+        private int port = 9090;
+
+        /**
+         * HTTP/2 flow control window per stream, in bytes
+         */
+        private int flowControlWindow = 1024 * 1024;
+
+        /**
+         * Concurrent calls (HTTP/2 streams) allowed per connection
+         */
+        private int maxConcurrentCallsPerConnection = 1000;
+
+        /**
+         * Largest request message accepted, in bytes
+         */
+        private int maxInboundMessageSize = 8192;
+
+        /**
+         * How long calls in progress may take to complete at shutdown before they are cancelled
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class RequestLog {
+
+        /**
+         * Fraction of successful API requests logged (0-1), failed and slow requests are always logged
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * Requests taking at least this long are always logged
+         */
+        private Duration slowThreshold = Duration.ofMillis(500);
+    }
+
+    public enum GeneratorMode {
+        /**
+         * Random component checked against the database until unused
+         */
+        RANDOM,
+        /**
+         * Origin, order month and an id from the sequence allocator, unique by construction
+         */
+        SEQUENTIAL
+    }
+
+    public enum RandomSourceType {
+        /**
+         * One SecureRandom shared by all threads, as originally implemented
+         */
+        SHARED,
+        /**
+         * Striped, independently seeded DRBG instances
+         */
+        DRBG,
+        /**
+         * Random bytes pre-generated by a DRBG on a background thread and handed out without locking
+         */
+        BUFFERED,
+        /**
+         * SplittableRandom per thread, fast but predictable, for deployments that do not need unguessable numbers
+         */
+        SPLITTABLE
+    }
+
+    public enum SequenceAllocatorType {
+        /**
+         * Node id and clock, local to this instance
+         */
+        CLOCK,
+        /**
+         * Blocks leased from the sequence_blocks table, shared by all instances
+         */
+        BLOCK
+    }
+
+    public enum PersistenceMode {
+        /**
+         * Inserted inside the request transaction
+         */
+        SYNC,
+        /**
+         * Queued and inserted in micro-batches by a background writer
+         */
+        WRITE_BEHIND
+    }
+
+    public enum OutboxSinkType {
+        /**
+         * Appended to a local file as JSON lines, for development or a log shipper to pick up
+         */
+        FILE,
+        /**
+         * The application's own OutboxSink bean, e.g. a message broker client
+         */
+        CUSTOM
+    }
+
+    public enum StorageMode {
+        /**
+         * One table with global unique indexes
+         */
+        SINGLE,
+        /**
+         * Partitioned by order month, lookups routed to the month encoded in the number
+         */
+        PARTITIONED
+    }
+
+    public enum NumberFormat {
+        /**
+         * Looked up by the tracking_number string, packed columns left empty
+         */
+        STRING,
+        /**
+         * Packed columns filled for new rows and backfilled for existing ones, still looked up by the string
+         */
+        DUAL,
+        /**
+         * Looked up by the packed columns, the string is only kept for reading
+         */
+        PACKED
+    }
+
+    public enum RetentionAction {
+        /**
+         * Drop the partition and its rows
+         */
+        DROP,
+        /**
+         * Detach the partition and keep it in the archive schema
+         */
+        ARCHIVE
+    }
+
+    public enum ExecutionMode {
+        /**
+         * Tomcat's worker pool and a bounded ThreadPoolTaskExecutor
+         */
+        PLATFORM,
+        /**
+         * Virtual threads, limited only by the connection pool size
+         */
+        VIRTUAL
+    }
+}
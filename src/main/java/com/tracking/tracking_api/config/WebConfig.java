@@ -0,0 +1,39 @@
+package com.tracking.tracking_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.web.TrackingNumberQueryResolver;
+import com.tracking.tracking_api.web.TrackingNumberResponseConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binding of the generation endpoints' query parameters and writing of their responses
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new TrackingNumberQueryResolver());
+    }
+
+    /**
+     * Ahead of the Jackson converter, which still writes every other type
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new TrackingNumberResponseConverter(objectMapper.getFactory()));
+    }
+}
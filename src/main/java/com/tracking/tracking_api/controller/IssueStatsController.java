@@ -0,0 +1,48 @@
+package com.tracking.tracking_api.controller;
+
+import com.tracking.tracking_api.dto.IssueStatsResponse;
+import com.tracking.tracking_api.exception.InvalidRequestException;
+import com.tracking.tracking_api.service.IssueStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracking.stats.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IssueStatsController {
+
+    /**
+     * Longest range of order months one request can cover
+     */
+    static final int MAX_MONTHS = 120;
+
+    private final IssueStatsService issueStatsService;
+
+    /**
+     * Tracking numbers issued to a customer per lane and order month, from {@code from} to {@code to} inclusive.
+     * Read from the rollup table only, so counts lag behind by up to tracking.stats.flush-interval.
+     */
+    @GetMapping("/tracking-numbers/stats")
+    public ResponseEntity<IssueStatsResponse> getIssueStats(
+            @RequestParam("customer_id") UUID customerId,
+            @RequestParam("from") YearMonth from,
+            @RequestParam("to") YearMonth to) {
+
+        if (to.isBefore(from) || from.plusMonths(MAX_MONTHS).isBefore(to)) {
+            throw new InvalidRequestException("from must not be after to, and at most " + MAX_MONTHS + " months before it");
+        }
+
+        return ResponseEntity.ok(issueStatsService.getIssueStats(customerId, from, to));
+    }
+}
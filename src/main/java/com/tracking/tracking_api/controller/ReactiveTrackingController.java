@@ -0,0 +1,60 @@
+package com.tracking.tracking_api.controller;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.service.ReactiveTrackingNumberService;
+import com.tracking.tracking_api.web.TrackingNumberQueryResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The generation endpoint on the reactive stack (profile {@code reactive}), served on Netty's event
+ * loop without blocking a thread on the database
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTrackingController {
+
+    private final ReactiveTrackingNumberService trackingNumberService;
+
+    /**
+     * GET endpoint to generate the next tracking number, with the same parameters and validation as on the servlet stack.
+     * Every request is already asynchronous here, so the async path is the same endpoint.
+     */
+    @GetMapping({"/next-tracking-number", "/next-tracking-number/async"})
+    public Mono<ResponseEntity<TrackingNumberResponse>> getNextTrackingNumber(ServerHttpRequest httpRequest) {
+        TrackingNumberRequest request = TrackingNumberQueryResolver.bind(httpRequest.getQueryParams());
+
+        return trackingNumberService.generateTrackingNumber(request)
+                .map(ResponseEntity::ok)
+                .onErrorResume(throwable -> {
+                    log.error("Error generating tracking number for customer: {}", request.getCustomerName(), throwable);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(TrackingNumberResponse.builder()
+                                    .trackingNumber("ERROR")
+                                    .createdAt(OffsetDateTime.now())
+                                    .build()));
+                });
+    }
+
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<ResponseEntity<String>> health() {
+        return Mono.just(ResponseEntity.ok("Tracking API is healthy"));
+    }
+}
@@ -1,17 +1,32 @@
 package com.tracking.tracking_api.controller;
 
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberDetails;
 import com.tracking.tracking_api.dto.TrackingNumberRequest;
 import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.exception.InvalidRequestException;
+import com.tracking.tracking_api.exception.ServiceOverloadedException;
+import com.tracking.tracking_api.export.ExportFormat;
+import com.tracking.tracking_api.export.TrackingNumberExporter;
+import com.tracking.tracking_api.idempotency.IdempotencyCache;
 import com.tracking.tracking_api.service.TrackingNumberService;
+import com.tracking.tracking_api.web.TrackingNumberQuery;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -20,42 +35,30 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 @Slf4j
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TrackingController {
 
     private final TrackingNumberService trackingNumberService;
+    private final TrackingNumberExporter trackingNumberExporter;
+    private final TrackingProperties properties;
 
     /**
      * GET endpoint to generate the next tracking number
-     * Accepts query parameters as specified in the requirements
+     * Accepts query parameters as specified in the requirements, bound and validated by TrackingNumberQueryResolver
      */
     @GetMapping("/next-tracking-number")
     public ResponseEntity<TrackingNumberResponse> getNextTrackingNumber(
-            @RequestParam("origin_country_id") String originCountryId,
-            @RequestParam("destination_country_id") String destinationCountryId,
-            @RequestParam("weight") BigDecimal weight,
-            @RequestParam("created_at") OffsetDateTime createdAt,
-            @RequestParam("customer_id") UUID customerId,
-            @RequestParam("customer_name") String customerName,
-            @RequestParam("customer_slug") String customerSlug) {
-        
-        log.info("Received tracking number request for customer: {}", customerName);
+            @TrackingNumberQuery TrackingNumberRequest request,
+            @RequestHeader(name = IdempotencyCache.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         
-        // Build request DTO from query parameters
-        TrackingNumberRequest request = new TrackingNumberRequest();
-        request.setOriginCountryId(originCountryId);
-        request.setDestinationCountryId(destinationCountryId);
-        request.setWeight(weight);
-        request.setCreatedAt(createdAt);
-        request.setCustomerId(customerId);
-        request.setCustomerName(customerName);
-        request.setCustomerSlug(customerSlug);
-
         try {
-            TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request);
-            log.info("Successfully generated tracking number: {}", response.getTrackingNumber());
+            TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(request, idempotencyKey);
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException | InvalidRequestException e) {
+            // Answered with 503 and Retry-After, or 400, by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
-            log.error("Error generating tracking number for customer: {}", customerName, e);
+            log.error("Error generating tracking number for customer: {}", request.getCustomerName(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(TrackingNumberResponse.builder()
                             .trackingNumber("ERROR")
@@ -69,33 +72,19 @@ public class TrackingController {
      */
     @GetMapping("/next-tracking-number/async")
     public CompletableFuture<ResponseEntity<TrackingNumberResponse>> getNextTrackingNumberAsync(
-            @RequestParam("origin_country_id") String originCountryId,
-            @RequestParam("destination_country_id") String destinationCountryId,
-            @RequestParam("weight") BigDecimal weight,
-            @RequestParam("created_at") OffsetDateTime createdAt,
-            @RequestParam("customer_id") UUID customerId,
-            @RequestParam("customer_name") String customerName,
-            @RequestParam("customer_slug") String customerSlug) {
+            @TrackingNumberQuery TrackingNumberRequest request,
+            @RequestHeader(name = IdempotencyCache.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         
-        log.info("Received async tracking number request for customer: {}", customerName);
-        
-        // Build request DTO from query parameters
-        TrackingNumberRequest request = new TrackingNumberRequest();
-        request.setOriginCountryId(originCountryId);
-        request.setDestinationCountryId(destinationCountryId);
-        request.setWeight(weight);
-        request.setCreatedAt(createdAt);
-        request.setCustomerId(customerId);
-        request.setCustomerName(customerName);
-        request.setCustomerSlug(customerSlug);
-        
-        return trackingNumberService.generateTrackingNumberAsync(request)
-                .thenApply(response -> {
-                    log.info("Successfully generated async tracking number: {}", response.getTrackingNumber());
-                    return ResponseEntity.ok(response);
-                })
+        return trackingNumberService.generateTrackingNumberAsync(request, idempotencyKey)
+                .thenApply(ResponseEntity::ok)
                 .exceptionally(throwable -> {
-                    log.error("Error generating async tracking number for customer: {}", customerName, throwable);
+                    if (throwable.getCause() instanceof ServiceOverloadedException overloaded) {
+                        throw overloaded;
+                    }
+                    if (throwable.getCause() instanceof InvalidRequestException invalid) {
+                        throw invalid;
+                    }
+                    log.error("Error generating async tracking number for customer: {}", request.getCustomerName(), throwable);
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                             .body(TrackingNumberResponse.builder()
                                     .trackingNumber("ERROR")
@@ -104,6 +93,63 @@ public class TrackingController {
                 });
     }
     
+    /**
+     * Generate tracking numbers for a whole shipment manifest in one call.
+     * Numbers are returned in the same order as the requests.
+     */
+    @PostMapping("/tracking-numbers/batch")
+    public ResponseEntity<List<TrackingNumberResponse>> generateTrackingNumberBatch(
+            @RequestBody @NotEmpty(message = "At least one request is required") List<@Valid TrackingNumberRequest> requests) {
+        
+        int maxSize = properties.getBatch().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new InvalidRequestException("Batch cannot contain more than " + maxSize + " requests");
+        }
+        
+        return ResponseEntity.ok(trackingNumberService.generateTrackingNumbers(requests));
+    }
+    
+    /**
+     * Look up an issued tracking number.
+     * Rows never change once stored, so responses carry an ETag and may be cached for tracking.lookup.max-age
+     * by the client only, since they hold customer details; a matching If-None-Match is answered with 304.
+     */
+    @GetMapping("/tracking-numbers/{trackingNumber}")
+    public ResponseEntity<TrackingNumberDetails> getTrackingNumber(
+            @PathVariable @Pattern(regexp = "^[A-Z0-9]{1,16}$", message = "Tracking number must match ^[A-Z0-9]{1,16}$") String trackingNumber) {
+        
+        return trackingNumberService.findTrackingNumber(trackingNumber)
+                .map(details -> ResponseEntity.ok()
+                        .eTag(eTag(details))
+                        .cacheControl(CacheControl.maxAge(properties.getLookup().getMaxAge()).cachePrivate())
+                        .body(details))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Stream every tracking number issued to a customer from {@code from} (inclusive) to {@code to} (exclusive),
+     * oldest first, as NDJSON or CSV.
+     * Written on the request thread straight to the response, so the export is not cut by the async request timeout.
+     */
+    @GetMapping("/tracking-numbers/export")
+    public void exportTrackingNumbers(
+            @RequestParam("customer_id") UUID customerId,
+            @RequestParam("from") OffsetDateTime from,
+            @RequestParam("to") OffsetDateTime to,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("from must be before to");
+        }
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        long rows = trackingNumberExporter.export(customerId, from, to, exportFormat, response.getOutputStream());
+        log.debug("Exported {} tracking numbers for customer: {}", rows, customerId);
+    }
+    
     /**
      * Health check endpoint
      */
@@ -111,4 +157,11 @@ public class TrackingController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Tracking API is healthy");
     }
-} 
\ No newline at end of file
+    
+    /**
+     * The number and the second it was issued, identical on every instance and unchanged for the life of the row
+     */
+    private static String eTag(TrackingNumberDetails details) {
+        return details.getTrackingNumber() + "-" + Long.toHexString(details.getCreatedAt().toEpochSecond());
+    }
+}
\ No newline at end of file
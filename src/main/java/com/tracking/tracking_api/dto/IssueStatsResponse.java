@@ -0,0 +1,37 @@
+package com.tracking.tracking_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tracking numbers issued to a customer over a range of order months, per lane and month
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueStatsResponse {
+    
+    private UUID customerId;
+    private YearMonth from;
+    private YearMonth to;
+    private long total;
+    private List<LaneMonth> lanes;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneMonth {
+        
+        private YearMonth orderMonth;
+        private String originCountryId;
+        private String destinationCountryId;
+        private long issued;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tracking.tracking_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * An issued tracking number with the order it was issued for
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingNumberDetails {
+    
+    private String trackingNumber;
+    
+    private String originCountryId;
+    private String destinationCountryId;
+    private BigDecimal weight;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
+    private OffsetDateTime orderCreatedAt;
+    
+    private UUID customerId;
+    private String customerName;
+    private String customerSlug;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.tracking.tracking_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tracking numbers issued for one customer, lane and order month, maintained by adding flushed deltas
+ */
+@Entity
+@Table(name = "tracking_number_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueRollup {
+    
+    @EmbeddedId
+    private IssueRollupKey key;
+    
+    @Column(name = "issued", nullable = false)
+    private Long issued;
+}
@@ -0,0 +1,36 @@
+package com.tracking.tracking_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Customer, lane and order month a rollup counts tracking numbers for
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueRollupKey implements Serializable {
+    
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+    
+    @Column(name = "origin_country_id", nullable = false, length = 2)
+    private String originCountryId;
+    
+    @Column(name = "destination_country_id", nullable = false, length = 2)
+    private String destinationCountryId;
+    
+    /**
+     * First day of the order month, as in {@link TrackingNumber#getOrderMonth()}
+     */
+    @Column(name = "order_month", nullable = false)
+    private LocalDate orderMonth;
+}
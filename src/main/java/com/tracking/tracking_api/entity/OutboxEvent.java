@@ -0,0 +1,61 @@
+package com.tracking.tracking_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * An issued tracking number waiting to be published, written in the same transaction as its row
+ * in {@code tracking_numbers}, leased by a relay worker while it delivers it and deleted once
+ * delivered.
+ * <p>
+ * Mapped so Hibernate creates the table; rows are inserted, claimed and deleted with plain JDBC
+ * by {@code TrackingNumberOutbox}.
+ */
+@Entity
+@Table(name = "tracking_number_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * Insertion order, the order events are relayed in and the relay's cursor
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tracking_number", nullable = false, length = 16)
+    private String trackingNumber;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column(name = "customer_slug", nullable = false)
+    private String customerSlug;
+
+    @Column(name = "origin_country_id", nullable = false, length = 2)
+    private String originCountryId;
+
+    @Column(name = "destination_country_id", nullable = false, length = 2)
+    private String destinationCountryId;
+
+    /**
+     * When the number was issued, the start of the relay lag
+     */
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Until when a relay worker holds the event for delivery, null while nobody does
+     */
+    @Column(name = "leased_until")
+    private OffsetDateTime leasedUntil;
+}
@@ -0,0 +1,36 @@
+package com.tracking.tracking_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A flush of counter deltas already added to the rollups, so a retried flush is not added twice
+ */
+@Entity
+@Table(name = "tracking_number_rollup_flushes", indexes = {
+    @Index(name = "idx_rollup_flushed_at", columnList = "flushedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupFlush {
+    
+    /**
+     * Id of the marker recording that the rollups were seeded from {@code tracking_numbers}, flushed at the seed's cutoff
+     */
+    public static final String SEED_ID = "seed";
+    
+    /**
+     * Instance id and flush sequence number
+     */
+    @Id
+    @Column(name = "flush_id", length = 64)
+    private String flushId;
+    
+    @Column(name = "flushed_at", nullable = false)
+    private OffsetDateTime flushedAt;
+}
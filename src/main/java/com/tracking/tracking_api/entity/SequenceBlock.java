@@ -0,0 +1,27 @@
+package com.tracking.tracking_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shared counter from which instances lease blocks of sequence values
+ */
+@Entity
+@Table(name = "sequence_blocks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SequenceBlock {
+    
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+    
+    /**
+     * First value not leased to any instance yet
+     */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -1,13 +1,17 @@
 package com.tracking.tracking_api.entity;
 
+import com.tracking.tracking_api.outbox.OutboxListener;
+import com.tracking.tracking_api.packed.PackedNumberListener;
+import com.tracking.tracking_api.partition.GlobalUniqueKeysListener;
+import com.tracking.tracking_api.stats.IssueCountingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
@@ -15,21 +19,42 @@ import java.util.UUID;
 @Table(name = "tracking_numbers", indexes = {
     @Index(name = "idx_tracking_number", columnList = "trackingNumber", unique = true),
     @Index(name = "idx_customer_id", columnList = "customerId"),
-    @Index(name = "idx_created_at", columnList = "createdAt")
+    @Index(name = "idx_created_at", columnList = "createdAt"),
+    @Index(name = "idx_customer_created_at", columnList = "customerId, createdAt, id"),
+    @Index(name = "idx_idempotency_key", columnList = "idempotencyKey", unique = true)
 })
+@EntityListeners({IssueCountingListener.class, PackedNumberListener.class, OutboxListener.class,
+    GlobalUniqueKeysListener.class})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class TrackingNumber {
     
+    /**
+     * Pooled sequence rather than IDENTITY, so Hibernate can batch inserts
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tracking_numbers_seq")
+    @SequenceGenerator(name = "tracking_numbers_seq", sequenceName = "tracking_numbers_seq", allocationSize = 50)
     private Long id;
     
-    @Column(name = "tracking_number", nullable = false, unique = true, length = 16)
+    @Column(name = "tracking_number", nullable = false, length = 16)
     private String trackingNumber;
     
+    /**
+     * First 8 characters of the number packed by TrackingNumberCodec, set unless tracking.storage.number-format=string.
+     * Together with trackingNumberLow a unique key of 16 bytes instead of the string, indexed by PackedNumberIndex.
+     */
+    @Column(name = "tracking_number_hi")
+    private Long trackingNumberHigh;
+    
+    /**
+     * Last 8 characters of the packed number, 0 for numbers of up to 8 characters
+     */
+    @Column(name = "tracking_number_lo")
+    private Long trackingNumberLow;
+    
     @Column(name = "origin_country_id", nullable = false, length = 2)
     private String originCountryId;
     
@@ -42,6 +67,13 @@ public class TrackingNumber {
     @Column(name = "order_created_at", nullable = false)
     private OffsetDateTime orderCreatedAt;
     
+    /**
+     * First day of the order month as encoded in the number (local to the order's offset),
+     * the partition key in partitioned storage
+     */
+    @Column(name = "order_month", nullable = false)
+    private LocalDate orderMonth;
+    
     @Column(name = "customer_id", nullable = false)
     private UUID customerId;
     
@@ -51,11 +83,30 @@ public class TrackingNumber {
     @Column(name = "customer_slug", nullable = false)
     private String customerSlug;
     
-    @CreationTimestamp
+    /**
+     * Set when the number was issued for an idempotent request, repeats of it are answered with this row
+     */
+    @Column(name = "idempotency_key", length = 200)
+    private String idempotencyKey;
+    
+    /**
+     * When the number was issued, kept when already set so the stored value is the one answered at issue time
+     * even when the insert happens later, as with write-behind
+     */
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
     
     @Version
     @Column(name = "version")
     private Long version;
+    
+    @PrePersist
+    void fillDerivedColumns() {
+        if (orderMonth == null && orderCreatedAt != null) {
+            orderMonth = orderCreatedAt.toLocalDate().withDayOfMonth(1);
+        }
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.tracking.tracking_api.exception;
+
+import java.util.Map;
+
+/**
+ * Query parameters that failed binding or validation, answered with 400 and one message per parameter
+ */
+public class InvalidParametersException extends RuntimeException {
+    
+    private final Map<String, String> errors;
+    
+    public InvalidParametersException(Map<String, String> errors) {
+        super("Invalid request parameters: " + errors);
+        this.errors = errors;
+    }
+    
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
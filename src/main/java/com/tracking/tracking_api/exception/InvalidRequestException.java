@@ -0,0 +1,11 @@
+package com.tracking.tracking_api.exception;
+
+/**
+ * Request that passed binding but breaks a rule checked by the application, answered with 400
+ */
+public class InvalidRequestException extends RuntimeException {
+    
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tracking.tracking_api.exception;
+
+/**
+ * Request refused because the service is at capacity, answered with 503 and Retry-After
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tracking.tracking_api.existence;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over strings with its bit array in a direct buffer, outside the Java heap.
+ * <p>
+ * Sized from the expected number of entries and the target false positive rate. Bits are set with
+ * an atomic OR, so adds and lookups are safe from any number of threads without locking. Entries
+ * can never be removed, and a lookup answers either "definitely absent" or "possibly present".
+ */
+public class OffHeapBloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final long MAX_BITS = (long) (Integer.MAX_VALUE - 7) * Byte.SIZE;
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder bitsSet = new LongAdder();
+
+    public OffHeapBloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (expectedEntries <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected entries must be positive and the false positive rate between 0 and 1");
+        }
+        // Optimal size m = -n ln p / (ln 2)^2 and hash count k = m / n ln 2, m rounded up to whole words
+        long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.bitCount = words * Long.SIZE;
+        if (bitCount > MAX_BITS) {
+            throw new IllegalArgumentException("Bloom filter of " + bitCount + " bits exceeds the largest direct buffer");
+        }
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        this.bits = ByteBuffer.allocateDirect((int) (words * Long.BYTES)).order(ByteOrder.nativeOrder());
+    }
+
+    public void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            long mask = 1L << bit;
+            long previous = (long) WORDS.getAndBitwiseOr(bits, (int) (bit >>> 6) * Long.BYTES, mask);
+            if ((previous & mask) == 0) {
+                bitsSet.increment();
+            }
+        }
+    }
+
+    /**
+     * False only if the value was certainly never added
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            long word = (long) WORDS.getAcquire(bits, (int) (bit >>> 6) * Long.BYTES);
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Fraction of bits set, the false positive rate grows with it as {@code fillRatio ^ hashCount}
+     */
+    public double fillRatio() {
+        return (double) bitsSet.sum() / bitCount;
+    }
+
+    public double expectedFalsePositiveRate() {
+        return Math.pow(fillRatio(), hashCount);
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 mixer so every bit depends on the input
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
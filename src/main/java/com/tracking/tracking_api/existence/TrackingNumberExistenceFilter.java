@@ -0,0 +1,161 @@
+package com.tracking.tracking_api.existence;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Bloom filter of every tracking number in the database, consulted before the existence query.
+ * <p>
+ * At startup it is warmed from the {@code tracking_numbers} table in pages of {@code warmPageSize}
+ * rows on a background thread, so startup memory does not grow with the table. Until warming has
+ * finished every candidate is checked against the database. Numbers are added as soon as they are
+ * saved. A candidate the filter has never seen skips the query; numbers inserted by other
+ * instances are not in this filter, so the unique index on {@code tracking_number} stays the final
+ * guard and the service retries on a violation.
+ */
+@Slf4j
+public class TrackingNumberExistenceFilter implements SmartLifecycle {
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final OffHeapBloomFilter bloomFilter;
+    private final int warmPageSize;
+
+    private final Counter skippedCounter;
+    private final Counter falsePositiveCounter;
+    private final Counter presentCounter;
+
+    private volatile boolean warm;
+    private volatile boolean running;
+    private Thread warmThread;
+
+    public TrackingNumberExistenceFilter(TrackingNumberRepository trackingNumberRepository,
+                                         TrackingProperties properties,
+                                         MeterRegistry meterRegistry) {
+        TrackingProperties.ExistenceFilter settings = properties.getExistenceFilter();
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.bloomFilter = new OffHeapBloomFilter(settings.getExpectedEntries(), settings.getFalsePositiveRate());
+        this.warmPageSize = settings.getWarmPageSize();
+
+        Gauge.builder("tracking.existence.filter.fill.ratio", bloomFilter, OffHeapBloomFilter::fillRatio)
+                .description("Fraction of Bloom filter bits set")
+                .register(meterRegistry);
+        Gauge.builder("tracking.existence.filter.expected.fpp", bloomFilter, OffHeapBloomFilter::expectedFalsePositiveRate)
+                .description("False positive rate expected at the current fill ratio")
+                .register(meterRegistry);
+        Gauge.builder("tracking.existence.filter.warm", this, filter -> filter.warm ? 1 : 0)
+                .description("1 once the filter has been loaded from the database")
+                .register(meterRegistry);
+        this.skippedCounter = checkCounter(meterRegistry, "skipped");
+        this.falsePositiveCounter = checkCounter(meterRegistry, "false_positive");
+        this.presentCounter = checkCounter(meterRegistry, "present");
+    }
+
+    /**
+     * Whether the tracking number is taken, querying the database only when the filter cannot rule it out
+     */
+    public boolean exists(String trackingNumber, Predicate<String> databaseCheck) {
+        if (warm && !bloomFilter.mightContain(trackingNumber)) {
+            skippedCounter.increment();
+            return false;
+        }
+
+        boolean exists = databaseCheck.test(trackingNumber);
+        if (warm) {
+            (exists ? presentCounter : falsePositiveCounter).increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Candidates the database has to be asked about, the others are certainly unused
+     */
+    public List<String> candidatesToCheck(List<String> trackingNumbers) {
+        if (!warm) {
+            return trackingNumbers;
+        }
+        List<String> toCheck = trackingNumbers.stream().filter(bloomFilter::mightContain).toList();
+        skippedCounter.increment(trackingNumbers.size() - toCheck.size());
+        return toCheck;
+    }
+
+    /**
+     * Record the outcome of checking {@link #candidatesToCheck} results against the database
+     */
+    public void recordChecked(int checked, int existing) {
+        if (warm) {
+            presentCounter.increment(existing);
+            falsePositiveCounter.increment(checked - existing);
+        }
+    }
+
+    public void add(String trackingNumber) {
+        bloomFilter.add(trackingNumber);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        warmThread = new Thread(this::warm, "Tracking-existence-filter-warm");
+        warmThread.setDaemon(true);
+        warmThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        warmThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Load every existing tracking number, keyset-paged by id
+     */
+    void warm() {
+        long started = System.nanoTime();
+        long loaded = 0;
+        long afterId = 0;
+        try {
+            while (running) {
+                List<TrackingNumberRepository.TrackingNumberKey> page =
+                        trackingNumberRepository.findKeysAfter(afterId, Limit.of(warmPageSize));
+                for (TrackingNumberRepository.TrackingNumberKey key : page) {
+                    bloomFilter.add(key.getTrackingNumber());
+                }
+                loaded += page.size();
+                if (page.size() < warmPageSize) {
+                    warm = running;
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            log.info("Existence filter loaded {} tracking numbers in {} ms ({} bits, {} hashes)",
+                    loaded, (System.nanoTime() - started) / 1_000_000, bloomFilter.bitCount(), bloomFilter.hashCount());
+        } catch (RuntimeException e) {
+            log.error("Unable to load existence filter after {} tracking numbers, every candidate will be queried", loaded, e);
+        }
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tracking.existence.filter.checks")
+                .description("Candidates seen by the existence filter: skipped the query, false positive or actually present")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.tracking.tracking_api.export;
+
+import com.tracking.tracking_api.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * Output formats of the tracking number export
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson"),
+    /**
+     * Comma-separated values with a header line
+     */
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat parse(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Format must be ndjson or csv");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.tracking.tracking_api.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.service.DatabaseConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams every tracking number of a customer issued in a time range, oldest first.
+ * <p>
+ * Rows are read in pages with keyset pagination on {@code (customer_id, created_at, id)}: each page
+ * starts after the last row of the previous one, so it is one index range scan on
+ * {@code idx_customer_created_at} however deep into the export it is, unlike an {@code OFFSET}.
+ * A page is read through a forward-only cursor with only the exported columns and written out
+ * before the next one is queried. Memory is bounded by {@code pageSize} rows, no connection is
+ * held while writing, and a client that reads slowly blocks the writes and so the next query.
+ */
+@Component
+public class TrackingNumberExporter {
+
+    static final String CSV_HEADER = "tracking_number,origin_country_id,destination_country_id,weight,order_created_at,created_at";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT id, tracking_number, origin_country_id, destination_country_id, weight, order_created_at, created_at
+            FROM tracking_numbers
+            WHERE customer_id = ? AND created_at >= ? AND created_at < ?
+            ORDER BY created_at, id
+            FETCH FIRST ? ROWS ONLY""";
+
+    private static final String NEXT_PAGE_SQL = """
+            SELECT id, tracking_number, origin_country_id, destination_country_id, weight, order_created_at, created_at
+            FROM tracking_numbers
+            WHERE customer_id = ? AND created_at < ? AND (created_at, id) > (?, ?)
+            ORDER BY created_at, id
+            FETCH FIRST ? ROWS ONLY""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final JsonFactory jsonFactory;
+    private final int pageSize;
+    private final Counter rowCounter;
+
+    public TrackingNumberExporter(JdbcTemplate jdbcTemplate,
+                                  DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                                  ObjectMapper objectMapper,
+                                  TrackingProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.jsonFactory = objectMapper.getFactory();
+        this.pageSize = properties.getExport().getPageSize();
+        this.rowCounter = Counter.builder("tracking.export.rows")
+                .description("Tracking numbers written by exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write the customer's tracking numbers issued from {@code from} (inclusive) to {@code to} (exclusive)
+     *
+     * @return number of rows written
+     */
+    public long export(UUID customerId, OffsetDateTime from, OffsetDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        RowWriter writer = format == ExportFormat.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+        long rows = 0;
+        List<ExportRow> page = firstPage(customerId, from, to);
+        while (!page.isEmpty()) {
+            for (ExportRow row : page) {
+                writer.write(row);
+            }
+            // Pushes the page to the client, blocking here while it is still reading the last one
+            writer.flush();
+            rows += page.size();
+            rowCounter.increment(page.size());
+            if (page.size() < pageSize) {
+                break;
+            }
+            ExportRow last = page.get(page.size() - 1);
+            page = nextPage(customerId, to, last.createdAt(), last.id());
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private List<ExportRow> firstPage(UUID customerId, OffsetDateTime from, OffsetDateTime to) {
+        return query(FIRST_PAGE_SQL, customerId, from, to, pageSize);
+    }
+
+    private List<ExportRow> nextPage(UUID customerId, OffsetDateTime to, OffsetDateTime afterCreatedAt, long afterId) {
+        return query(NEXT_PAGE_SQL, customerId, to, afterCreatedAt, afterId, pageSize);
+    }
+
+    private List<ExportRow> query(String sql, Object... args) {
+        return databaseConcurrencyLimiter.execute(() -> jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(pageSize);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, resultSet -> {
+            List<ExportRow> page = new ArrayList<>(pageSize);
+            while (resultSet.next()) {
+                page.add(toRow(resultSet));
+            }
+            return page;
+        }));
+    }
+
+    private static ExportRow toRow(ResultSet resultSet) throws SQLException {
+        return new ExportRow(
+                resultSet.getLong("id"),
+                resultSet.getString("tracking_number"),
+                resultSet.getString("origin_country_id"),
+                resultSet.getString("destination_country_id"),
+                resultSet.getBigDecimal("weight"),
+                resultSet.getObject("order_created_at", OffsetDateTime.class),
+                resultSet.getObject("created_at", OffsetDateTime.class));
+    }
+
+    record ExportRow(long id, String trackingNumber, String originCountryId, String destinationCountryId,
+                     BigDecimal weight, OffsetDateTime orderCreatedAt, OffsetDateTime createdAt) {
+    }
+
+    private interface RowWriter {
+
+        void write(ExportRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            // One object per line instead of the default space between root values
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("trackingNumber", row.trackingNumber());
+            generator.writeStringField("originCountryId", row.originCountryId());
+            generator.writeStringField("destinationCountryId", row.destinationCountryId());
+            generator.writeNumberField("weight", row.weight());
+            generator.writeStringField("orderCreatedAt", TIMESTAMP_FORMAT.format(row.orderCreatedAt()));
+            generator.writeStringField("createdAt", TIMESTAMP_FORMAT.format(row.createdAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        /**
+         * No quoting needed, none of the exported columns can contain a comma, quote or line break
+         */
+        @Override
+        public void write(ExportRow row) throws IOException {
+            writer.write(row.trackingNumber());
+            writer.write(',');
+            writer.write(row.originCountryId());
+            writer.write(',');
+            writer.write(row.destinationCountryId());
+            writer.write(',');
+            writer.write(row.weight().toPlainString());
+            writer.write(',');
+            writer.write(TIMESTAMP_FORMAT.format(row.orderCreatedAt()));
+            writer.write(',');
+            writer.write(TIMESTAMP_FORMAT.format(row.createdAt()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.random.RandomSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Original generator: request-derived prefix followed by a random part and a short sequence.
+ * Candidates may repeat, so callers have to check them against the database. The random characters
+ * come from the configured {@link RandomSource}. Customers with a {@link TrackingNumberTemplate}
+ * get its layout instead of the default one.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "random", matchIfMissing = true)
+public class RandomTrackingNumberGenerator implements TrackingNumberGenerator {
+
+    private final RandomSource randomSource;
+    private final TrackingNumberTemplates templates;
+    private final AtomicLong sequenceCounter = new AtomicLong(0);
+
+    public RandomTrackingNumberGenerator(RandomSource randomSource, TrackingNumberTemplates templates, MeterRegistry meterRegistry) {
+        this.randomSource = randomSource;
+        this.templates = templates;
+
+        // Only the last 2 digits of the counter are used, numbers repeat their sequence part on every wrap
+        Gauge.builder("tracking.sequence.counter.wraps", sequenceCounter, counter -> counter.get() / 100)
+                .description("Times the 2-digit sequence part of random mode has wrapped around")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create a tracking number using creative algorithm incorporating request parameters, in the
+     * customer's own template if it has one
+     */
+    @Override
+    public String generate(TrackingNumberRequest request) {
+        long sequence = sequenceCounter.incrementAndGet();
+        Optional<TrackingNumberTemplate> template = templates.find(request.getCustomerSlug());
+        if (template.isPresent()) {
+            return template.get().encode(request, randomSource, sequence);
+        }
+        return TrackingNumberEncoder.encode(request, randomSource, sequence);
+    }
+}
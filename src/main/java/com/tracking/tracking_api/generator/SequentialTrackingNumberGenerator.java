@@ -0,0 +1,34 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.sequence.SequenceAllocator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generator producing numbers that are unique by construction.
+ * <p>
+ * Format (16 characters): origin country (2) + order year (2) + order month (2) + base-36 id (10).
+ * The id comes from a {@link SequenceAllocator} that never repeats a value, so no two numbers
+ * can be equal and no database lookup is needed before the insert.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "sequential")
+public class SequentialTrackingNumberGenerator implements TrackingNumberGenerator {
+
+    private final SequenceAllocator sequenceAllocator;
+
+    public SequentialTrackingNumberGenerator(SequenceAllocator sequenceAllocator) {
+        this.sequenceAllocator = sequenceAllocator;
+    }
+
+    @Override
+    public String generate(TrackingNumberRequest request) {
+        return TrackingNumberEncoder.encodeSequential(request, sequenceAllocator.next());
+    }
+
+    @Override
+    public boolean isUniqueByConstruction() {
+        return true;
+    }
+}
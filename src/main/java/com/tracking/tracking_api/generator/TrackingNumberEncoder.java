@@ -0,0 +1,201 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.random.RandomGenerator;
+
+/**
+ * Writes tracking numbers into a {@code char[]} local to the call, which escape analysis keeps off
+ * the heap, so the only allocation per number is the resulting String. A per-thread buffer would
+ * be allocated again for every virtual thread, i.e. for every request in virtual mode.
+ * <p>
+ * Digits come from lookup tables and the weight code is computed from the decimal's double value
+ * instead of BigDecimal arithmetic. Inputs the fast path cannot represent exactly (negative
+ * values, more than 3 decimals, very large weights, non-ASCII slugs) fall back to the original
+ * String-based code, so the output always matches it. Customer codes are uppercased without
+ * locale rules, which only differs from the original in locales with special casing of ASCII
+ * letters (Turkish and Azerbaijani dotted i).
+ */
+public final class TrackingNumberEncoder {
+
+    public static final int MIN_LENGTH = 12;
+    public static final int MAX_LENGTH = 16;
+
+    static final char[] ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private static final char[] BASE36_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int SEQUENTIAL_ID_LENGTH = 10;
+
+    static final char[] DIGIT_TENS = new char[100];
+    static final char[] DIGIT_ONES = new char[100];
+
+    /**
+     * Weights up to this many significant digits convert to double without losing the last decimal
+     */
+    private static final int MAX_FAST_WEIGHT_PRECISION = 15;
+
+    /**
+     * Room for the default layout before it is cut to {@link #MAX_LENGTH}, including the String
+     * fallbacks for negative years and sequences and slugs that grow when uppercased
+     */
+    private static final int BUFFER_LENGTH = 32;
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private TrackingNumberEncoder() {
+    }
+
+    /**
+     * Default layout: origin (2) + weight code (3) + customer code (1-2) + year and month (3-4)
+     * + random (2) + sequence (2), cut to 16 and padded with random characters to 12
+     */
+    public static String encode(TrackingNumberRequest request, RandomGenerator random, long sequence) {
+        char[] buf = new char[BUFFER_LENGTH];
+        int pos = writePrefix(request, buf);
+        pos = writeSuffix(buf, pos, random, sequence);
+        return new String(buf, 0, pos);
+    }
+
+    /**
+     * The request-derived part of the default layout, everything before the random component
+     */
+    public static String encodePrefix(TrackingNumberRequest request) {
+        char[] buf = new char[BUFFER_LENGTH];
+        return new String(buf, 0, writePrefix(request, buf));
+    }
+
+    /**
+     * Complete a prefix from {@link #encodePrefix} exactly as {@link #encode} would
+     */
+    public static String encodeWithPrefix(String prefix, RandomGenerator random, long sequence) {
+        char[] buf = new char[BUFFER_LENGTH];
+        int pos = append(prefix, buf, 0);
+        pos = writeSuffix(buf, pos, random, sequence);
+        return new String(buf, 0, pos);
+    }
+
+    private static int writePrefix(TrackingNumberRequest request, char[] buf) {
+        int pos = 0;
+
+        // Prefix: First 2 letters from origin country
+        request.getOriginCountryId().getChars(0, 2, buf, pos);
+        pos += 2;
+
+        // Middle: Weight-based encoding (last 3 digits of weight * 1000)
+        pos = writeWeightCode(request.getWeight(), buf, pos);
+
+        // Customer identifier: First 2 letters of customer slug (uppercase)
+        pos = writeCustomerCode(request.getCustomerSlug(), buf, pos);
+
+        // Timestamp component: Last 2 digits of year + month
+        OffsetDateTime createdAt = request.getCreatedAt();
+        int year = createdAt.getYear() % 100;
+        if (year >= 10) {
+            buf[pos++] = DIGIT_TENS[year];
+            buf[pos++] = DIGIT_ONES[year];
+        } else if (year >= 0) {
+            buf[pos++] = DIGIT_ONES[year];
+        } else {
+            pos = append(String.valueOf(year), buf, pos);
+        }
+        int month = createdAt.getMonthValue();
+        buf[pos++] = DIGIT_TENS[month];
+        buf[pos++] = DIGIT_ONES[month];
+        return pos;
+    }
+
+    private static int writeSuffix(char[] buf, int pos, RandomGenerator random, long sequence) {
+        // Random component: 2 random alphanumeric characters
+        buf[pos++] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+        buf[pos++] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+
+        // Sequence number: Last 2 digits of the sequence
+        if (sequence >= 0) {
+            int sequenceCode = (int) (sequence % 100);
+            buf[pos++] = DIGIT_TENS[sequenceCode];
+            buf[pos++] = DIGIT_ONES[sequenceCode];
+        } else {
+            pos = append(String.format("%02d", sequence % 100), buf, pos);
+        }
+
+        // Cut to 16 characters, pad with random characters up to 12
+        if (pos > MAX_LENGTH) {
+            pos = MAX_LENGTH;
+        }
+        while (pos < MIN_LENGTH) {
+            buf[pos++] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+        }
+        return pos;
+    }
+
+    /**
+     * Sequential layout: origin (2) + zero-padded year and month (4) + fixed-width base-36 id (10)
+     */
+    public static String encodeSequential(TrackingNumberRequest request, long id) {
+        char[] buf = new char[MAX_LENGTH];
+
+        // Prefix: First 2 letters from origin country
+        request.getOriginCountryId().getChars(0, 2, buf, 0);
+
+        // Order date: zero-padded year and month
+        OffsetDateTime createdAt = request.getCreatedAt();
+        int year = Math.floorMod(createdAt.getYear(), 100);
+        int month = createdAt.getMonthValue();
+        buf[2] = DIGIT_TENS[year];
+        buf[3] = DIGIT_ONES[year];
+        buf[4] = DIGIT_TENS[month];
+        buf[5] = DIGIT_ONES[month];
+
+        // Unique id: fixed-width base-36
+        int length = 6 + SEQUENTIAL_ID_LENGTH;
+        for (int i = length - 1; i >= 6; i--) {
+            buf[i] = BASE36_DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+
+        return new String(buf, 0, length);
+    }
+
+    static int writeWeightCode(BigDecimal weight, char[] buf, int pos) {
+        int scale = weight.scale();
+        if (weight.signum() >= 0 && scale >= 0 && scale <= 3 && weight.precision() <= MAX_FAST_WEIGHT_PRECISION) {
+            // Exact: weight * 1000 is an integer below 2^53, rounding removes the binary representation error
+            long millis = Math.round(weight.doubleValue() * 1000);
+            int code = (int) (millis % 1000);
+            buf[pos++] = (char) ('0' + code / 100);
+            buf[pos++] = DIGIT_TENS[code % 100];
+            buf[pos++] = DIGIT_ONES[code % 100];
+            return pos;
+        }
+
+        BigDecimal weightValue = weight.multiply(BigDecimal.valueOf(1000));
+        return append(String.format("%03d", weightValue.remainder(BigDecimal.valueOf(1000)).intValue()), buf, pos);
+    }
+
+    private static int writeCustomerCode(String slug, char[] buf, int pos) {
+        int length = Math.min(2, slug.length());
+        for (int i = 0; i < length; i++) {
+            if (slug.charAt(i) >= 0x80) {
+                return append(slug.substring(0, length).toUpperCase(), buf, pos);
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = slug.charAt(i);
+            buf[pos++] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+        return pos;
+    }
+
+    private static int append(String value, char[] buf, int pos) {
+        value.getChars(0, value.length(), buf, pos);
+        return pos + value.length();
+    }
+}
@@ -0,0 +1,22 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+
+/**
+ * Strategy for building tracking number candidates from a request
+ */
+public interface TrackingNumberGenerator {
+
+    /**
+     * Create a tracking number candidate for the given request
+     */
+    String generate(TrackingNumberRequest request);
+
+    /**
+     * Whether generated numbers never repeat, so callers can skip the existence check
+     * and rely on the unique index alone
+     */
+    default boolean isUniqueByConstruction() {
+        return false;
+    }
+}
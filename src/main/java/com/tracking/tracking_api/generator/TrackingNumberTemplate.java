@@ -0,0 +1,475 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A tracking number layout compiled from a template such as {@code RB{origin}{weight}{yymm}{random:5}{check}}.
+ * <p>
+ * The template is parsed once into a chain of segment writers built from {@link MethodHandle}s, each
+ * writer putting its characters straight into a {@code char[]} local to the call, as
+ * {@link TrackingNumberEncoder} does. A chain called often is customized by the JVM into code of
+ * its own, in which the JIT inlines every writer into one straight run of writes, so a template
+ * writes the default layout as fast as the hand-written encoder (see
+ * {@code TrackingNumberTemplateBenchmark}). Adjacent literal characters are written as one segment.
+ * <p>
+ * Segments:
+ * <ul>
+ *   <li>{@code A-Z} and {@code 0-9}: literal characters, e.g. a carrier prefix</li>
+ *   <li>{@code {origin}} and {@code {destination}}: country codes (2)</li>
+ *   <li>{@code {weight}}: last 3 digits of the weight in grams, the weight code of the default layout</li>
+ *   <li>{@code {customer}} or {@code {customer:N}}: first 2 (or N) letters and digits of the customer slug,
+ *       uppercase. Hyphens are skipped, and shorter slugs write fewer characters</li>
+ *   <li>{@code {yymm}}: zero-padded order year and month (4)</li>
+ *   <li>{@code {random:N}}: N random characters from {@code A-Z0-9}</li>
+ *   <li>{@code {seq:N}}: last N digits of the generator's sequence, zero-padded</li>
+ *   <li>{@code {check}}: ISO 7064 MOD 37,36 check character of everything before it. Only allowed last</li>
+ * </ul>
+ * Numbers can be at most {@value TrackingNumberEncoder#MAX_LENGTH} characters, and need at least
+ * {@value #MIN_RANDOM_CHARACTERS} random characters to be retried on collisions.
+ */
+public final class TrackingNumberTemplate {
+
+    static final int MIN_RANDOM_CHARACTERS = 2;
+
+    private static final int MAX_CUSTOMER_LENGTH = 8;
+    private static final int MAX_SEQUENCE_DIGITS = 9;
+    private static final int CHECK_MODULUS = 36;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    /**
+     * {@code (request, random, sequence, buf, pos) -> pos}, the type of segment writers and of their chain
+     */
+    private static final MethodType WRITER_TYPE = MethodType.methodType(int.class,
+            TrackingNumberRequest.class, RandomGenerator.class, long.class, char[].class, int.class);
+    private static final int REQUEST = 0;
+    private static final int RANDOM = 1;
+    private static final int SEQUENCE = 2;
+    private static final int BUF = 3;
+    private static final int POS = 4;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Next product of the check computation by current product and character, so each character
+     * costs one lookup instead of two divisions
+     */
+    private static final byte[] CHECK_STEPS = new byte[(CHECK_MODULUS + 1) * 128];
+
+    /**
+     * Check character by final product
+     */
+    private static final char[] CHECK_CHARACTERS = new char[CHECK_MODULUS + 1];
+
+    private final String template;
+    private final Segment[] segments;
+    private final MethodHandle writer;
+    private final int minLength;
+    private final int maxLength;
+    private final boolean yearMonth;
+
+    static {
+        for (int product = 1; product <= CHECK_MODULUS; product++) {
+            for (char c : TrackingNumberEncoder.ALPHANUMERIC) {
+                int value = c <= '9' ? c - '0' : c - 'A' + 10;
+                int sum = (product + value) % CHECK_MODULUS;
+                CHECK_STEPS[product * 128 + c] = (byte) ((sum == 0 ? CHECK_MODULUS : sum) * 2 % (CHECK_MODULUS + 1));
+            }
+            int check = (CHECK_MODULUS + 1 - product) % CHECK_MODULUS;
+            CHECK_CHARACTERS[product] = check < 10 ? (char) ('0' + check) : (char) ('A' + check - 10);
+        }
+    }
+
+    private TrackingNumberTemplate(String template, List<Segment> segments) {
+        this.template = template;
+        this.segments = segments.toArray(Segment[]::new);
+        this.writer = chain(segments);
+        this.minLength = segments.stream().filter(segment -> segment.kind() != Kind.CUSTOMER).mapToInt(Segment::length).sum();
+        this.maxLength = segments.stream().mapToInt(Segment::length).sum();
+        this.yearMonth = segments.stream().anyMatch(segment -> segment.kind() == Kind.YEAR_MONTH);
+    }
+
+    /**
+     * Parse and check a template, throwing {@link IllegalArgumentException} naming the first problem
+     */
+    public static TrackingNumberTemplate compile(String template) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int randomCharacters = 0;
+        boolean checked = false;
+
+        int i = 0;
+        while (i < template.length()) {
+            if (checked) {
+                throw invalid(template, i, "{check} must be the last segment");
+            }
+
+            char c = template.charAt(i);
+            if (c != '{') {
+                if (!isAlphanumeric(c)) {
+                    throw invalid(template, i, "literal characters must be A-Z or 0-9");
+                }
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            int end = template.indexOf('}', i);
+            if (end < 0) {
+                throw invalid(template, i, "unclosed {");
+            }
+            if (!literal.isEmpty()) {
+                segments.add(new Segment(Kind.LITERAL, literal.length(), literal.toString()));
+                literal.setLength(0);
+            }
+
+            String segment = template.substring(i + 1, end);
+            int colon = segment.indexOf(':');
+            String name = colon < 0 ? segment : segment.substring(0, colon);
+            String argument = colon < 0 ? null : segment.substring(colon + 1);
+            switch (name) {
+                case "origin", "destination", "weight", "yymm", "check" -> {
+                    if (argument != null) {
+                        throw invalid(template, i, "{" + name + "} takes no length");
+                    }
+                    segments.add(switch (name) {
+                        case "origin" -> new Segment(Kind.ORIGIN, 2, null);
+                        case "destination" -> new Segment(Kind.DESTINATION, 2, null);
+                        case "weight" -> new Segment(Kind.WEIGHT, 3, null);
+                        case "yymm" -> new Segment(Kind.YEAR_MONTH, 4, null);
+                        default -> new Segment(Kind.CHECK, 1, null);
+                    });
+                    checked = name.equals("check");
+                }
+                case "customer" -> segments.add(new Segment(Kind.CUSTOMER,
+                        argument == null ? 2 : length(template, i, argument, MAX_CUSTOMER_LENGTH), null));
+                case "random" -> {
+                    int length = length(template, i, argument, TrackingNumberEncoder.MAX_LENGTH);
+                    segments.add(new Segment(Kind.RANDOM, length, null));
+                    randomCharacters += length;
+                }
+                case "seq" -> segments.add(new Segment(Kind.SEQUENCE, length(template, i, argument, MAX_SEQUENCE_DIGITS), null));
+                default -> throw invalid(template, i, "unknown segment {" + segment + "}");
+            }
+            i = end + 1;
+        }
+        if (!literal.isEmpty()) {
+            segments.add(new Segment(Kind.LITERAL, literal.length(), literal.toString()));
+        }
+
+        int maxLength = segments.stream().mapToInt(Segment::length).sum();
+        if (maxLength > TrackingNumberEncoder.MAX_LENGTH) {
+            throw new IllegalArgumentException("Template " + template + " makes numbers of up to " + maxLength
+                    + " characters, at most " + TrackingNumberEncoder.MAX_LENGTH + " fit");
+        }
+        if (randomCharacters < MIN_RANDOM_CHARACTERS) {
+            throw new IllegalArgumentException("Template " + template + " needs at least " + MIN_RANDOM_CHARACTERS
+                    + " random characters, e.g. {random:" + MIN_RANDOM_CHARACTERS + "}");
+        }
+        return new TrackingNumberTemplate(template, segments);
+    }
+
+    /**
+     * Write a number for the request in this layout
+     */
+    public String encode(TrackingNumberRequest request, RandomGenerator random, long sequence) {
+        char[] buf = new char[TrackingNumberEncoder.MAX_LENGTH];
+        int pos;
+        try {
+            pos = (int) writer.invokeExact(request, random, sequence, buf, 0);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return new String(buf, 0, pos);
+    }
+
+    /**
+     * Longest number this layout can make
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Whether numbers in this layout carry their order month, which partitioned storage needs
+     */
+    public boolean hasYearMonth() {
+        return yearMonth;
+    }
+
+    /**
+     * Positions at which this layout may have written {@code {yymm}} into the number, none when the
+     * number cannot be in this layout because its length, literals or check character do not fit.
+     * Slugs shorter than a {@code {customer}} segment move what follows it, so there can be several.
+     */
+    public int[] yearMonthPositions(String trackingNumber) {
+        int length = trackingNumber.length();
+        if (!yearMonth || length < minLength || length > maxLength || !fits(trackingNumber)) {
+            return NO_POSITIONS;
+        }
+
+        int fixedBefore = 0;
+        int customerBefore = 0;
+        for (Segment segment : segments) {
+            if (segment.kind() == Kind.YEAR_MONTH) {
+                break;
+            }
+            if (segment.kind() == Kind.CUSTOMER) {
+                customerBefore += segment.length();
+            } else {
+                fixedBefore += segment.length();
+            }
+        }
+        // Customer characters written before {yymm}, out of all written
+        int customerWritten = length - minLength;
+        int customerAfter = maxLength - minLength - customerBefore;
+        int from = Math.max(0, customerWritten - customerAfter);
+        int to = Math.min(customerBefore, customerWritten);
+
+        int[] positions = new int[to - from + 1];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = fixedBefore + from + i;
+        }
+        return positions;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * ISO 7064 MOD 37,36 over the first {@code length} characters, digits counting 0-9 and letters 10-35
+     */
+    static char checkCharacter(char[] buf, int length) {
+        int product = CHECK_MODULUS;
+        for (int i = 0; i < length; i++) {
+            product = CHECK_STEPS[product * 128 + buf[i]];
+        }
+        return CHECK_CHARACTERS[product];
+    }
+
+    /**
+     * Whether the number has only characters a template writes, the literals this layout puts at a
+     * fixed distance from its start or end, and a matching check character
+     */
+    private boolean fits(String trackingNumber) {
+        char[] number = trackingNumber.toCharArray();
+        for (char c : number) {
+            if (!isAlphanumeric(c)) {
+                return false;
+            }
+        }
+
+        int pos = 0;
+        for (int i = 0; i < segments.length && segments[i].kind() != Kind.CUSTOMER; i++) {
+            if (segments[i].kind() == Kind.LITERAL && !trackingNumber.startsWith(segments[i].literal(), pos)) {
+                return false;
+            }
+            pos += segments[i].length();
+        }
+        pos = number.length;
+        for (int i = segments.length - 1; i >= 0 && segments[i].kind() != Kind.CUSTOMER; i--) {
+            pos -= segments[i].length();
+            if (segments[i].kind() == Kind.LITERAL && !trackingNumber.startsWith(segments[i].literal(), pos)) {
+                return false;
+            }
+        }
+
+        return segments[segments.length - 1].kind() != Kind.CHECK
+                || number[number.length - 1] == checkCharacter(number, number.length - 1);
+    }
+
+    /**
+     * One handle running the segment writers in order, each taking the position the previous one returned
+     */
+    private static MethodHandle chain(List<Segment> segments) {
+        MethodHandle chain = writer(segments.get(0));
+        for (Segment segment : segments.subList(1, segments.size())) {
+            // next(request, random, sequence, buf, chain(request, random, sequence, buf, pos))
+            chain = MethodHandles.permuteArguments(MethodHandles.collectArguments(writer(segment), POS, chain),
+                    WRITER_TYPE, REQUEST, RANDOM, SEQUENCE, BUF, REQUEST, RANDOM, SEQUENCE, BUF, POS);
+        }
+        return chain;
+    }
+
+    /**
+     * The writer of one segment, its length or literal bound in
+     */
+    private static MethodHandle writer(Segment segment) {
+        int length = segment.length();
+        return switch (segment.kind()) {
+            case LITERAL -> writer("writeLiteral", segment.literal(), BUF, POS);
+            case ORIGIN -> writer("writeOrigin", null, REQUEST, BUF, POS);
+            case DESTINATION -> writer("writeDestination", null, REQUEST, BUF, POS);
+            case WEIGHT -> writer("writeWeight", null, REQUEST, BUF, POS);
+            case CUSTOMER -> writer("writeCustomer", length, REQUEST, BUF, POS);
+            case YEAR_MONTH -> writer("writeYearMonth", null, REQUEST, BUF, POS);
+            case RANDOM -> writer("writeRandom", length, RANDOM, BUF, POS);
+            case SEQUENCE -> writer("writeSequence", length, SEQUENCE, BUF, POS);
+            case CHECK -> writer("writeCheck", null, BUF, POS);
+        };
+    }
+
+    /**
+     * A static writer method adapted to {@link #WRITER_TYPE}, its first parameter bound unless {@code bound}
+     * is null and the others taken from the given writer arguments
+     */
+    private static MethodHandle writer(String name, Object bound, int... arguments) {
+        Class<?>[] parameters = new Class<?>[arguments.length + (bound == null ? 0 : 1)];
+        int offset = 0;
+        if (bound != null) {
+            parameters[offset++] = bound instanceof Integer ? int.class : bound.getClass();
+        }
+        for (int argument : arguments) {
+            parameters[offset++] = WRITER_TYPE.parameterType(argument);
+        }
+        try {
+            MethodHandle handle = LOOKUP.findStatic(TrackingNumberTemplate.class, name, MethodType.methodType(int.class, parameters));
+            if (bound != null) {
+                handle = MethodHandles.insertArguments(handle, 0, bound);
+            }
+            return MethodHandles.permuteArguments(handle, WRITER_TYPE, arguments);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("No segment writer " + name, e);
+        }
+    }
+
+    private static int writeLiteral(String literal, char[] buf, int pos) {
+        literal.getChars(0, literal.length(), buf, pos);
+        return pos + literal.length();
+    }
+
+    private static int writeOrigin(TrackingNumberRequest request, char[] buf, int pos) {
+        request.getOriginCountryId().getChars(0, 2, buf, pos);
+        return pos + 2;
+    }
+
+    private static int writeWeight(TrackingNumberRequest request, char[] buf, int pos) {
+        return TrackingNumberEncoder.writeWeightCode(request.getWeight(), buf, pos);
+    }
+
+    private static int writeDestination(TrackingNumberRequest request, char[] buf, int pos) {
+        request.getDestinationCountryId().getChars(0, 2, buf, pos);
+        return pos + 2;
+    }
+
+    private static int writeCustomer(int length, TrackingNumberRequest request, char[] buf, int pos) {
+        String slug = request.getCustomerSlug();
+        if (slug.length() >= length) {
+            // Most slugs start with enough letters and digits: a loop of known length, unrolled once compiled
+            int i = 0;
+            while (i < length && writeCustomerCharacter(slug.charAt(i), buf, pos + i)) {
+                i++;
+            }
+            if (i == length) {
+                return pos + length;
+            }
+        }
+        int end = pos + length;
+        for (int i = 0; i < slug.length() && pos < end; i++) {
+            if (writeCustomerCharacter(slug.charAt(i), buf, pos)) {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Write a letter, uppercase, or a digit at {@code pos}, returning false for anything else
+     */
+    private static boolean writeCustomerCharacter(char c, char[] buf, int pos) {
+        if (c >= 'a' && c <= 'z') {
+            buf[pos] = (char) (c - ('a' - 'A'));
+            return true;
+        }
+        if (isAlphanumeric(c)) {
+            buf[pos] = c;
+            return true;
+        }
+        return false;
+    }
+
+    private static int writeYearMonth(TrackingNumberRequest request, char[] buf, int pos) {
+        OffsetDateTime createdAt = request.getCreatedAt();
+        int year = Math.floorMod(createdAt.getYear(), 100);
+        int month = createdAt.getMonthValue();
+        buf[pos] = TrackingNumberEncoder.DIGIT_TENS[year];
+        buf[pos + 1] = TrackingNumberEncoder.DIGIT_ONES[year];
+        buf[pos + 2] = TrackingNumberEncoder.DIGIT_TENS[month];
+        buf[pos + 3] = TrackingNumberEncoder.DIGIT_ONES[month];
+        return pos + 4;
+    }
+
+    private static int writeRandom(int length, RandomGenerator random, char[] buf, int pos) {
+        for (int end = pos + length; pos < end; pos++) {
+            buf[pos] = TrackingNumberEncoder.ALPHANUMERIC[random.nextInt(TrackingNumberEncoder.ALPHANUMERIC.length)];
+        }
+        return pos;
+    }
+
+    private static int writeSequence(int length, long sequence, char[] buf, int pos) {
+        int value = (int) Math.floorMod(sequence, 1_000_000_000L);
+        int i = pos + length;
+        for (; i - pos >= 2; value /= 100) {
+            int pair = value % 100;
+            buf[--i] = TrackingNumberEncoder.DIGIT_ONES[pair];
+            buf[--i] = TrackingNumberEncoder.DIGIT_TENS[pair];
+        }
+        if (i > pos) {
+            buf[pos] = TrackingNumberEncoder.DIGIT_ONES[value % 10];
+        }
+        return pos + length;
+    }
+
+    private static int writeCheck(char[] buf, int pos) {
+        buf[pos] = checkCharacter(buf, pos);
+        return pos + 1;
+    }
+
+    private static int length(String template, int position, String argument, int max) {
+        if (argument == null) {
+            throw invalid(template, position, "segment needs a length, e.g. {random:4}");
+        }
+        try {
+            int length = Integer.parseInt(argument);
+            if (length >= 1 && length <= max) {
+                return length;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw invalid(template, position, "length must be 1 to " + max);
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static IllegalArgumentException invalid(String template, int position, String message) {
+        return new IllegalArgumentException("Template " + template + " at position " + position + ": " + message);
+    }
+
+    private enum Kind {
+        LITERAL,
+        ORIGIN,
+        DESTINATION,
+        WEIGHT,
+        CUSTOMER,
+        YEAR_MONTH,
+        RANDOM,
+        SEQUENCE,
+        CHECK
+    }
+
+    private record Segment(Kind kind, int length, String literal) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled {@link TrackingNumberTemplate}s of the customers that do not use the default layout, by customer slug.
+ * <p>
+ * Templates come from {@code tracking.templates.customers.<slug>} and from the optional
+ * {@code tracking.templates.file}, a properties file of {@code <slug>=<template>} lines whose entries
+ * take precedence. Every template is compiled when loaded, so requests only look their customer up
+ * in an immutable map. The file is read again every {@code reloadInterval} and, when its content
+ * changed, all of it is compiled into a new map that replaces the old one at once. A file with an
+ * invalid template is rejected whole and the templates in use are kept. At startup, invalid
+ * templates fail the application instead. With partitioned storage a template without {@code {yymm}}
+ * is invalid, since lookups read the order month back from numbers of every {@link #layouts() layout}
+ * to find their partition.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracking.generator.mode", havingValue = "random", matchIfMissing = true)
+public class TrackingNumberTemplates implements SmartLifecycle {
+
+    private final TrackingProperties.Templates settings;
+    private final Path file;
+    private final boolean partitioned;
+    private final Map<String, TrackingNumberTemplate> configured;
+
+    private final Counter reloadedCounter;
+    private final Counter rejectedCounter;
+
+    private volatile Map<String, TrackingNumberTemplate> templates;
+    private volatile List<TrackingNumberTemplate> layouts;
+    private byte[] fileContent;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public TrackingNumberTemplates(TrackingProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getTemplates();
+        this.file = settings.getFile() == null || settings.getFile().isBlank() ? null : Path.of(settings.getFile());
+        this.partitioned = properties.getStorage().getMode() == TrackingProperties.StorageMode.PARTITIONED;
+        try {
+            this.configured = compile(settings.getCustomers());
+            this.fileContent = read();
+            apply(merge(fileContent));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid tracking number template: " + e.getMessage(), e);
+        }
+
+        Gauge.builder("tracking.templates", this, registry -> registry.templates.size())
+                .description("Customers with their own tracking number template")
+                .register(meterRegistry);
+        this.reloadedCounter = Counter.builder("tracking.templates.reloads")
+                .description("Changes of the template file, applied or rejected for an invalid template")
+                .tag("result", "applied")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tracking.templates.reloads")
+                .description("Changes of the template file, applied or rejected for an invalid template")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The customer's template, empty when the customer uses the default layout
+     */
+    public Optional<TrackingNumberTemplate> find(String customerSlug) {
+        Map<String, TrackingNumberTemplate> current = templates;
+        return current.isEmpty() ? Optional.empty() : Optional.ofNullable(current.get(customerSlug));
+    }
+
+    /**
+     * Every distinct template in use, e.g. to read back numbers whose customer is not known
+     */
+    public List<TrackingNumberTemplate> layouts() {
+        return layouts;
+    }
+
+    /**
+     * Read the template file and apply it if it changed since the last read, returning whether it did
+     */
+    public synchronized boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        byte[] content = read();
+        if (Arrays.equals(content, fileContent)) {
+            return false;
+        }
+
+        fileContent = content;
+        try {
+            apply(merge(content));
+        } catch (IllegalArgumentException e) {
+            rejectedCounter.increment();
+            log.error("Rejected tracking number templates of {}, keeping the templates in use: {}", file, e.getMessage());
+            return false;
+        }
+        reloadedCounter.increment();
+        log.info("Applied tracking number templates of {}, {} customers have their own template", file, templates.size());
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (file == null) {
+            return;
+        }
+        long interval = settings.getReloadInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Tracking-template-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+    }
+
+    private void apply(Map<String, TrackingNumberTemplate> merged) {
+        Map<String, TrackingNumberTemplate> distinct = new LinkedHashMap<>();
+        merged.values().forEach(layout -> distinct.putIfAbsent(layout.toString(), layout));
+        layouts = List.copyOf(distinct.values());
+        templates = merged;
+    }
+
+    private Map<String, TrackingNumberTemplate> merge(byte[] content) {
+        Map<String, TrackingNumberTemplate> merged = new HashMap<>(configured);
+        if (content != null) {
+            Properties entries = new Properties();
+            try {
+                entries.load(new StringReader(new String(content, StandardCharsets.UTF_8)));
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unreadable template file " + file + ": " + e.getMessage(), e);
+            }
+            Map<String, String> fromFile = new HashMap<>();
+            entries.stringPropertyNames().forEach(slug -> fromFile.put(slug, entries.getProperty(slug)));
+            merged.putAll(compile(fromFile));
+        }
+        return Map.copyOf(merged);
+    }
+
+    private Map<String, TrackingNumberTemplate> compile(Map<String, String> sources) {
+        Map<String, TrackingNumberTemplate> compiled = new HashMap<>();
+        // Customers sharing a template share its writer chain, so it warms up once
+        Map<String, TrackingNumberTemplate> layouts = new HashMap<>();
+        sources.forEach((slug, template) -> {
+            try {
+                TrackingNumberTemplate layout = layouts.computeIfAbsent(template.strip(), TrackingNumberTemplate::compile);
+                if (partitioned && !layout.hasYearMonth()) {
+                    throw new IllegalArgumentException("Template " + layout
+                            + " needs {yymm} with tracking.storage.mode=partitioned, numbers are partitioned by order month");
+                }
+                compiled.put(slug, layout);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("customer " + slug + ": " + e.getMessage(), e);
+            }
+        });
+        return compiled;
+    }
+
+    /**
+     * Content of the template file, null when there is none
+     */
+    private byte[] read() {
+        if (file == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read tracking number templates from " + file, e);
+        }
+    }
+
+    private void reloadSafely() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Tracking number template reload failed, retrying in {}", settings.getReloadInterval(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.tracking.tracking_api.grpc;
+
+import com.google.protobuf.ByteString;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.exception.InvalidParametersException;
+import com.tracking.tracking_api.grpc.v1.GenerateRequest;
+import com.tracking.tracking_api.grpc.v1.GenerateResponse;
+import com.tracking.tracking_api.web.TrackingNumberQueryResolver;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Conversion between the gRPC messages and the service's request and response.
+ * <p>
+ * Fields are checked against the same rules as the query parameters of the REST endpoint, keyed by
+ * their proto field names. Weight, timestamp and customer id arrive as numbers and bytes, so nothing
+ * is parsed from text.
+ */
+final class GrpcMessages {
+
+    private static final long MAX_WEIGHT_GRAMS = 999_999_999;
+    private static final int MAX_OFFSET_SECONDS = 18 * 60 * 60;
+    private static final int UUID_BYTES = 16;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private GrpcMessages() {
+    }
+
+    /**
+     * Validate the message, throwing {@link InvalidParametersException} with every failure
+     */
+    static TrackingNumberRequest toRequest(GenerateRequest message) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        TrackingNumberRequest request = new TrackingNumberRequest();
+
+        if (TrackingNumberQueryResolver.isCountryCode(message.getOriginCountryId())) {
+            request.setOriginCountryId(message.getOriginCountryId());
+        } else {
+            errors.put("origin_country_id", "Origin country ID must be a valid ISO 3166-1 alpha-2 country code");
+        }
+        if (TrackingNumberQueryResolver.isCountryCode(message.getDestinationCountryId())) {
+            request.setDestinationCountryId(message.getDestinationCountryId());
+        } else {
+            errors.put("destination_country_id", "Destination country ID must be a valid ISO 3166-1 alpha-2 country code");
+        }
+
+        long grams = Integer.toUnsignedLong(message.getWeightGrams());
+        if (grams >= 1 && grams <= MAX_WEIGHT_GRAMS) {
+            request.setWeight(BigDecimal.valueOf(grams, 3));
+        } else {
+            errors.put("weight_grams", "Weight must be between 1 and 999999999 grams");
+        }
+
+        request.setCreatedAt(createdAt(message, errors));
+        request.setCustomerId(customerId(message.getCustomerId(), errors));
+
+        String name = message.getCustomerName();
+        if (!name.isBlank() && name.length() <= MAX_TEXT_LENGTH) {
+            request.setCustomerName(name);
+        } else {
+            errors.put("customer_name", "Customer name must be between 1 and 255 characters");
+        }
+        String slug = message.getCustomerSlug();
+        if (slug.length() <= MAX_TEXT_LENGTH && TrackingNumberQueryResolver.isKebabCase(slug)) {
+            request.setCustomerSlug(slug);
+        } else {
+            errors.put("customer_slug", "Customer slug must be in kebab-case format");
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidParametersException(errors);
+        }
+        return request;
+    }
+
+    /**
+     * Idempotency key of the message, null when not set
+     */
+    static String idempotencyKey(GenerateRequest message) {
+        return message.getIdempotencyKey().isEmpty() ? null : message.getIdempotencyKey();
+    }
+
+    static GenerateResponse toResponse(long requestId, TrackingNumberResponse response) {
+        return GenerateResponse.newBuilder()
+                .setRequestId(requestId)
+                .setTrackingNumber(response.getTrackingNumber())
+                .setCreatedAtEpochSecond(response.getCreatedAt().toEpochSecond())
+                .build();
+    }
+
+    private static OffsetDateTime createdAt(GenerateRequest message, Map<String, String> errors) {
+        if (message.getCreatedAtEpochSecond() == 0) {
+            errors.put("created_at_epoch_second", "Order creation timestamp is required");
+            return null;
+        }
+        int offset = message.getCreatedAtOffsetSeconds();
+        if (offset < -MAX_OFFSET_SECONDS || offset > MAX_OFFSET_SECONDS) {
+            errors.put("created_at_offset_seconds", "Offset must be between -18 and +18 hours");
+            return null;
+        }
+        try {
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(message.getCreatedAtEpochSecond()),
+                    ZoneOffset.ofTotalSeconds(offset));
+        } catch (DateTimeException e) {
+            errors.put("created_at_epoch_second", "Order creation timestamp is out of range");
+            return null;
+        }
+    }
+
+    private static UUID customerId(ByteString bytes, Map<String, String> errors) {
+        if (bytes.size() != UUID_BYTES) {
+            errors.put("customer_id", "Customer ID must be 16 bytes");
+            return null;
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
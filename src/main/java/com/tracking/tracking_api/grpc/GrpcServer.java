@@ -0,0 +1,107 @@
+package com.tracking.tracking_api.grpc;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.grpc.MetricCollectingServerInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty gRPC server of {@link TrackingNumberGrpcService} on {@code tracking.grpc.port}.
+ * <p>
+ * Calls run on gRPC's own thread pool, or on virtual threads with
+ * {@code tracking.execution.mode=virtual}, since generation blocks on the database either way.
+ * Calls are timed by Micrometer's gRPC interceptor. The server stops in the same phase as the web
+ * server's graceful shutdown: new calls are refused, calls in progress get
+ * {@code shutdownTimeout} to complete and are then cancelled.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.grpc.enabled", havingValue = "true")
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+    private final TrackingNumberGrpcService service;
+    private final TrackingProperties.Grpc settings;
+    private final boolean virtualThreads;
+    private final MeterRegistry meterRegistry;
+
+    private Server server;
+    private ExecutorService executor;
+
+    public GrpcServer(TrackingNumberGrpcService service, TrackingProperties properties, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.settings = properties.getGrpc();
+        this.virtualThreads = properties.getExecution().getMode() == TrackingProperties.ExecutionMode.VIRTUAL;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(settings.getPort())
+                .addService(ServerInterceptors.intercept(service, new MetricCollectingServerInterceptor(meterRegistry)))
+                .flowControlWindow(settings.getFlowControlWindow())
+                .maxConcurrentCallsPerConnection(settings.getMaxConcurrentCallsPerConnection())
+                .maxInboundMessageSize(settings.getMaxInboundMessageSize());
+        if (virtualThreads) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            builder.executor(executor);
+        }
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start gRPC server on port " + settings.getPort(), e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("gRPC calls still in progress after {}, cancelling them", settings.getShutdownTimeout());
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE;
+    }
+
+    /**
+     * Port the server listens on, the one picked by the system when configured as 0
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+}
@@ -0,0 +1,175 @@
+package com.tracking.tracking_api.grpc;
+
+import com.tracking.tracking_api.admission.AdmissionControl;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.exception.InvalidParametersException;
+import com.tracking.tracking_api.exception.InvalidRequestException;
+import com.tracking.tracking_api.exception.ServiceOverloadedException;
+import com.tracking.tracking_api.grpc.v1.GenerateError;
+import com.tracking.tracking_api.grpc.v1.GenerateRequest;
+import com.tracking.tracking_api.grpc.v1.GenerateResponse;
+import com.tracking.tracking_api.grpc.v1.TrackingNumberGenerationGrpc;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * gRPC counterpart of the generation endpoints of {@code TrackingController}, on the same
+ * {@link TrackingNumberService}.
+ * <p>
+ * {@code Generate} answers one request per call. {@code GenerateStream} answers any number of
+ * requests over one HTTP/2 stream, one at a time and in order. Its reads are driven by the
+ * response side: the next request is only asked for once the previous response was handed to a
+ * ready transport, so a caller that stops reading stops being read from, and HTTP/2 flow control
+ * pushes back on its writes instead of responses piling up here. Callers wanting more in flight
+ * open more streams, which can share one connection. Admission control applies to every request,
+ * streamed or not, as it does to the REST endpoints.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.grpc.enabled", havingValue = "true")
+@Slf4j
+public class TrackingNumberGrpcService extends TrackingNumberGenerationGrpc.TrackingNumberGenerationImplBase {
+
+    private final TrackingNumberService trackingNumberService;
+    private final Optional<AdmissionControl> admissionControl;
+
+    public TrackingNumberGrpcService(TrackingNumberService trackingNumberService, Optional<AdmissionControl> admissionControl) {
+        this.trackingNumberService = trackingNumberService;
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public void generate(GenerateRequest message, StreamObserver<GenerateResponse> responseObserver) {
+        GenerateResponse response;
+        try {
+            response = generate(message);
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<GenerateRequest> generateStream(StreamObserver<GenerateResponse> responseObserver) {
+        return new GenerateStream((ServerCallStreamObserver<GenerateResponse>) responseObserver);
+    }
+
+    private GenerateResponse generate(GenerateRequest message) {
+        TrackingNumberRequest request = GrpcMessages.toRequest(message);
+        String idempotencyKey = GrpcMessages.idempotencyKey(message);
+        if (admissionControl.isEmpty()) {
+            return GrpcMessages.toResponse(message.getRequestId(),
+                    trackingNumberService.generateTrackingNumber(request, idempotencyKey));
+        }
+
+        AdmissionControl control = admissionControl.get();
+        if (control.tryAcquireCustomer(request.getCustomerId()) > 0) {
+            throw Status.RESOURCE_EXHAUSTED
+                    .withDescription("Request rate limit exceeded for customer " + request.getCustomerId())
+                    .asRuntimeException();
+        }
+        if (!control.tryEnter()) {
+            throw Status.RESOURCE_EXHAUSTED.withDescription("Too many requests in progress").asRuntimeException();
+        }
+        try {
+            return GrpcMessages.toResponse(message.getRequestId(),
+                    trackingNumberService.generateTrackingNumber(request, idempotencyKey));
+        } finally {
+            control.exit();
+        }
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        if (e instanceof StatusRuntimeException status) {
+            return status.getStatus();
+        }
+        if (e instanceof InvalidParametersException || e instanceof InvalidRequestException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+        }
+        if (e instanceof ServiceOverloadedException) {
+            return Status.UNAVAILABLE.withDescription(e.getMessage());
+        }
+        log.error("Error generating tracking number over gRPC", e);
+        return Status.INTERNAL.withDescription("Unable to generate tracking number");
+    }
+
+    private static GenerateError toError(RuntimeException e) {
+        Status status = toStatus(e);
+        GenerateError.Builder error = GenerateError.newBuilder()
+                .setCode(status.getCode().name())
+                .setMessage(status.getDescription() != null ? status.getDescription() : "");
+        if (e instanceof InvalidParametersException invalid) {
+            error.putAllFieldErrors(invalid.getErrors());
+        }
+        return error.build();
+    }
+
+    /**
+     * One {@code GenerateStream} call. gRPC runs the callbacks of a call one after another, so the
+     * state needs no synchronization.
+     */
+    private final class GenerateStream implements StreamObserver<GenerateRequest> {
+
+        private final ServerCallStreamObserver<GenerateResponse> responses;
+        private boolean awaitingReady = true;
+
+        GenerateStream(ServerCallStreamObserver<GenerateResponse> responses) {
+            this.responses = responses;
+            responses.disableAutoRequest();
+            responses.setOnReadyHandler(this::onReady);
+            responses.setOnCancelHandler(() -> log.debug("Tracking number stream cancelled by the client"));
+        }
+
+        /**
+         * Ask for the first request, or the next one after the transport was too busy to take a response
+         */
+        private void onReady() {
+            if (awaitingReady && responses.isReady()) {
+                awaitingReady = false;
+                responses.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(GenerateRequest message) {
+            GenerateResponse response;
+            try {
+                response = generate(message);
+            } catch (RuntimeException e) {
+                response = GenerateResponse.newBuilder()
+                        .setRequestId(message.getRequestId())
+                        .setError(toError(e))
+                        .build();
+            }
+            if (responses.isCancelled()) {
+                return;
+            }
+
+            responses.onNext(response);
+            if (responses.isReady()) {
+                responses.request(1);
+            } else {
+                awaitingReady = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("Tracking number stream failed", t);
+        }
+
+        @Override
+        public void onCompleted() {
+            responses.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tracking.tracking_api.idempotency;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.exception.InvalidRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Tracking numbers issued for idempotent requests, so a retried request gets the number issued
+ * the first time instead of a new one.
+ * <p>
+ * Keys are scoped to the customer and held in a size-bounded Caffeine cache (W-TinyLFU eviction,
+ * expiring {@code cacheTtl} after the number was issued). The cache holds the pending result while
+ * a number is being issued, so concurrent repeats of a key wait for that one generation instead of
+ * starting their own. Keys that are no longer cached are looked up through the unique index on
+ * {@code idempotency_key} by the caller's generation function.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyCache {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    private final AsyncCache<String, TrackingNumberResponse> cache;
+    private final boolean deriveKey;
+
+    public IdempotencyCache(TrackingProperties properties, MeterRegistry meterRegistry) {
+        TrackingProperties.Idempotency settings = properties.getIdempotency();
+        this.deriveKey = settings.isDeriveKey();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getCacheSize())
+                .expireAfterWrite(settings.getCacheTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tracking.idempotency");
+    }
+
+    /**
+     * The key of the request: the Idempotency-Key header when sent, otherwise derived from the order
+     * when enabled. Empty if the request is not idempotent.
+     */
+    public Optional<String> resolveKey(TrackingNumberRequest request, String headerKey) {
+        if (headerKey != null) {
+            if (headerKey.isBlank() || headerKey.length() > MAX_KEY_LENGTH) {
+                throw new InvalidRequestException(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            }
+            return Optional.of(request.getCustomerId() + ":h:" + headerKey);
+        }
+        if (deriveKey) {
+            // Canonical forms, so 1.2 and 1.200 or the same instant in another offset are the same order
+            return Optional.of(request.getCustomerId() + ":o:" + request.getCreatedAt().toInstant()
+                    + "/" + request.getWeight().stripTrailingZeros().toPlainString());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The response issued for the key, running the generation only if no other request holds or is issuing it.
+     * A failed generation is not cached, so the next repeat tries again.
+     */
+    public TrackingNumberResponse getOrIssue(String key, Supplier<TrackingNumberResponse> generation) {
+        CompletableFuture<TrackingNumberResponse> issuing = new CompletableFuture<>();
+        CompletableFuture<TrackingNumberResponse> issued = cache.get(key, (ignored, executor) -> issuing);
+        if (issued != issuing) {
+            try {
+                return issued.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            TrackingNumberResponse response = generation.get();
+            issuing.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            issuing.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
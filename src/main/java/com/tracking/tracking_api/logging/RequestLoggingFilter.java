@@ -0,0 +1,171 @@
+package com.tracking.tracking_api.logging;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * One structured log line per API request, in place of per-step INFO logging.
+ * <p>
+ * Every request gets a correlation id, taken from the {@code X-Correlation-Id} header when the
+ * caller sends a well-formed one, put in the MDC as {@code correlationId} and echoed on the
+ * response. Failed (4xx/5xx) and slow requests are always logged with the full query string;
+ * other requests are logged at the configured sample rate. Async requests are logged when the
+ * response completes, not when the servlet thread is released.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+    public static final String CORRELATION_ID_KEY = "correlationId";
+
+    private static final Pattern VALID_CORRELATION_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final TrackingProperties.RequestLog settings;
+
+    public RequestLoggingFilter(TrackingProperties properties) {
+        this.settings = properties.getRequestLog();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    /**
+     * Also runs on the async dispatch that writes the response, to restore the correlation id there
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            MDC.put(CORRELATION_ID_KEY, (String) request.getAttribute(CORRELATION_ID_KEY));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                MDC.remove(CORRELATION_ID_KEY);
+            }
+            return;
+        }
+
+        String correlationId = correlationId(request);
+        long start = System.nanoTime();
+        request.setAttribute(CORRELATION_ID_KEY, correlationId);
+        response.setHeader(CORRELATION_ID_HEADER, correlationId);
+        MDC.put(CORRELATION_ID_KEY, correlationId);
+
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, correlationId, start));
+            } else {
+                logRequest(request, response, start, failure);
+            }
+            MDC.remove(CORRELATION_ID_KEY);
+        }
+    }
+
+    private void logRequest(HttpServletRequest request, HttpServletResponse response, long start, Throwable failure) {
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        int status = failure != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        boolean slow = durationMillis >= settings.getSlowThreshold().toMillis();
+
+        Level level;
+        if (status >= 500) {
+            level = Level.ERROR;
+        } else if (status >= 400 || slow) {
+            level = Level.WARN;
+        } else if (settings.getSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.getSampleRate()) {
+            level = Level.INFO;
+        } else {
+            return;
+        }
+
+        LoggingEventBuilder event = log.atLevel(level)
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("path", request.getRequestURI())
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", durationMillis);
+        if (level != Level.INFO) {
+            event = event.addKeyValue("query", request.getQueryString()).addKeyValue("slow", slow);
+        }
+        if (failure != null) {
+            event = event.setCause(failure);
+        }
+        event.log("{} {} {} in {} ms", request.getMethod(), request.getRequestURI(), status, durationMillis);
+    }
+
+    private static String correlationId(HttpServletRequest request) {
+        String header = request.getHeader(CORRELATION_ID_HEADER);
+        if (header != null && VALID_CORRELATION_ID.matcher(header).matches()) {
+            return header;
+        }
+        // Not a UUID: UUID.randomUUID() draws from SecureRandom on every request
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final String correlationId;
+        private final long start;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response, String correlationId, long start) {
+            this.request = request;
+            this.response = response;
+            this.correlationId = correlationId;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            MDC.put(CORRELATION_ID_KEY, correlationId);
+            try {
+                logRequest(request, response, start, event.getThrowable());
+            } finally {
+                MDC.remove(CORRELATION_ID_KEY);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.tracking.tracking_api.outbox;
+
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.persistence.BeforeCommitBatch;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Appends an outbox event for every inserted tracking number, in the transaction that inserts it.
+ * <p>
+ * Hooked into the entity like {@code IssueCountingListener}, so the synchronous, batch and
+ * write-behind paths and journal replay all publish their numbers. Entities are collected per
+ * transaction as they are persisted, not after their insert: an insert Hibernate only flushes at
+ * commit runs after the last point where the transaction can still take more statements. Their
+ * events are appended in one {@link BeforeCommitBatch}, so a rolled back insert leaves no event
+ * and an event is never committed without its number. Created by Hibernate through Spring's bean
+ * container, so with the outbox disabled there is nothing to append to.
+ */
+public class OutboxListener {
+
+    private final ObjectProvider<TrackingNumberOutbox> outbox;
+
+    public OutboxListener(ObjectProvider<TrackingNumberOutbox> outbox) {
+        this.outbox = outbox;
+    }
+
+    @PrePersist
+    void onPersist(TrackingNumber entity) {
+        TrackingNumberOutbox target = outbox.getIfAvailable();
+        if (target != null) {
+            BeforeCommitBatch.add(this, entity, target::append);
+        }
+    }
+}
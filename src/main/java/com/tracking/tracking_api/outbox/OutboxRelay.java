@@ -0,0 +1,204 @@
+package com.tracking.tracking_api.outbox;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes the outbox to the {@link OutboxSink}, so downstream systems no longer poll
+ * {@code tracking_numbers} by {@code created_at}.
+ * <p>
+ * Each of {@code workers} threads repeatedly leases up to {@code batchSize} events for
+ * {@code leaseTimeout} in a short transaction, delivers them to the sink outside of it and then
+ * deletes them. No connection is held during delivery, so slow sinks do not take connections from
+ * requests. Claims skip events leased by other workers, here or on other instances. A worker moves
+ * a cursor past the last event it delivered while batches come back full, so it does not scan rows
+ * other workers hold, and goes back to the oldest event once a batch comes back short. That picks
+ * up events a failed worker released, or whose lease expired. An empty outbox is polled every
+ * {@code pollInterval}; failed deliveries are retried with backoff. Delivery is at least once, also
+ * when a delivery outlasts its lease.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.outbox.enabled", havingValue = "true")
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final TrackingNumberOutbox outbox;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingProperties.Outbox settings;
+
+    private final Counter relayedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer deliveryTimer;
+    private final Timer lagTimer;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+
+    public OutboxRelay(TrackingNumberOutbox outbox,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       TrackingProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getOutbox();
+
+        this.relayedCounter = Counter.builder("tracking.outbox.relayed")
+                .description("Events delivered to the sink")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("tracking.outbox.batch.size")
+                .description("Events claimed and delivered per batch")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("tracking.outbox.delivery")
+                .description("Time the sink took to accept one batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("tracking.outbox.lag")
+                .description("Time from issuing a number to its event being delivered")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tracking.outbox.failed")
+                .description("Batches whose delivery failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lease, deliver and delete one batch starting at the oldest event, returning how many events it had
+     */
+    public int relayBatch() {
+        return relay(0).size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < settings.getWorkers(); i++) {
+            Thread worker = new Thread(this::runWorker, "Tracking-outbox-relay-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Outbox relay started ({} workers, batch {}, sink {})",
+                settings.getWorkers(), settings.getBatchSize(), sink.getClass().getSimpleName());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        workers.forEach(LockSupport::unpark);
+        long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (worker.isAlive()) {
+                worker.interrupt();
+                log.warn("Outbox relay worker {} still delivering after {}, its batch is relayed again once its lease expires",
+                        worker.getName(), settings.getShutdownTimeout());
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the write-behind queue is drained, whose inserts still append events, but before
+     * the data source is closed
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1536;
+    }
+
+    private void runWorker() {
+        long cursor = 0;
+        long pollNanos = settings.getPollInterval().toNanos();
+        long backoffNanos = pollNanos;
+
+        while (running) {
+            try {
+                List<OutboxEvent> delivered = relay(cursor);
+                backoffNanos = pollNanos;
+                if (delivered.size() == settings.getBatchSize()) {
+                    cursor = delivered.get(delivered.size() - 1).getId();
+                    continue;
+                }
+                // Caught up, or rows were skipped as locked: start from the oldest event again
+                cursor = 0;
+                if (delivered.isEmpty()) {
+                    LockSupport.parkNanos(pollNanos);
+                }
+            } catch (RuntimeException e) {
+                cursor = 0;
+                failedCounter.increment();
+                log.error("Outbox relay failed, retrying in {}", Duration.ofNanos(backoffNanos), e);
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, Math.max(MAX_BACKOFF_NANOS, pollNanos));
+            }
+        }
+    }
+
+    private List<OutboxEvent> relay(long afterId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OutboxEvent> delivered = transactionTemplate.execute(status ->
+                outbox.claim(afterId, settings.getBatchSize(), now, now.plus(settings.getLeaseTimeout())));
+        if (delivered.isEmpty()) {
+            return delivered;
+        }
+
+        try {
+            deliveryTimer.record(() -> sink.deliver(delivered));
+        } catch (RuntimeException e) {
+            releaseQuietly(delivered);
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> outbox.delete(delivered));
+
+        relayedCounter.increment(delivered.size());
+        batchSizeSummary.record(delivered.size());
+        OffsetDateTime deliveredAt = OffsetDateTime.now();
+        for (OutboxEvent event : delivered) {
+            lagTimer.record(Duration.between(event.getCreatedAt(), deliveredAt));
+        }
+        return delivered;
+    }
+
+    /**
+     * Make a batch that failed claimable again right away, or once its lease expires if that fails too
+     */
+    private void releaseQuietly(List<OutboxEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outbox.release(events));
+        } catch (RuntimeException e) {
+            log.warn("Unable to release {} outbox events, they are relayed again once their lease expires", events.size(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.tracking.tracking_api.outbox;
+
+import com.tracking.tracking_api.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where the relay publishes issued tracking numbers, e.g. a message broker or a file.
+ * <p>
+ * Delivery is at least once: a batch is only deleted from the outbox after {@link #deliver} returned,
+ * and a batch whose delivery threw, or whose relay died before committing, is delivered again.
+ * Consumers recognize repeats by event id. Batches of different relay workers are delivered
+ * concurrently, each in id order.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publish a batch of events, returning once they are safely handed over
+     */
+    void deliver(List<OutboxEvent> events);
+}
@@ -0,0 +1,110 @@
+package com.tracking.tracking_api.outbox;
+
+import com.tracking.tracking_api.entity.OutboxEvent;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code tracking_number_outbox} table: issued numbers are appended in the transaction that
+ * inserts them, and relay workers lease them in id order and delete them once delivered.
+ * <p>
+ * A claim sets {@code leased_until} on events nobody holds, in a short transaction of its own,
+ * so no connection or row lock is held while events are delivered. The claim's
+ * {@code FOR UPDATE SKIP LOCKED} keeps concurrent claims, on this or other instances, from
+ * leasing the same rows without waiting for one another. Events of a worker that fails are
+ * released at once, those of a worker that dies when their lease expires.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.outbox.enabled", havingValue = "true")
+public class TrackingNumberOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO tracking_number_outbox"
+            + " (tracking_number, customer_id, customer_slug, origin_country_id, destination_country_id, created_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_SQL = """
+            SELECT id, tracking_number, customer_id, customer_slug, origin_country_id, destination_country_id, created_at
+            FROM tracking_number_outbox
+            WHERE id > ? AND (leased_until IS NULL OR leased_until < ?)
+            ORDER BY id
+            FETCH FIRST ? ROWS ONLY
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String LEASE_SQL = "UPDATE tracking_number_outbox SET leased_until = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM tracking_number_outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrackingNumberOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Append an event per inserted number, in one JDBC batch on the caller's transaction
+     */
+    public void append(List<TrackingNumber> entities) {
+        OffsetDateTime now = OffsetDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, entities, entities.size(), (statement, entity) -> {
+            statement.setString(1, entity.getTrackingNumber());
+            statement.setObject(2, entity.getCustomerId());
+            statement.setString(3, entity.getCustomerSlug());
+            statement.setString(4, entity.getOriginCountryId());
+            statement.setString(5, entity.getDestinationCountryId());
+            statement.setObject(6, entity.getCreatedAt() != null ? entity.getCreatedAt() : now);
+        });
+    }
+
+    /**
+     * Lease up to {@code limit} events after {@code afterId} that nobody holds at {@code now},
+     * oldest first, until {@code leasedUntil}. Run in a transaction of its own, which only locks
+     * the rows until the lease is written
+     */
+    public List<OutboxEvent> claim(long afterId, int limit, OffsetDateTime now, OffsetDateTime leasedUntil) {
+        List<OutboxEvent> claimed = jdbcTemplate.query(CLAIM_SQL, (row, rowNum) -> OutboxEvent.builder()
+                .id(row.getLong("id"))
+                .trackingNumber(row.getString("tracking_number"))
+                .customerId(row.getObject("customer_id", UUID.class))
+                .customerSlug(row.getString("customer_slug"))
+                .originCountryId(row.getString("origin_country_id"))
+                .destinationCountryId(row.getString("destination_country_id"))
+                .createdAt(row.getObject("created_at", OffsetDateTime.class))
+                .leasedUntil(leasedUntil)
+                .build(), afterId, now, limit);
+        lease(claimed, leasedUntil);
+        return claimed;
+    }
+
+    /**
+     * End the lease of events that could not be delivered, so any worker can claim them again
+     */
+    public void release(List<OutboxEvent> events) {
+        lease(events, null);
+    }
+
+    /**
+     * Remove delivered events
+     */
+    public void delete(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, events, events.size(),
+                (statement, event) -> statement.setLong(1, event.getId()));
+    }
+
+    private void lease(List<OutboxEvent> events, OffsetDateTime leasedUntil) {
+        jdbcTemplate.batchUpdate(LEASE_SQL, events, events.size(), (statement, event) -> {
+            if (leasedUntil != null) {
+                statement.setObject(1, leasedUntil);
+            } else {
+                statement.setNull(1, Types.TIMESTAMP_WITH_TIMEZONE);
+            }
+            statement.setLong(2, event.getId());
+        });
+    }
+}
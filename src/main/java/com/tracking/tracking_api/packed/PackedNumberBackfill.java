@@ -0,0 +1,156 @@
+package com.tracking.tracking_api.packed;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the packed columns of rows stored before numbers were packed, the migration path from
+ * {@code number-format=string}.
+ * <p>
+ * Runs once on a background thread at startup whenever the number format is not {@code string}.
+ * Rows without packed columns are read in id order, {@code backfillPageSize} at a time, packed
+ * here and written back with one JDBC batch per page, the order month narrowing each update to its
+ * partition in partitioned storage. Rows inserted meanwhile are packed on insert. The backfill
+ * only counts as complete when no unpacked row is left at the end, rows written by replicas still
+ * on {@code string} or behind the scan's cursor included; otherwise the next start resumes it. Once
+ * {@code tracking_storage_backfill_complete} is 1, every row can be found through the packed
+ * columns and the format can be switched to {@code packed}.
+ */
+@Component
+@Slf4j
+public class PackedNumberBackfill implements SmartLifecycle {
+
+    private static final String SELECT_UNPACKED = "SELECT id, tracking_number, order_month FROM tracking_numbers "
+            + "WHERE tracking_number_hi IS NULL AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String UPDATE_PACKED = "UPDATE tracking_numbers SET tracking_number_hi = ?, tracking_number_lo = ? "
+            + "WHERE id = ? AND order_month = ?";
+    private static final String UPDATE_PACKED_WITHOUT_MONTH = "UPDATE tracking_numbers SET tracking_number_hi = ?, tracking_number_lo = ? "
+            + "WHERE id = ? AND order_month IS NULL";
+    private static final String ANY_UNPACKED = "SELECT COUNT(*) FROM (SELECT 1 FROM tracking_numbers "
+            + "WHERE tracking_number_hi IS NULL FETCH FIRST 1 ROWS ONLY) unpacked";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int pageSize;
+
+    private final Counter rowsCounter;
+    private volatile boolean complete;
+    private volatile boolean running;
+    private Thread backfillThread;
+
+    public PackedNumberBackfill(JdbcTemplate jdbcTemplate, TrackingProperties properties, MeterRegistry meterRegistry) {
+        TrackingProperties.Storage settings = properties.getStorage();
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = settings.getNumberFormat() != TrackingProperties.NumberFormat.STRING;
+        this.pageSize = settings.getBackfillPageSize();
+
+        this.rowsCounter = Counter.builder("tracking.storage.backfill.rows")
+                .description("Existing rows whose packed tracking number columns were filled")
+                .register(meterRegistry);
+        Gauge.builder("tracking.storage.backfill.complete", this, backfill -> backfill.complete ? 1 : 0)
+                .description("1 once every row has its packed tracking number columns")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pack every row that is not packed yet, returning how many rows were updated
+     */
+    public long backfill() {
+        long packed = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> withMonth = new ArrayList<>(pageSize);
+            List<Object[]> withoutMonth = new ArrayList<>();
+            long[] lastId = {afterId};
+            jdbcTemplate.query(SELECT_UNPACKED, row -> {
+                PackedTrackingNumber number = TrackingNumberCodec.encode(row.getString("tracking_number"));
+                long id = row.getLong("id");
+                Date orderMonth = row.getDate("order_month");
+                if (orderMonth != null) {
+                    withMonth.add(new Object[]{number.high(), number.low(), id, orderMonth});
+                } else {
+                    withoutMonth.add(new Object[]{number.high(), number.low(), id});
+                }
+                lastId[0] = id;
+            }, afterId, pageSize);
+            if (lastId[0] == afterId) {
+                complete = !anyUnpacked();
+                if (!complete) {
+                    log.warn("Rows without packed tracking numbers are left after the backfill, restart to resume");
+                }
+                return packed;
+            }
+
+            long updated = updated(jdbcTemplate.batchUpdate(UPDATE_PACKED, withMonth))
+                    + updated(jdbcTemplate.batchUpdate(UPDATE_PACKED_WITHOUT_MONTH, withoutMonth));
+            packed += updated;
+            rowsCounter.increment(updated);
+            afterId = lastId[0];
+            if (Thread.currentThread().isInterrupted()) {
+                return packed;
+            }
+        }
+    }
+
+    private boolean anyUnpacked() {
+        return jdbcTemplate.queryForObject(ANY_UNPACKED, Integer.class) > 0;
+    }
+
+    private static long updated(int[] counts) {
+        long updated = 0;
+        for (int count : counts) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        backfillThread = new Thread(this::runBackfill, "Tracking-packed-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (backfillThread != null) {
+            backfillThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runBackfill() {
+        long started = System.nanoTime();
+        try {
+            long packed = backfill();
+            if (complete) {
+                log.info("Packed tracking numbers of {} existing rows in {} ms", packed, (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            log.error("Unable to pack existing tracking numbers, restart to resume", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tracking.tracking_api.packed;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Unique index on the packed columns, created once Hibernate has created the schema and only when
+ * the number format is not {@code string}, so string deployments keep a single unique index on
+ * the number.
+ * <p>
+ * Existing PostgreSQL tables get it from step 1 of {@code db/packed/migrate-postgresql.sql}, built
+ * without blocking inserts, and partitioned storage from its schema and {@code PartitionMaintenance};
+ * the statement does nothing then.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class PackedNumberIndex {
+
+    public PackedNumberIndex(JdbcTemplate jdbcTemplate, TrackingProperties properties) {
+        if (properties.getStorage().getNumberFormat() == TrackingProperties.NumberFormat.STRING) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_tracking_number_packed"
+                + " ON tracking_numbers (tracking_number_hi, tracking_number_lo)");
+        log.debug("Unique index on packed tracking numbers in place");
+    }
+}
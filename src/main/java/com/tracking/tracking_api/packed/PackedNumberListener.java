@@ -0,0 +1,32 @@
+package com.tracking.tracking_api.packed;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Fills the packed columns of every inserted tracking number, unless numbers are stored as strings only.
+ * <p>
+ * Hooked into the entity, so the synchronous, batch and write-behind paths and journal replay all
+ * write both forms. Created by Hibernate through Spring's bean container; without the properties
+ * bean, as in JPA test slices, numbers are stored as strings only.
+ */
+public class PackedNumberListener {
+
+    private final boolean enabled;
+
+    public PackedNumberListener(ObjectProvider<TrackingProperties> properties) {
+        TrackingProperties settings = properties.getIfAvailable();
+        this.enabled = settings != null && settings.getStorage().getNumberFormat() != TrackingProperties.NumberFormat.STRING;
+    }
+
+    @PrePersist
+    void pack(TrackingNumber entity) {
+        if (enabled && entity.getTrackingNumberHigh() == null) {
+            PackedTrackingNumber packed = TrackingNumberCodec.encode(entity.getTrackingNumber());
+            entity.setTrackingNumberHigh(packed.high());
+            entity.setTrackingNumberLow(packed.low());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.tracking.tracking_api.packed;
+
+/**
+ * A tracking number as stored in the {@code tracking_number_hi} and {@code tracking_number_lo} columns
+ */
+public record PackedTrackingNumber(long high, long low) {
+
+    /**
+     * Hibernate passes the columns boxed to JPQL constructor expressions
+     */
+    public PackedTrackingNumber(Long high, Long low) {
+        this(high.longValue(), low.longValue());
+    }
+
+    public String unpack() {
+        return TrackingNumberCodec.decode(high, low);
+    }
+}
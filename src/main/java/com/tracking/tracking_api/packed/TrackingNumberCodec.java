@@ -0,0 +1,112 @@
+package com.tracking.tracking_api.packed;
+
+import com.tracking.tracking_api.generator.TrackingNumberEncoder;
+
+/**
+ * Lossless conversion between a tracking number and two longs.
+ * <p>
+ * Each long holds 8 characters as base-37 digits, most significant first: {@code 0-9} are 1-10,
+ * {@code A-Z} are 11-36 and 0 pads numbers shorter than 16 characters. 37^8 is below 2^42, so
+ * both values are positive, and digits follow ASCII order, so comparing {@code (high, low)}
+ * orders numbers exactly as comparing the strings does. Padding can only follow the last
+ * character, which keeps the encoding of every number, including leading zeros, unique.
+ */
+public final class TrackingNumberCodec {
+
+    static final int CHARS_PER_WORD = 8;
+
+    private static final int RADIX = 37;
+    private static final long WORD_LIMIT = pow(RADIX, CHARS_PER_WORD);
+
+    private static final char[] CHARS = "\u00000123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        for (int digit = 1; digit < RADIX; digit++) {
+            DIGITS[CHARS[digit]] = (byte) digit;
+        }
+    }
+
+    private TrackingNumberCodec() {
+    }
+
+    /**
+     * Pack a number of 1 to 16 characters from {@code A-Z0-9}
+     */
+    public static PackedTrackingNumber encode(String trackingNumber) {
+        int length = trackingNumber.length();
+        if (length == 0 || length > TrackingNumberEncoder.MAX_LENGTH) {
+            throw new IllegalArgumentException("Tracking number must be 1 to " + TrackingNumberEncoder.MAX_LENGTH + " characters");
+        }
+        return new PackedTrackingNumber(word(trackingNumber, 0), word(trackingNumber, CHARS_PER_WORD));
+    }
+
+    /**
+     * The number packed by {@link #encode}
+     */
+    public static String decode(long high, long low) {
+        char[] chars = new char[2 * CHARS_PER_WORD];
+        int length = unpack(high, chars, 0);
+        if (length == CHARS_PER_WORD) {
+            length += unpack(low, chars, CHARS_PER_WORD);
+        } else if (low != 0) {
+            throw new IllegalArgumentException("Packed tracking number has characters after its padding");
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("Packed tracking number is empty");
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static long word(String trackingNumber, int from) {
+        long word = 0;
+        for (int i = from; i < from + CHARS_PER_WORD; i++) {
+            word *= RADIX;
+            if (i < trackingNumber.length()) {
+                word += digit(trackingNumber.charAt(i));
+            }
+        }
+        return word;
+    }
+
+    private static int digit(char c) {
+        int digit = c < DIGITS.length ? DIGITS[c] : 0;
+        if (digit == 0) {
+            throw new IllegalArgumentException("Tracking number can only contain A-Z and 0-9, found '" + c + "'");
+        }
+        return digit;
+    }
+
+    /**
+     * Write the characters of one word, returning how many there are before the padding
+     */
+    private static int unpack(long word, char[] chars, int offset) {
+        if (word < 0 || word >= WORD_LIMIT) {
+            throw new IllegalArgumentException("Packed tracking number word out of range: " + word);
+        }
+        int length = 0;
+        boolean padding = false;
+        long divisor = WORD_LIMIT / RADIX;
+        for (int i = 0; i < CHARS_PER_WORD; i++) {
+            int digit = (int) (word / divisor);
+            word %= divisor;
+            divisor /= RADIX;
+            if (digit == 0) {
+                padding = true;
+            } else if (padding) {
+                throw new IllegalArgumentException("Packed tracking number has characters after its padding");
+            } else {
+                chars[offset + length++] = CHARS[digit];
+            }
+        }
+        return length;
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
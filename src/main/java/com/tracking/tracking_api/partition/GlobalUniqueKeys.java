@@ -0,0 +1,51 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.entity.TrackingNumber;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Global unique keys of partitioned storage, kept in tables that are not partitioned.
+ * <p>
+ * Unique indexes of a partitioned table only hold within a partition, and a number does not
+ * always name its order month: customer codes and years of the default layout vary in length,
+ * so one string can be read as two months, years wrap every century, templates put the month
+ * elsewhere, and the default partition mixes months. A key used in two months, a tracking number
+ * or an {@code Idempotency-Key}, would then be stored twice. Every insert also adds its number to
+ * {@code issued_numbers} and its key, if any, to {@code idempotency_keys}, in the same transaction,
+ * so the second insert of a key fails on their primary keys, which are global. Rows stay after
+ * retention drops their partition, so numbers are never issued again.
+ */
+public class GlobalUniqueKeys {
+
+    private static final String INSERT_NUMBER_SQL = "INSERT INTO issued_numbers (tracking_number) VALUES (?)";
+    private static final String INSERT_KEY_SQL = "INSERT INTO idempotency_keys (idempotency_key, tracking_number) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GlobalUniqueKeys(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Also in db/partitioned/schema-postgresql.sql, which fills them from existing rows
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS issued_numbers (tracking_number VARCHAR(16) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS idempotency_keys"
+                + " (idempotency_key VARCHAR(200) PRIMARY KEY, tracking_number VARCHAR(16) NOT NULL)");
+    }
+
+    /**
+     * Claim the numbers and idempotency keys of inserted rows on the caller's transaction, failing
+     * with a {@code DataIntegrityViolationException} when one is taken
+     */
+    public void claim(List<TrackingNumber> entities) {
+        jdbcTemplate.batchUpdate(INSERT_NUMBER_SQL, entities, entities.size(),
+                (statement, entity) -> statement.setString(1, entity.getTrackingNumber()));
+
+        List<TrackingNumber> withKey = entities.stream().filter(entity -> entity.getIdempotencyKey() != null).toList();
+        if (!withKey.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_KEY_SQL, withKey, withKey.size(), (statement, entity) -> {
+                statement.setString(1, entity.getIdempotencyKey());
+                statement.setString(2, entity.getTrackingNumber());
+            });
+        }
+    }
+}
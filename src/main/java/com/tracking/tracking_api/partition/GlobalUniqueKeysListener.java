@@ -0,0 +1,33 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.persistence.BeforeCommitBatch;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Claims the global unique keys of every inserted tracking number in partitioned storage, in the
+ * transaction that inserts it.
+ * <p>
+ * Collected per transaction as entities are persisted and claimed in one {@link BeforeCommitBatch}:
+ * a key that is taken fails the commit with a {@code DataIntegrityViolationException}, which the
+ * service retries with new numbers or answers from the row already stored for the idempotency key.
+ * Created by Hibernate through Spring's bean container, so single-table storage, whose unique
+ * indexes are global already, claims nothing.
+ */
+public class GlobalUniqueKeysListener {
+
+    private final ObjectProvider<GlobalUniqueKeys> uniqueKeys;
+
+    public GlobalUniqueKeysListener(ObjectProvider<GlobalUniqueKeys> uniqueKeys) {
+        this.uniqueKeys = uniqueKeys;
+    }
+
+    @PrePersist
+    void onPersist(TrackingNumber entity) {
+        GlobalUniqueKeys target = uniqueKeys.getIfAvailable();
+        if (target != null) {
+            BeforeCommitBatch.add(this, entity, target::claim);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracking.tracking_api.partition;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Stand-in for H2, which has no table partitioning, so partitioned storage can run in tests and
+ * local development.
+ * <p>
+ * Partitions are only recorded in a {@code tracking_number_partitions} table. Dropping one deletes
+ * its order month with a single statement, and archiving copies the month into
+ * {@code <archiveSchema>.tracking_numbers} first.
+ */
+public class H2PartitionDialect implements PartitionDialect {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public H2PartitionDialect(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS tracking_number_partitions (order_month DATE PRIMARY KEY)");
+    }
+
+    @Override
+    public void create(YearMonth month) {
+        jdbcTemplate.update("MERGE INTO tracking_number_partitions KEY (order_month) VALUES (?)", month.atDay(1));
+    }
+
+    @Override
+    public List<YearMonth> list() {
+        return jdbcTemplate.queryForList("SELECT order_month FROM tracking_number_partitions ORDER BY order_month",
+                        LocalDate.class).stream()
+                .map(YearMonth::from)
+                .toList();
+    }
+
+    @Override
+    public void drop(YearMonth month) {
+        jdbcTemplate.update("DELETE FROM tracking_numbers WHERE order_month = ?", month.atDay(1));
+        jdbcTemplate.update("DELETE FROM tracking_number_partitions WHERE order_month = ?", month.atDay(1));
+    }
+
+    @Override
+    public void archive(YearMonth month, String archiveSchema) {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveSchema + ".tracking_numbers"
+                + " AS SELECT * FROM tracking_numbers WITH NO DATA");
+        jdbcTemplate.update("INSERT INTO " + archiveSchema + ".tracking_numbers"
+                + " SELECT * FROM tracking_numbers WHERE order_month = ?", month.atDay(1));
+        drop(month);
+    }
+}
@@ -0,0 +1,30 @@
+package com.tracking.tracking_api.partition;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Database-specific management of the monthly partitions of {@code tracking_numbers}
+ */
+public interface PartitionDialect {
+
+    /**
+     * Create the partition of the order month unless it exists
+     */
+    void create(YearMonth month);
+
+    /**
+     * Order months that currently have a partition, oldest first
+     */
+    List<YearMonth> list();
+
+    /**
+     * Remove the partition together with its rows
+     */
+    void drop(YearMonth month);
+
+    /**
+     * Take the partition out of {@code tracking_numbers}, keeping its rows in the archive schema
+     */
+    void archive(YearMonth month, String archiveSchema);
+}
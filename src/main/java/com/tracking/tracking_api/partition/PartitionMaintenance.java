@@ -0,0 +1,133 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the monthly partitions of {@code tracking_numbers} ahead of incoming orders and applies retention.
+ * <p>
+ * Runs once at startup, before requests are taken, and then every {@code maintenanceInterval}:
+ * partitions are created from the current month up to {@code premakeMonths} ahead, and with
+ * {@code retentionMonths} set, whole partitions of older order months are dropped or archived
+ * instead of deleting their rows one by one.
+ */
+@Slf4j
+public class PartitionMaintenance implements SmartLifecycle {
+
+    private final PartitionDialect dialect;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingProperties.Partitions settings;
+    private final Clock clock;
+
+    private final AtomicInteger partitionCount = new AtomicInteger();
+    private final Counter retiredCounter;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public PartitionMaintenance(PartitionDialect dialect,
+                                PlatformTransactionManager transactionManager,
+                                TrackingProperties properties,
+                                MeterRegistry meterRegistry,
+                                Clock clock) {
+        this.dialect = dialect;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getStorage().getPartitions();
+        this.clock = clock;
+
+        Gauge.builder("tracking.partitions", partitionCount, AtomicInteger::get)
+                .description("Monthly partitions of tracking_numbers")
+                .register(meterRegistry);
+        this.retiredCounter = Counter.builder("tracking.partitions.retired")
+                .description("Partitions dropped or archived by retention")
+                .tag("action", settings.getRetentionAction().name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create upcoming partitions and retire expired ones
+     */
+    public void maintain() {
+        YearMonth current = YearMonth.now(clock);
+        for (int ahead = 0; ahead <= settings.getPremakeMonths(); ahead++) {
+            dialect.create(current.plusMonths(ahead));
+        }
+
+        if (settings.getRetentionMonths() > 0) {
+            YearMonth oldestKept = current.minusMonths(settings.getRetentionMonths() - 1L);
+            for (YearMonth month : dialect.list()) {
+                if (month.isBefore(oldestKept)) {
+                    retire(month);
+                }
+            }
+        }
+
+        partitionCount.set(dialect.list().size());
+    }
+
+    @Override
+    public void start() {
+        maintain();
+        running = true;
+        long interval = settings.getMaintenanceInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Tracking-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintainSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server, so the current month's partition exists before the first insert
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void retire(YearMonth month) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (settings.getRetentionAction() == TrackingProperties.RetentionAction.ARCHIVE) {
+                dialect.archive(month, settings.getArchiveSchema());
+            } else {
+                dialect.drop(month);
+            }
+        });
+        retiredCounter.increment();
+        log.info("Retired tracking number partition {} ({})", month, settings.getRetentionAction());
+    }
+
+    private void maintainSafely() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance failed, retrying in {}", settings.getMaintenanceInterval(), e);
+        }
+    }
+}
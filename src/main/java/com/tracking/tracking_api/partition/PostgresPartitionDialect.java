@@ -0,0 +1,90 @@
+package com.tracking.tracking_api.partition;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Native range partitions on {@code order_month}, for the schema in {@code db/partitioned/schema-postgresql.sql}.
+ * <p>
+ * PostgreSQL only allows unique indexes on a partitioned table when they include the partition
+ * key, so each partition gets its own unique indexes on {@code tracking_number}, the packed
+ * {@code (tracking_number_hi, tracking_number_lo)} and {@code idempotency_key}. Those only hold
+ * within the month: a number does not always name one order month, so global uniqueness comes from
+ * {@link GlobalUniqueKeys}. Retention detaches a partition before dropping or moving it, so inserts
+ * into other months are not blocked.
+ */
+public class PostgresPartitionDialect implements PartitionDialect {
+
+    private static final String PARTITION_PREFIX = "tracking_numbers_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresPartitionDialect(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void create(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF tracking_numbers"
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + partition + "_tracking_number"
+                + " ON " + partition + " (tracking_number)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + partition + "_idempotency_key"
+                + " ON " + partition + " (idempotency_key)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + partition + "_tracking_number_packed"
+                + " ON " + partition + " (tracking_number_hi, tracking_number_lo)");
+    }
+
+    @Override
+    public List<YearMonth> list() {
+        return jdbcTemplate.queryForList("""
+                        SELECT child.relname FROM pg_inherits
+                        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                        WHERE parent.relname = 'tracking_numbers'
+                        ORDER BY child.relname
+                        """, String.class).stream()
+                .map(PostgresPartitionDialect::partitionMonth)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void drop(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("ALTER TABLE tracking_numbers DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    @Override
+    public void archive(YearMonth month, String archiveSchema) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+        jdbcTemplate.execute("ALTER TABLE tracking_numbers DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + archiveSchema);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Month of a partition created by {@link #create}, null for others such as the default partition
+     */
+    static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
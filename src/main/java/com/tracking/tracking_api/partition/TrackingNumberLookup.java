@@ -0,0 +1,133 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.generator.TrackingNumberTemplates;
+import com.tracking.tracking_api.packed.PackedTrackingNumber;
+import com.tracking.tracking_api.packed.TrackingNumberCodec;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lookups by tracking number, routed to the order month's partition in partitioned storage.
+ * <p>
+ * Existence checks know the month from the request the candidate was generated for. Lookups by
+ * number alone first try the months decoded from the number in the built-in layouts and the
+ * customer templates, and only fall back to searching every partition when none of them has it.
+ */
+@Component
+public class TrackingNumberLookup {
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final Optional<TrackingNumberTemplates> templates;
+    private final boolean partitioned;
+    private final boolean packed;
+
+    public TrackingNumberLookup(TrackingNumberRepository trackingNumberRepository,
+                                Optional<TrackingNumberTemplates> templates,
+                                TrackingProperties properties) {
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.templates = templates;
+        this.partitioned = properties.getStorage().getMode() == TrackingProperties.StorageMode.PARTITIONED;
+        this.packed = properties.getStorage().getNumberFormat() == TrackingProperties.NumberFormat.PACKED;
+    }
+
+    public boolean exists(String trackingNumber, YearMonth orderMonth) {
+        if (packed) {
+            PackedTrackingNumber number = TrackingNumberCodec.encode(trackingNumber);
+            return partitioned
+                    ? trackingNumberRepository.existsPackedInOrderMonth(number.high(), number.low(), orderMonth.atDay(1))
+                    : trackingNumberRepository.existsPacked(number.high(), number.low());
+        }
+        if (partitioned) {
+            return trackingNumberRepository.existsInOrderMonth(trackingNumber, orderMonth.atDay(1));
+        }
+        return trackingNumberRepository.existsByTrackingNumber(trackingNumber);
+    }
+
+    /**
+     * Which of the candidates, all generated for orders of the given month, are taken
+     */
+    public List<String> findExisting(Collection<String> trackingNumbers, YearMonth orderMonth) {
+        if (packed) {
+            return findExistingPacked(trackingNumbers, orderMonth);
+        }
+        if (partitioned) {
+            return trackingNumberRepository.findExistingInOrderMonth(trackingNumbers, orderMonth.atDay(1));
+        }
+        return trackingNumberRepository.findExistingTrackingNumbers(trackingNumbers);
+    }
+
+    public Optional<TrackingNumber> findByTrackingNumber(String trackingNumber) {
+        if (packed) {
+            return findPacked(trackingNumber);
+        }
+        if (partitioned) {
+            Set<LocalDate> months = orderMonths(trackingNumber);
+            if (!months.isEmpty()) {
+                List<TrackingNumber> routed = trackingNumberRepository.findInOrderMonths(trackingNumber, months);
+                if (!routed.isEmpty()) {
+                    return Optional.of(routed.get(0));
+                }
+            }
+        }
+        return trackingNumberRepository.findByTrackingNumber(trackingNumber);
+    }
+
+    private Set<LocalDate> orderMonths(String trackingNumber) {
+        return TrackingNumberMonths.candidates(trackingNumber,
+                templates.map(TrackingNumberTemplates::layouts).orElse(List.of()));
+    }
+
+    /**
+     * One query for the candidates' high and low words, keeping only the exact pairs asked for
+     */
+    private List<String> findExistingPacked(Collection<String> trackingNumbers, YearMonth orderMonth) {
+        Map<PackedTrackingNumber, String> candidates = new HashMap<>();
+        Set<Long> highs = new HashSet<>();
+        Set<Long> lows = new HashSet<>();
+        for (String trackingNumber : trackingNumbers) {
+            PackedTrackingNumber number = TrackingNumberCodec.encode(trackingNumber);
+            candidates.put(number, trackingNumber);
+            highs.add(number.high());
+            lows.add(number.low());
+        }
+
+        List<PackedTrackingNumber> found = partitioned
+                ? trackingNumberRepository.findExistingPackedInOrderMonth(highs, lows, orderMonth.atDay(1))
+                : trackingNumberRepository.findExistingPacked(highs, lows);
+        List<String> existing = new ArrayList<>();
+        for (PackedTrackingNumber number : found) {
+            String trackingNumber = candidates.get(number);
+            if (trackingNumber != null) {
+                existing.add(trackingNumber);
+            }
+        }
+        return existing;
+    }
+
+    private Optional<TrackingNumber> findPacked(String trackingNumber) {
+        PackedTrackingNumber number = TrackingNumberCodec.encode(trackingNumber);
+        if (partitioned) {
+            Set<LocalDate> months = orderMonths(trackingNumber);
+            if (!months.isEmpty()) {
+                List<TrackingNumber> routed = trackingNumberRepository.findPackedInOrderMonths(number.high(), number.low(), months);
+                if (!routed.isEmpty()) {
+                    return Optional.of(routed.get(0));
+                }
+            }
+        }
+        return trackingNumberRepository.findPacked(number.high(), number.low());
+    }
+}
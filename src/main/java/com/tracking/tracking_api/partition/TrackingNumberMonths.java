@@ -0,0 +1,80 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.generator.TrackingNumberTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Order months a tracking number may have been issued for, read back from its year and month digits.
+ * <p>
+ * The sequential layout keeps them at a fixed position. In the default layout their position
+ * depends on the length of the customer code (1-2) and of the year (1-2 digits, 2000-2099), so
+ * every reading that yields a valid month is returned. Customer templates put them where their
+ * {@code {yymm}} segment is, in every template the number fits. Numbers for orders outside
+ * 2000-2099 are not recognized and have to be looked up in every partition.
+ */
+public final class TrackingNumberMonths {
+
+    /**
+     * Origin (2) and weight code (3) before the customer code of the default layout
+     */
+    private static final int CUSTOMER_CODE_START = 5;
+
+    private static final int SEQUENTIAL_LENGTH = 16;
+    private static final int SEQUENTIAL_MONTH_START = 2;
+
+    private TrackingNumberMonths() {
+    }
+
+    /**
+     * First day of every order month the number can be decoded to, empty if none
+     */
+    public static Set<LocalDate> candidates(String trackingNumber) {
+        return candidates(trackingNumber, List.of());
+    }
+
+    /**
+     * First day of every order month the number can be decoded to in the built-in layouts or one of
+     * the templates, empty if none
+     */
+    public static Set<LocalDate> candidates(String trackingNumber, List<TrackingNumberTemplate> templates) {
+        Set<LocalDate> months = new LinkedHashSet<>();
+        for (TrackingNumberTemplate template : templates) {
+            for (int position : template.yearMonthPositions(trackingNumber)) {
+                addMonth(trackingNumber, position, 2, months);
+            }
+        }
+        if (trackingNumber.length() == SEQUENTIAL_LENGTH) {
+            addMonth(trackingNumber, SEQUENTIAL_MONTH_START, 2, months);
+        }
+        for (int customerCodeLength = 1; customerCodeLength <= 2; customerCodeLength++) {
+            for (int yearDigits = 1; yearDigits <= 2; yearDigits++) {
+                addMonth(trackingNumber, CUSTOMER_CODE_START + customerCodeLength, yearDigits, months);
+            }
+        }
+        return months;
+    }
+
+    private static void addMonth(String trackingNumber, int start, int yearDigits, Set<LocalDate> months) {
+        int end = start + yearDigits + 2;
+        if (end > trackingNumber.length()) {
+            return;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = trackingNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return;
+            }
+            value = value * 10 + (c - '0');
+        }
+        int year = value / 100;
+        int month = value % 100;
+        if (month >= 1 && month <= 12) {
+            months.add(LocalDate.of(2000 + year, month, 1));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tracking.tracking_api.persistence;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects what an entity listener sees during a transaction and hands it over in one call just
+ * before the commit, so the work joins the transaction as a single JDBC batch and fails the commit
+ * if it fails. Outside a transaction every item is handed over at once.
+ */
+public final class BeforeCommitBatch<T> implements TransactionSynchronization {
+
+    private final Object owner;
+    private final Consumer<List<T>> flush;
+    private final List<T> items = new ArrayList<>();
+
+    private BeforeCommitBatch(Object owner, Consumer<List<T>> flush) {
+        this.owner = owner;
+        this.flush = flush;
+    }
+
+    /**
+     * Add an item to the batch {@code owner} collects in the current transaction
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void add(Object owner, T item, Consumer<List<T>> flush) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush.accept(List.of(item));
+            return;
+        }
+
+        // One synchronization per transaction, however many items it collects
+        BeforeCommitBatch<T> batch = (BeforeCommitBatch<T>) TransactionSynchronizationManager.getResource(owner);
+        if (batch == null) {
+            batch = new BeforeCommitBatch<>(owner, flush);
+            TransactionSynchronizationManager.bindResource(owner, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        batch.items.add(item);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        flush.accept(items);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResource(owner);
+    }
+}
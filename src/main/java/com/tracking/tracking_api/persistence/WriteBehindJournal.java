@@ -0,0 +1,265 @@
+package com.tracking.tracking_api.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only log of entities accepted by the write-behind pipeline.
+ * <p>
+ * Every record is fsync'd before the caller is answered, so an acknowledged tracking number
+ * survives a crash of the process. Records are serialized by their callers and only written under
+ * the lock; callers then share fsyncs (group commit). The first caller to find its record not yet
+ * durable forces the segment, covering every record written up to then, while callers arriving
+ * meanwhile wait for it and usually find their record covered once it is done. So the journal
+ * takes one fsync per group of concurrent records instead of one per record. The log is split into
+ * segments; a segment is forced and closed when it is rotated out, and deleted once every record in
+ * it has been inserted into the database.
+ */
+@Slf4j
+class WriteBehindJournal implements AutoCloseable {
+
+    static final long SEGMENT_BYTES = 4 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Guards writes and rotation; not held while forcing, so records keep being written meanwhile
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /**
+     * Held by the caller forcing the current segment, the others wait on it
+     */
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private Segment current;
+    private long segmentCounter;
+    private long written;
+    private volatile long durable;
+    private long forces;
+
+    WriteBehindJournal(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Read every record left over from a previous run, oldest first
+     */
+    List<TrackingNumber> readPending() {
+        List<TrackingNumber> entities = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            try (Stream<String> lines = Files.lines(segment, StandardCharsets.UTF_8)) {
+                lines.filter(line -> !line.isBlank()).forEach(line -> {
+                    try {
+                        entities.add(objectMapper.readValue(line, TrackingNumber.class));
+                    } catch (IOException e) {
+                        // Torn write of the last record, it was never acknowledged
+                        log.warn("Skipping unreadable journal record in {}", segment.getFileName());
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read journal segment " + segment, e);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Delete every segment from a previous run, once its records are safely in the database
+     */
+    void deletePending() {
+        for (Path segment : listSegments()) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to delete journal segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * Durably append a record and return the segment holding it
+     */
+    Segment append(TrackingNumber entity) {
+        byte[] line;
+        try {
+            line = (objectMapper.writeValueAsString(entity) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize write-behind journal record", e);
+        }
+
+        Segment segment;
+        long sequence;
+        writeLock.lock();
+        try {
+            if (current == null || current.size + line.length > SEGMENT_BYTES) {
+                rotate();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                current.channel.write(buffer);
+            }
+            current.size += line.length;
+            current.pending.incrementAndGet();
+            segment = current;
+            sequence = ++written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to write-behind journal", e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        awaitDurable(sequence);
+        return segment;
+    }
+
+    /**
+     * Number of fsyncs taken by appends, fewer than appends when concurrent records share them
+     */
+    long forces() {
+        return forces;
+    }
+
+    /**
+     * Mark one record of the segment as inserted
+     */
+    void release(Segment segment) {
+        if (segment.pending.decrementAndGet() == 0) {
+            deleteIfDone(segment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (current != null) {
+                Segment last = current;
+                current = null;
+                last.channel.force(false);
+                last.sealed = true;
+                last.channel.close();
+                deleteIfDone(last);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Return once the record with the given sequence number is on disk, forcing the current segment
+     * unless another caller's force already covers it
+     */
+    private void awaitDurable(long sequence) {
+        if (durable >= sequence) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (durable >= sequence) {
+                return;
+            }
+            Segment segment;
+            long upTo;
+            writeLock.lock();
+            try {
+                segment = current;
+                upTo = written;
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                if (segment != null) {
+                    segment.channel.force(false);
+                }
+            } catch (ClosedChannelException e) {
+                // Rotated or closed meanwhile, which forced it
+                if (!segment.sealed) {
+                    throw new UncheckedIOException("Unable to sync write-behind journal", e);
+                }
+            }
+            forces++;
+            durable = upTo;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to sync write-behind journal", e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (current != null) {
+            Segment previous = current;
+            // Records of the previous segment may still wait for a force
+            previous.channel.force(false);
+            previous.sealed = true;
+            previous.channel.close();
+            deleteIfDone(previous);
+        }
+        Path path = directory.resolve(SEGMENT_PREFIX + System.currentTimeMillis() + "-" + (segmentCounter++) + SEGMENT_SUFFIX);
+        current = new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    private synchronized void deleteIfDone(Segment segment) {
+        if (segment.sealed && segment.pending.get() == 0) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Unable to delete journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list journal directory " + directory, e);
+        }
+    }
+
+    static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicInteger pending = new AtomicInteger();
+        private long size;
+        private volatile boolean sealed;
+
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
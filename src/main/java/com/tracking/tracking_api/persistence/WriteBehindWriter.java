@@ -0,0 +1,329 @@
+package com.tracking.tracking_api.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.exception.ServiceOverloadedException;
+import com.tracking.tracking_api.generator.TrackingNumberGenerator;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind persistence: tracking numbers are answered as soon as they are queued and a single
+ * writer thread inserts them in micro-batches.
+ * <p>
+ * A batch is flushed when it reaches {@code maxBatchSize} records or {@code flushInterval} after its
+ * first record, whichever comes first. When the queue is full callers wait up to {@code offerTimeout}
+ * and are then refused with {@link ServiceOverloadedException}. On shutdown the queue is drained
+ * before the database goes away; records submitted concurrently with shutdown are either queued
+ * before the writer's last drain or refused. With the journal enabled every record is fsync'd to a local log
+ * before it is acknowledged, sharing fsyncs with concurrent submissions, and replayed on the next start if
+ * the process died before inserting it.
+ * <p>
+ * Only valid with a generator that is unique by construction, since queued numbers are invisible
+ * to existence checks.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.persistence.mode", havingValue = "write-behind")
+@Slf4j
+public class WriteBehindWriter implements SmartLifecycle {
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingProperties.WriteBehind settings;
+    private final WriteBehindJournal journal;
+
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    /**
+     * Held shared by submitters between checking {@code running} and queueing, exclusively by stop
+     */
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public WriteBehindWriter(TrackingNumberRepository trackingNumberRepository,
+                             TrackingNumberGenerator trackingNumberGenerator,
+                             PlatformTransactionManager transactionManager,
+                             TrackingProperties properties,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        if (!trackingNumberGenerator.isUniqueByConstruction()) {
+            throw new IllegalStateException("Write-behind persistence requires tracking.generator.mode=sequential");
+        }
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getPersistence().getWriteBehind();
+        this.capacity = new Semaphore(settings.getQueueCapacity());
+
+        TrackingProperties.Journal journalSettings = settings.getJournal();
+        this.journal = journalSettings.isEnabled()
+                ? new WriteBehindJournal(Path.of(journalSettings.getDirectory()), objectMapper)
+                : null;
+
+        Gauge.builder("tracking.writebehind.queue.depth", queue, BlockingQueue::size)
+                .description("Tracking numbers waiting to be inserted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("tracking.writebehind.flush")
+                .description("Time taken to insert one micro-batch")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("tracking.writebehind.batch.size")
+                .description("Records inserted per micro-batch")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tracking.writebehind.rejected")
+                .description("Requests refused because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tracking.writebehind.failed")
+                .description("Records that could not be inserted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an entity for insertion, returning once it is accepted (and journaled, if enabled)
+     */
+    public void submit(TrackingNumber entity) {
+        boolean acquired;
+        try {
+            acquired = capacity.tryAcquire(settings.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw rejected();
+        }
+
+        submitLock.readLock().lock();
+        try {
+            if (running) {
+                WriteBehindJournal.Segment segment = journal != null ? journal.append(entity) : null;
+                queue.add(new Entry(entity, segment));
+                return;
+            }
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        } finally {
+            submitLock.readLock().unlock();
+        }
+        // Stopping: the writer may already have drained the queue for the last time
+        capacity.release();
+        throw rejected();
+    }
+
+    private ServiceOverloadedException rejected() {
+        rejectedCounter.increment();
+        return new ServiceOverloadedException("Tracking number queue is full", 1);
+    }
+
+    @Override
+    public void start() {
+        if (journal != null) {
+            replayJournal();
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "Tracking-write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Write-behind persistence started (capacity {}, batch {}, interval {})",
+                settings.getQueueCapacity(), settings.getMaxBatchSize(), settings.getFlushInterval());
+    }
+
+    @Override
+    public void stop() {
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        try {
+            writerThread.join(settings.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            log.error("Write-behind queue not drained within {}, {} records left{}", settings.getShutdownTimeout(),
+                    queue.size(), journal != null ? " in the journal" : " and lost");
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Unable to close write-behind journal", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server has stopped taking requests, but before the data source is closed
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(settings.getMaxBatchSize());
+        long flushIntervalNanos = settings.getFlushInterval().toNanos();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < settings.getMaxBatchSize()) {
+                    queue.drainTo(batch, settings.getMaxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= settings.getMaxBatchSize() || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                capacity.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) throws InterruptedException {
+        List<TrackingNumber> pending = batch.stream().map(Entry::entity).toList();
+        long backoffMillis = 10;
+
+        while (true) {
+            List<TrackingNumber> entities = pending;
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                        trackingNumberRepository.saveAll(entities)));
+                batchSizeSummary.record(entities.size());
+                break;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Batch of {} rejected by the database, inserting one by one", entities.size(), e);
+                entities.forEach(WriteBehindWriter::resetForInsert);
+                pending = flushOneByOne(entities);
+                if (pending.isEmpty()) {
+                    break;
+                }
+                log.error("Unable to insert {} records, retrying in {} ms", pending.size(), backoffMillis);
+            } catch (RuntimeException e) {
+                // Database unavailable: keep the batch and retry, the full queue pushes back on callers
+                log.error("Unable to insert batch of {}, retrying in {} ms", entities.size(), backoffMillis, e);
+                entities.forEach(WriteBehindWriter::resetForInsert);
+            }
+            Thread.sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, 1000);
+        }
+
+        if (journal != null) {
+            batch.forEach(entry -> journal.release(entry.segment()));
+        }
+    }
+
+    /**
+     * Insert the entities one at a time, dropping those that violate a constraint and returning
+     * those that failed for any other reason, which stay journaled and are retried
+     */
+    private List<TrackingNumber> flushOneByOne(List<TrackingNumber> entities) {
+        List<TrackingNumber> failed = new ArrayList<>();
+        for (TrackingNumber entity : entities) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> trackingNumberRepository.save(entity));
+            } catch (DataIntegrityViolationException e) {
+                failedCounter.increment();
+                log.error("Dropping tracking number {} rejected by the database", entity.getTrackingNumber(), e);
+            } catch (RuntimeException e) {
+                log.debug("Unable to insert tracking number {}", entity.getTrackingNumber(), e);
+                resetForInsert(entity);
+                failed.add(entity);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Undo the id and version assigned by a rolled back insert, so the entity is persisted as new again
+     */
+    private static void resetForInsert(TrackingNumber entity) {
+        entity.setId(null);
+        entity.setVersion(null);
+    }
+
+    /**
+     * Insert records journaled by a previous run that never reached the database
+     */
+    private void replayJournal() {
+        List<TrackingNumber> pending = journal.readPending();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int inserted = 0;
+        for (int from = 0; from < pending.size(); from += settings.getMaxBatchSize()) {
+            List<TrackingNumber> chunk = pending.subList(from, Math.min(from + settings.getMaxBatchSize(), pending.size()));
+            Set<String> existing = new HashSet<>(trackingNumberRepository.findExistingTrackingNumbers(
+                    chunk.stream().map(TrackingNumber::getTrackingNumber).toList()));
+            List<TrackingNumber> missing = chunk.stream()
+                    .filter(entity -> !existing.contains(entity.getTrackingNumber()))
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> trackingNumberRepository.saveAll(missing));
+            inserted += missing.size();
+        }
+
+        journal.deletePending();
+        log.info("Replayed write-behind journal: {} records found, {} inserted", pending.size(), inserted);
+    }
+
+    private record Entry(TrackingNumber entity, WriteBehindJournal.Segment segment) {
+    }
+}
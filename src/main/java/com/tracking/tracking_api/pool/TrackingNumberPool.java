@@ -0,0 +1,272 @@
+package com.tracking.tracking_api.pool;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.existence.TrackingNumberExistenceFilter;
+import com.tracking.tracking_api.generator.TrackingNumberEncoder;
+import com.tracking.tracking_api.generator.TrackingNumberTemplates;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.random.RandomSource;
+import com.tracking.tracking_api.service.TrackingNumberMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random-mode tracking numbers generated and checked against the database ahead of requests.
+ * <p>
+ * A number is its request-derived prefix (origin, weight code, customer code, order month)
+ * followed by the random and sequence characters. For every prefix seen recently, a background
+ * thread keeps a {@link LockFreeRing} of up to {@code capacity} suffixed numbers that were free
+ * when checked, validating each refill of {@code refillBatchSize} candidates with one
+ * {@code IN (...)} query. Requests take a number with a single poll. A prefix whose ring is empty
+ * counts as a starvation and the caller falls back to generating and checking inline; the ring is
+ * refilled once it drops below {@code lowWatermark}, or on the first request for a prefix.
+ * Only the default layout is pooled: customers with their own template always generate inline.
+ * <p>
+ * Numbers are only reserved in memory, so another instance, or an inline candidate of this one,
+ * can still take a pooled number first. The unique index on {@code tracking_number} catches those
+ * and the service retries the insert.
+ */
+@Slf4j
+public class TrackingNumberPool implements SmartLifecycle {
+
+    /**
+     * Random (2) and sequence (2) characters appended to the prefix
+     */
+    private static final int SUFFIX_LENGTH = 4;
+
+    private final TrackingNumberLookup trackingNumberLookup;
+    private final RandomSource randomSource;
+    private final Optional<TrackingNumberExistenceFilter> existenceFilter;
+    private final Optional<TrackingNumberTemplates> templates;
+    private final TrackingNumberMetrics metrics;
+
+    private final int capacity;
+    private final int lowWatermark;
+    private final int refillBatchSize;
+
+    private final Cache<String, PrefixPool> pools;
+    private final BlockingQueue<PrefixPool> refillQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter starvedCounter;
+    private final Counter takenCounter;
+    private final Timer refillTimer;
+
+    private volatile boolean running;
+    private Thread refillThread;
+
+    public TrackingNumberPool(TrackingNumberLookup trackingNumberLookup,
+                              RandomSource randomSource,
+                              Optional<TrackingNumberExistenceFilter> existenceFilter,
+                              Optional<TrackingNumberTemplates> templates,
+                              TrackingNumberMetrics metrics,
+                              TrackingProperties properties,
+                              MeterRegistry meterRegistry) {
+        TrackingProperties.Pool settings = properties.getPool();
+        this.trackingNumberLookup = trackingNumberLookup;
+        this.randomSource = randomSource;
+        this.existenceFilter = existenceFilter;
+        this.templates = templates;
+        this.metrics = metrics;
+        this.capacity = settings.getCapacity();
+        this.lowWatermark = settings.getLowWatermark();
+        this.refillBatchSize = settings.getRefillBatchSize();
+        this.pools = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxPrefixes())
+                .expireAfterAccess(settings.getIdleTimeout())
+                .build();
+
+        Gauge.builder("tracking.pool.available", this, TrackingNumberPool::available)
+                .description("Pre-validated tracking numbers ready to be taken, over all prefixes")
+                .register(meterRegistry);
+        Gauge.builder("tracking.pool.prefixes", pools, Cache::estimatedSize)
+                .description("Prefixes with a pool of pre-validated tracking numbers")
+                .register(meterRegistry);
+        this.hitCounter = takeCounter(meterRegistry, "hit");
+        this.starvedCounter = takeCounter(meterRegistry, "starved");
+        this.takenCounter = Counter.builder("tracking.pool.refill.taken")
+                .description("Refill candidates discarded because the database already had them")
+                .register(meterRegistry);
+        this.refillTimer = Timer.builder("tracking.pool.refill")
+                .description("Time taken to refill the pool of one prefix")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A pre-validated tracking number for the request, empty if none is ready for its prefix
+     */
+    public Optional<String> take(TrackingNumberRequest request) {
+        if (templates.isPresent() && templates.get().find(request.getCustomerSlug()).isPresent()) {
+            // Numbers of customers with their own template are not in the default layout pooled here
+            return Optional.empty();
+        }
+
+        String prefix = TrackingNumberEncoder.encodePrefix(request);
+        if (prefix.length() + SUFFIX_LENGTH > TrackingNumberEncoder.MAX_LENGTH) {
+            // The suffix would be cut, leaving too few combinations to pool
+            return Optional.empty();
+        }
+
+        PrefixPool pool = pools.get(prefix, key -> new PrefixPool(key, YearMonth.from(request.getCreatedAt())));
+        String trackingNumber = pool.take();
+        if (trackingNumber == null) {
+            starvedCounter.increment();
+            scheduleRefill(pool);
+            return Optional.empty();
+        }
+
+        hitCounter.increment();
+        if (pool.ring.size() < lowWatermark) {
+            scheduleRefill(pool);
+        }
+        return Optional.of(trackingNumber);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        refillThread = new Thread(this::runRefill, "Tracking-pool-refill");
+        refillThread.setDaemon(true);
+        refillThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        refillThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void scheduleRefill(PrefixPool pool) {
+        if (pool.refillScheduled.compareAndSet(false, true)) {
+            refillQueue.add(pool);
+        }
+    }
+
+    private void runRefill() {
+        while (running) {
+            PrefixPool pool;
+            try {
+                pool = refillQueue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (pool == null) {
+                continue;
+            }
+
+            // Cleared first, so takes during the refill can ask for another one
+            pool.refillScheduled.set(false);
+            try {
+                refillTimer.record(() -> refill(pool));
+            } catch (RuntimeException e) {
+                log.warn("Unable to refill tracking number pool for prefix {}", pool.prefix, e);
+            }
+        }
+    }
+
+    /**
+     * Fill the prefix's ring to capacity, one bulk existence query per batch of candidates
+     */
+    private void refill(PrefixPool pool) {
+        while (running && pool.ring.size() < capacity) {
+            int wanted = Math.min(refillBatchSize, capacity - pool.ring.size());
+            Set<String> candidates = new LinkedHashSet<>();
+            for (int i = 0; i < wanted; i++) {
+                String candidate = TrackingNumberEncoder.encodeWithPrefix(pool.prefix, randomSource, sequence.incrementAndGet());
+                if (!pool.reserved.contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+
+            Set<String> taken = findTaken(new ArrayList<>(candidates), pool.orderMonth);
+            takenCounter.increment(taken.size());
+            int added = 0;
+            for (String candidate : candidates) {
+                if (taken.contains(candidate) || !pool.reserved.add(candidate)) {
+                    continue;
+                }
+                if (!pool.ring.offer(candidate)) {
+                    pool.reserved.remove(candidate);
+                    return;
+                }
+                added++;
+            }
+            if (added == 0) {
+                // Nearly every suffix of this prefix is in use or reserved
+                return;
+            }
+        }
+    }
+
+    private Set<String> findTaken(List<String> candidates, YearMonth orderMonth) {
+        List<String> toCheck = existenceFilter.map(filter -> filter.candidatesToCheck(candidates)).orElse(candidates);
+        if (toCheck.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> existing = new HashSet<>(metrics.timeCheck(true, () ->
+                trackingNumberLookup.findExisting(toCheck, orderMonth)));
+        existenceFilter.ifPresent(filter -> filter.recordChecked(toCheck.size(), existing.size()));
+        return existing;
+    }
+
+    private double available() {
+        return pools.asMap().values().stream().mapToInt(pool -> pool.ring.size()).sum();
+    }
+
+    private static Counter takeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tracking.pool.takes")
+                .description("Requests served from the pool, or starved because it was empty for their prefix")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    final class PrefixPool {
+
+        private final String prefix;
+        private final YearMonth orderMonth;
+        private final LockFreeRing<String> ring = new LockFreeRing<>(capacity);
+        private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean refillScheduled = new AtomicBoolean();
+
+        private PrefixPool(String prefix, YearMonth orderMonth) {
+            this.prefix = prefix;
+            this.orderMonth = orderMonth;
+        }
+
+        private String take() {
+            String trackingNumber = ring.poll();
+            if (trackingNumber != null) {
+                reserved.remove(trackingNumber);
+            }
+            return trackingNumber;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.tracking.tracking_api.random;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Random bytes generated in bulk by a background thread and consumed without locks.
+ * <p>
+ * The refill thread keeps up to {@code prefetchBlocks} blocks of DRBG output ready in a lock-free
+ * queue. Each stripe consumes its current block through an atomic cursor, so every byte is handed
+ * out exactly once, and swaps in a ready block when it runs out. If the refill thread falls behind,
+ * the block is generated inline by the caller and counted as a starvation.
+ * <p>
+ * Bounded values below 256 take one byte each with rejection sampling, instead of the four bytes
+ * and generator call per value of {@link SecureRandom#nextInt(int)}.
+ */
+@Slf4j
+public class BufferedRandomSource implements RandomSource, DisposableBean {
+
+    private final int blockBytes;
+    private final SecureRandom drbg = StripedDrbgRandomSource.newDrbg("tracking-random-buffer");
+
+    private final Queue<Block> ready = new ConcurrentLinkedQueue<>();
+    private final Semaphore free;
+    private final AtomicReference<Block>[] stripes;
+    private final int mask;
+
+    private final Counter starvedCounter;
+    private final Thread refillThread;
+
+    @SuppressWarnings("unchecked")
+    public BufferedRandomSource(int stripes, int blockBytes, int prefetchBlocks, MeterRegistry meterRegistry) {
+        this.blockBytes = blockBytes;
+        this.free = new Semaphore(prefetchBlocks);
+
+        int count = Stripes.count(stripes);
+        this.stripes = new AtomicReference[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new AtomicReference<>(newBlock());
+        }
+
+        Gauge.builder("tracking.random.buffer.ready", ready, Queue::size)
+                .description("Pre-generated blocks of random bytes waiting to be used")
+                .register(meterRegistry);
+        this.starvedCounter = Counter.builder("tracking.random.buffer.starved")
+                .description("Blocks generated inline because no pre-generated block was ready")
+                .register(meterRegistry);
+
+        this.refillThread = new Thread(this::refill, "Tracking-random-refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.start();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0 || bound > 256) {
+            return RandomSource.super.nextInt(bound);
+        }
+
+        // Largest multiple of bound within a byte, values above it would favour the low results
+        int limit = 256 - 256 % bound;
+        int value;
+        do {
+            value = nextByte() & 0xFF;
+        } while (value >= limit);
+        return value % bound;
+    }
+
+    @Override
+    public long nextLong() {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (nextByte() & 0xFF);
+        }
+        return value;
+    }
+
+    @Override
+    public void destroy() {
+        refillThread.interrupt();
+    }
+
+    private byte nextByte() {
+        AtomicReference<Block> stripe = stripes[Stripes.index(mask)];
+        while (true) {
+            Block block = stripe.get();
+            int position = block.cursor.getAndIncrement();
+            if (position < block.bytes.length) {
+                return block.bytes[position];
+            }
+
+            // Exhausted: only the thread that swaps the block in keeps it, the others retry on it
+            Block next = ready.poll();
+            if (next != null) {
+                free.release();
+            } else {
+                starvedCounter.increment();
+                next = newBlock();
+            }
+            if (!stripe.compareAndSet(block, next) && free.tryAcquire()) {
+                ready.offer(next);
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            while (true) {
+                free.acquire();
+                ready.offer(newBlock());
+            }
+        } catch (InterruptedException e) {
+            log.debug("Random refill thread stopped");
+        }
+    }
+
+    private Block newBlock() {
+        byte[] bytes = new byte[blockBytes];
+        drbg.nextBytes(bytes);
+        return new Block(bytes);
+    }
+
+    private static final class Block {
+
+        private final byte[] bytes;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private Block(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.tracking.tracking_api.random;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random numbers for the random part of tracking numbers, safe to call from any number of threads
+ */
+public interface RandomSource extends RandomGenerator {
+}
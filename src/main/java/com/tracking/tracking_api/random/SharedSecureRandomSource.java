@@ -0,0 +1,22 @@
+package com.tracking.tracking_api.random;
+
+import java.security.SecureRandom;
+
+/**
+ * One {@link SecureRandom} shared by every thread, the original behaviour. Its default
+ * implementation on Linux synchronizes internally and can stall on the entropy pool.
+ */
+public class SharedSecureRandomSource implements RandomSource {
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Override
+    public long nextLong() {
+        return secureRandom.nextLong();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return secureRandom.nextInt(bound);
+    }
+}
@@ -0,0 +1,30 @@
+package com.tracking.tracking_api.random;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+
+/**
+ * {@link SplittableRandom} per thread, split from a securely seeded root. Much faster than a
+ * DRBG but its output can be predicted from earlier numbers, so only use it where tracking
+ * numbers do not need to be unguessable.
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom root = new SplittableRandom(new SecureRandom().nextLong());
+
+    private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(this::split);
+
+    @Override
+    public long nextLong() {
+        return random.get().nextLong();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.get().nextInt(bound);
+    }
+
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+}
@@ -0,0 +1,50 @@
+package com.tracking.tracking_api.random;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Independently seeded DRBG instances with threads spread over them, so concurrent requests
+ * rarely wait on the same generator's lock.
+ * <p>
+ * Striped rather than one instance per thread: with virtual threads every request runs on a new
+ * thread, and seeding a DRBG per request would cost more than the contention it avoids.
+ */
+public class StripedDrbgRandomSource implements RandomSource {
+
+    private final SecureRandom[] stripes;
+    private final int mask;
+
+    public StripedDrbgRandomSource(int stripes) {
+        int count = Stripes.count(stripes);
+        this.stripes = new SecureRandom[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = newDrbg("tracking-random-" + i);
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        return stripes[Stripes.index(mask)].nextLong();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return stripes[Stripes.index(mask)].nextInt(bound);
+    }
+
+    /**
+     * DRBG seeded from the system entropy source, the personalization string keeps instances apart
+     */
+    static SecureRandom newDrbg(String personalization) {
+        try {
+            return SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(
+                    256, DrbgParameters.Capability.RESEED_ONLY, personalization.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("DRBG SecureRandom is not available", e);
+        }
+    }
+}
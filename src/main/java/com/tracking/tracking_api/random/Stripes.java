@@ -0,0 +1,25 @@
+package com.tracking.tracking_api.random;
+
+/**
+ * Spreads threads over a power-of-two number of independent generators
+ */
+final class Stripes {
+
+    private Stripes() {
+    }
+
+    /**
+     * Configured stripe count, or one per available processor when 0, rounded up to a power of two
+     */
+    static int count(int configured) {
+        int count = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    /**
+     * Stripe of the calling thread, thread ids are handed out sequentially so neighbours land apart
+     */
+    static int index(int mask) {
+        return (int) Thread.currentThread().threadId() & mask;
+    }
+}
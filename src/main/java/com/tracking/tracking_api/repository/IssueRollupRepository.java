@@ -0,0 +1,59 @@
+package com.tracking.tracking_api.repository;
+
+import com.tracking.tracking_api.entity.IssueRollup;
+import com.tracking.tracking_api.entity.IssueRollupKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface IssueRollupRepository extends JpaRepository<IssueRollup, IssueRollupKey> {
+    
+    /**
+     * Add a delta to an existing rollup, returning 0 if there is none yet
+     */
+    @Modifying
+    @Query("UPDATE IssueRollup r SET r.issued = r.issued + :delta WHERE r.key = :key")
+    int addIssued(@Param("key") IssueRollupKey key, @Param("delta") long delta);
+    
+    /**
+     * Rollups of a customer for order months from {@code from} to {@code to}, both inclusive
+     */
+    @Query("SELECT r FROM IssueRollup r WHERE r.key.customerId = :customerId AND r.key.orderMonth BETWEEN :from AND :to " +
+           "ORDER BY r.key.orderMonth, r.key.originCountryId, r.key.destinationCountryId")
+    List<IssueRollup> findByCustomer(@Param("customerId") UUID customerId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+    
+    /**
+     * Tracking numbers stored before {@code before} per customer, lane and order month, to seed the rollups with
+     */
+    @Query("SELECT t.customerId AS customerId, t.originCountryId AS originCountryId, " +
+           "t.destinationCountryId AS destinationCountryId, t.orderMonth AS orderMonth, COUNT(t) AS issued " +
+           "FROM TrackingNumber t WHERE t.createdAt < :before " +
+           "GROUP BY t.customerId, t.originCountryId, t.destinationCountryId, t.orderMonth")
+    List<IssuedCount> countIssuedBefore(@Param("before") OffsetDateTime before);
+    
+    /**
+     * Customer, lane, order month and count of a group of stored tracking numbers
+     */
+    interface IssuedCount {
+        
+        UUID getCustomerId();
+        
+        String getOriginCountryId();
+        
+        String getDestinationCountryId();
+        
+        LocalDate getOrderMonth();
+        
+        long getIssued();
+    }
+}
@@ -0,0 +1,21 @@
+package com.tracking.tracking_api.repository;
+
+import com.tracking.tracking_api.entity.RollupFlush;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface RollupFlushRepository extends JpaRepository<RollupFlush, String> {
+    
+    /**
+     * Forget flushes too old to be retried, keeping the seed marker
+     */
+    @Modifying
+    @Query("DELETE FROM RollupFlush f WHERE f.flushedAt < :before AND f.flushId <> '" + RollupFlush.SEED_ID + "'")
+    int deleteFlushedBefore(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,19 @@
+package com.tracking.tracking_api.repository;
+
+import com.tracking.tracking_api.entity.SequenceBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SequenceBlockRepository extends JpaRepository<SequenceBlock, String> {
+    
+    /**
+     * Atomically move the counter forward by a block, the row stays locked until commit
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SequenceBlock s SET s.nextValue = s.nextValue + :blockSize WHERE s.name = :name")
+    int advance(@Param("name") String name, @Param("blockSize") long blockSize);
+}
@@ -1,11 +1,16 @@
 package com.tracking.tracking_api.repository;
 
 import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.packed.PackedTrackingNumber;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,11 +22,92 @@ public interface TrackingNumberRepository extends JpaRepository<TrackingNumber,
      */
     boolean existsByTrackingNumber(String trackingNumber);
     
+    /**
+     * Return which of the given tracking numbers are already taken, in one query
+     */
+    @Query("SELECT t.trackingNumber FROM TrackingNumber t WHERE t.trackingNumber IN :trackingNumbers")
+    List<String> findExistingTrackingNumbers(@Param("trackingNumbers") Collection<String> trackingNumbers);
+    
+    /**
+     * Check if a tracking number exists in the given order month, touching only that partition
+     */
+    @Query("SELECT COUNT(t) > 0 FROM TrackingNumber t WHERE t.orderMonth = :orderMonth AND t.trackingNumber = :trackingNumber")
+    boolean existsInOrderMonth(@Param("trackingNumber") String trackingNumber, @Param("orderMonth") LocalDate orderMonth);
+    
+    /**
+     * Return which of the given tracking numbers are taken in the given order month
+     */
+    @Query("SELECT t.trackingNumber FROM TrackingNumber t WHERE t.orderMonth = :orderMonth AND t.trackingNumber IN :trackingNumbers")
+    List<String> findExistingInOrderMonth(@Param("trackingNumbers") Collection<String> trackingNumbers,
+                                          @Param("orderMonth") LocalDate orderMonth);
+    
+    /**
+     * Find a tracking number within the given order months
+     */
+    @Query("SELECT t FROM TrackingNumber t WHERE t.orderMonth IN :orderMonths AND t.trackingNumber = :trackingNumber")
+    List<TrackingNumber> findInOrderMonths(@Param("trackingNumber") String trackingNumber,
+                                               @Param("orderMonths") Collection<LocalDate> orderMonths);
+    
+    /**
+     * Check if a packed tracking number exists
+     */
+    @Query("SELECT COUNT(t) > 0 FROM TrackingNumber t WHERE t.trackingNumberHigh = :high AND t.trackingNumberLow = :low")
+    boolean existsPacked(@Param("high") long high, @Param("low") long low);
+    
+    /**
+     * Check if a packed tracking number exists in the given order month
+     */
+    @Query("SELECT COUNT(t) > 0 FROM TrackingNumber t WHERE t.orderMonth = :orderMonth "
+            + "AND t.trackingNumberHigh = :high AND t.trackingNumberLow = :low")
+    boolean existsPackedInOrderMonth(@Param("high") long high, @Param("low") long low, @Param("orderMonth") LocalDate orderMonth);
+    
+    /**
+     * Packed numbers matching any of the high and any of the low words, a superset of the pairs asked for
+     */
+    @Query("SELECT new com.tracking.tracking_api.packed.PackedTrackingNumber(t.trackingNumberHigh, t.trackingNumberLow) "
+            + "FROM TrackingNumber t WHERE t.trackingNumberHigh IN :highs AND t.trackingNumberLow IN :lows")
+    List<PackedTrackingNumber> findExistingPacked(@Param("highs") Collection<Long> highs, @Param("lows") Collection<Long> lows);
+    
+    /**
+     * Same as {@link #findExistingPacked} within the given order month
+     */
+    @Query("SELECT new com.tracking.tracking_api.packed.PackedTrackingNumber(t.trackingNumberHigh, t.trackingNumberLow) "
+            + "FROM TrackingNumber t WHERE t.orderMonth = :orderMonth "
+            + "AND t.trackingNumberHigh IN :highs AND t.trackingNumberLow IN :lows")
+    List<PackedTrackingNumber> findExistingPackedInOrderMonth(@Param("highs") Collection<Long> highs,
+                                                              @Param("lows") Collection<Long> lows,
+                                                              @Param("orderMonth") LocalDate orderMonth);
+    
+    /**
+     * Find a packed tracking number within the given order months
+     */
+    @Query("SELECT t FROM TrackingNumber t WHERE t.orderMonth IN :orderMonths "
+            + "AND t.trackingNumberHigh = :high AND t.trackingNumberLow = :low")
+    List<TrackingNumber> findPackedInOrderMonths(@Param("high") long high, @Param("low") long low,
+                                                 @Param("orderMonths") Collection<LocalDate> orderMonths);
+    
+    /**
+     * Find a tracking number by its packed value
+     */
+    @Query("SELECT t FROM TrackingNumber t WHERE t.trackingNumberHigh = :high AND t.trackingNumberLow = :low")
+    Optional<TrackingNumber> findPacked(@Param("high") long high, @Param("low") long low);
+    
+    /**
+     * Page through tracking numbers in id order, starting after the given id
+     */
+    @Query("SELECT t.id AS id, t.trackingNumber AS trackingNumber FROM TrackingNumber t WHERE t.id > :afterId ORDER BY t.id")
+    List<TrackingNumberKey> findKeysAfter(@Param("afterId") long afterId, Limit limit);
+    
     /**
      * Find tracking number by its value
      */
     Optional<TrackingNumber> findByTrackingNumber(String trackingNumber);
     
+    /**
+     * Find the tracking number issued for an idempotency key
+     */
+    Optional<TrackingNumber> findByIdempotencyKey(String idempotencyKey);
+    
     /**
      * Get count of tracking numbers for a specific customer
      */
@@ -32,4 +118,14 @@ public interface TrackingNumberRepository extends JpaRepository<TrackingNumber,
      */
     @Query("SELECT t FROM TrackingNumber t WHERE t.customerId = :customerId ORDER BY t.createdAt DESC LIMIT 1")
     Optional<TrackingNumber> findLatestByCustomerId(@Param("customerId") UUID customerId);
+    
+    /**
+     * Id and value of a tracking number, without loading the entity
+     */
+    interface TrackingNumberKey {
+        
+        Long getId();
+        
+        String getTrackingNumber();
+    }
 } 
\ No newline at end of file
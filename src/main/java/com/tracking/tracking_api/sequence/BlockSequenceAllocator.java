@@ -0,0 +1,226 @@
+package com.tracking.tracking_api.sequence;
+
+import com.tracking.tracking_api.entity.SequenceBlock;
+import com.tracking.tracking_api.repository.SequenceBlockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hi/lo allocator leasing blocks of ids from the {@code sequence_blocks} table.
+ * <p>
+ * A lease is a single {@code UPDATE ... SET next_value = next_value + blockSize} in its own
+ * transaction, so replicas sharing the table never receive overlapping blocks and a restart
+ * simply leases a fresh block. Ids are served from memory until the block runs out; once fewer
+ * than {@code lowWatermark} values remain the next block is leased in the background.
+ * <p>
+ * A lease needs a connection of its own, so callers take values before they hold one; otherwise
+ * requests waiting for the lease could hold every connection of the pool. Waiting threads block on
+ * a {@link ReentrantLock} rather than a monitor, so virtual threads unmount while a lease runs.
+ */
+@Slf4j
+public class BlockSequenceAllocator implements SequenceAllocator, DisposableBean {
+
+    private final SequenceBlockRepository sequenceBlockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String name;
+    private final int blockSize;
+    private final int lowWatermark;
+
+    private final Timer leaseTimer;
+    private final Counter stallCounter;
+    private final Counter wastedCounter;
+    private final ExecutorService prefetchExecutor;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Block current = new Block(0, 0);
+    private CompletableFuture<Block> prefetch;
+
+    public BlockSequenceAllocator(SequenceBlockRepository sequenceBlockRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  String name, int blockSize, int lowWatermark) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive, was " + blockSize);
+        }
+        this.sequenceBlockRepository = sequenceBlockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Leases must commit on their own, a rolled back request must not hand its block out again
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.name = name;
+        this.blockSize = blockSize;
+        this.lowWatermark = lowWatermark;
+
+        this.leaseTimer = Timer.builder("tracking.sequence.lease")
+                .description("Time taken to lease a block of sequence values")
+                .tag("sequence", name)
+                .register(meterRegistry);
+        this.stallCounter = Counter.builder("tracking.sequence.lease.stalls")
+                .description("Requests that had to wait for a block lease")
+                .tag("sequence", name)
+                .register(meterRegistry);
+        this.wastedCounter = Counter.builder("tracking.sequence.wasted")
+                .description("Leased sequence values left unused on shutdown")
+                .tag("sequence", name)
+                .register(meterRegistry);
+        Gauge.builder("tracking.sequence.block.remaining", this, BlockSequenceAllocator::remaining)
+                .description("Values left in the current block")
+                .tag("sequence", name)
+                .register(meterRegistry);
+
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Sequence-prefetch-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public long next() {
+        while (true) {
+            Block block = current;
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                if (block.end - value <= lowWatermark && block.prefetchRequested.compareAndSet(false, true)) {
+                    startPrefetch();
+                }
+                return value;
+            }
+            advance(block);
+        }
+    }
+
+    private void startPrefetch() {
+        lock.lock();
+        try {
+            if (prefetch == null) {
+                prefetch = CompletableFuture.supplyAsync(this::lease, prefetchExecutor);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance(Block exhausted) {
+        lock.lock();
+        try {
+            if (current != exhausted) {
+                return;
+            }
+
+            Block nextBlock = null;
+            if (prefetch != null) {
+                if (!prefetch.isDone()) {
+                    stallCounter.increment();
+                }
+                try {
+                    nextBlock = prefetch.join();
+                } catch (CompletionException e) {
+                    log.warn("Background lease of sequence '{}' failed, retrying inline", name, e.getCause());
+                }
+                prefetch = null;
+            } else {
+                stallCounter.increment();
+            }
+
+            current = nextBlock != null ? nextBlock : lease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Block lease() {
+        long started = System.nanoTime();
+        try {
+            Long end = advanceCounter();
+            if (end == null) {
+                createCounter();
+                end = advanceCounter();
+            }
+            if (end == null || end - 1 > MAX_ID) {
+                throw new IllegalStateException("Unable to lease a block from sequence '" + name + "'");
+            }
+
+            log.debug("Leased block [{}, {}) from sequence '{}'", end - blockSize, end, name);
+            return new Block(end - blockSize, end);
+        } finally {
+            leaseTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Move the shared counter forward by one block and return its new value, or null if the row is missing
+     */
+    private Long advanceCounter() {
+        return transactionTemplate.execute(status -> {
+            if (sequenceBlockRepository.advance(name, blockSize) == 0) {
+                return null;
+            }
+            return sequenceBlockRepository.findById(name)
+                    .map(SequenceBlock::getNextValue)
+                    .orElse(null);
+        });
+    }
+
+    private void createCounter() {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    sequenceBlockRepository.saveAndFlush(new SequenceBlock(name, 0L)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the row first
+            log.debug("Sequence '{}' already initialised", name);
+        }
+    }
+
+    private long remaining() {
+        Block block = current;
+        return Math.max(0, block.end - block.next.get());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        prefetchExecutor.shutdown();
+        prefetchExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+        long wasted;
+        lock.lock();
+        try {
+            wasted = remaining();
+            if (prefetch != null && prefetch.isDone() && !prefetch.isCompletedExceptionally()) {
+                wasted += blockSize;
+            }
+        } finally {
+            lock.unlock();
+        }
+        wastedCounter.increment(wasted);
+        log.info("Released sequence '{}', {} leased values left unused", name, wasted);
+    }
+
+    private static final class Block {
+
+        private final long end;
+        private final AtomicLong next;
+        private final AtomicBoolean prefetchRequested = new AtomicBoolean();
+
+        private Block(long start, long end) {
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
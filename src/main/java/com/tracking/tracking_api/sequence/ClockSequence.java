@@ -0,0 +1,63 @@
+package com.tracking.tracking_api.sequence;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic per-node id source combining a node id, seconds since a fixed epoch and a
+ * per-second sequence.
+ * <p>
+ * Layout (51 bits): {@code node(8) | seconds(30) | sequence(13)}. When more than 8192 ids are
+ * requested within one second the sequence borrows from the next second instead of blocking,
+ * so ids stay strictly increasing and the clock catches up once the burst is over.
+ * <p>
+ * Ids only survive a restart if the clock has moved past the last issued id by then; use
+ * {@link BlockSequenceAllocator} when that cannot be guaranteed.
+ */
+public class ClockSequence implements SequenceAllocator {
+
+    static final int NODE_BITS = 8;
+    static final int SEQUENCE_BITS = 13;
+    static final int TIME_BITS = 30;
+
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    /**
+     * 2025-01-01T00:00:00Z, gives 34 years of ids
+     */
+    static final long EPOCH_SECOND = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+
+    private static final long TIME_SEQUENCE_LIMIT = 1L << (TIME_BITS + SEQUENCE_BITS);
+
+    private final long nodePrefix;
+    private final Clock clock;
+    private final AtomicLong last = new AtomicLong(-1);
+
+    public ClockSequence(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodePrefix = (long) nodeId << (TIME_BITS + SEQUENCE_BITS);
+        this.clock = clock;
+    }
+
+    /**
+     * Next id, strictly greater than every id previously returned by this instance
+     */
+    @Override
+    public long next() {
+        long now = (clock.instant().getEpochSecond() - EPOCH_SECOND) << SEQUENCE_BITS;
+        long prev;
+        long candidate;
+        do {
+            prev = last.get();
+            candidate = Math.max(prev + 1, now);
+        } while (!last.compareAndSet(prev, candidate));
+
+        if (candidate < 0 || candidate >= TIME_SEQUENCE_LIMIT) {
+            throw new IllegalStateException("Clock sequence out of range, check the system clock");
+        }
+        return nodePrefix | candidate;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tracking.tracking_api.sequence;
+
+/**
+ * Source of unique, non-negative ids for sequential tracking numbers
+ */
+public interface SequenceAllocator {
+
+    /**
+     * Largest id that still fits the 10-character base-36 id of a sequential tracking number
+     */
+    long MAX_ID = 3_656_158_440_062_975L;
+
+    /**
+     * Next id, never returned before by this allocator or any other allocator sharing its source
+     */
+    long next();
+}
@@ -0,0 +1,90 @@
+package com.tracking.tracking_api.service;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.exception.ServiceOverloadedException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how many requests run database work at once.
+ * <p>
+ * In virtual thread mode there is no executor queue to limit concurrency, so the connection pool
+ * size becomes the limit: callers wait in FIFO order for a permit and are refused with 503 once
+ * {@code tracking.execution.permit-timeout} has passed. In platform mode no limit is applied.
+ */
+@Component
+@Slf4j
+public class DatabaseConcurrencyLimiter {
+    
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    
+    public DatabaseConcurrencyLimiter(TrackingProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        TrackingProperties.Execution execution = properties.getExecution();
+        this.timeoutNanos = execution.getPermitTimeout().toNanos();
+        
+        if (execution.getMode() == TrackingProperties.ExecutionMode.VIRTUAL) {
+            int limit = poolSize(dataSource);
+            this.permits = new Semaphore(limit, true);
+            log.info("Limiting database work to {} concurrent requests", limit);
+            
+            Gauge.builder("tracking.db.permits.available", permits, Semaphore::availablePermits)
+                    .description("Database permits not currently in use")
+                    .register(meterRegistry);
+            Gauge.builder("tracking.db.permits.waiting", permits, Semaphore::getQueueLength)
+                    .description("Requests waiting for a database permit")
+                    .register(meterRegistry);
+        } else {
+            this.permits = null;
+        }
+    }
+    
+    /**
+     * Run database work once a permit is available
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (permits == null) {
+            return work.get();
+        }
+        
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ServiceOverloadedException("All database connections are busy", 1);
+        }
+        
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Maximum size of the Hikari connection pool, 10 if the data source is not Hikari
+     */
+    public static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Unable to read connection pool size", e);
+        }
+        return 10;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tracking.tracking_api.service;
+
+import com.tracking.tracking_api.dto.IssueStatsResponse;
+import com.tracking.tracking_api.entity.IssueRollup;
+import com.tracking.tracking_api.repository.IssueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tracking.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class IssueStatsService {
+    
+    private final IssueRollupRepository rollupRepository;
+    
+    /**
+     * The customer's rollups for order months {@code from} to {@code to}, with their total
+     */
+    public IssueStatsResponse getIssueStats(UUID customerId, YearMonth from, YearMonth to) {
+        List<IssueStatsResponse.LaneMonth> lanes = rollupRepository.findByCustomer(customerId, from.atDay(1), to.atDay(1)).stream()
+                .map(IssueStatsService::toLaneMonth)
+                .toList();
+        return IssueStatsResponse.builder()
+                .customerId(customerId)
+                .from(from)
+                .to(to)
+                .total(lanes.stream().mapToLong(IssueStatsResponse.LaneMonth::getIssued).sum())
+                .lanes(lanes)
+                .build();
+    }
+    
+    private static IssueStatsResponse.LaneMonth toLaneMonth(IssueRollup rollup) {
+        return new IssueStatsResponse.LaneMonth(
+                YearMonth.from(rollup.getKey().getOrderMonth()),
+                rollup.getKey().getOriginCountryId(),
+                rollup.getKey().getDestinationCountryId(),
+                rollup.getIssued());
+    }
+}
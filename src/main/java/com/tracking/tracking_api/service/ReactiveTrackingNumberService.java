@@ -0,0 +1,289 @@
+package com.tracking.tracking_api.service;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.existence.TrackingNumberExistenceFilter;
+import com.tracking.tracking_api.generator.TrackingNumberGenerator;
+import com.tracking.tracking_api.outbox.TrackingNumberOutbox;
+import com.tracking.tracking_api.packed.PackedTrackingNumber;
+import com.tracking.tracking_api.packed.TrackingNumberCodec;
+import com.tracking.tracking_api.stats.IssueStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Non-blocking counterpart of {@link TrackingNumberService} for the reactive stack.
+ * <p>
+ * Candidates come from the same {@link TrackingNumberGenerator}, and are checked and inserted
+ * through R2DBC, so no thread waits on the database: a request only holds a pooled R2DBC
+ * connection while its statements run. Each number is one autocommitted {@code INSERT}, retried
+ * with a new candidate when the unique index rejects it, as on the blocking path. In partitioned
+ * storage the number is also claimed in {@code issued_numbers}, and with the outbox enabled its
+ * event is appended, together with the row in one R2DBC transaction.
+ * <p>
+ * Ids are drawn from the sequence Hibernate uses, one sequence value per row. Hibernate treats each
+ * value it fetches as the top of a block of {@code allocationSize} ids, so a value taken here is
+ * never handed out by Hibernate as well. Numbers are packed here unless stored as strings only, as
+ * the entity listener does on the blocking stack. With the block sequence allocator, generating
+ * may lease a block over JDBC or wait for a lease in flight, so generation is moved off the event
+ * loop to the bounded elastic scheduler; other generators run on the event loop. Idempotency keys, the number pool and write-behind
+ * persistence are only available on the blocking stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveTrackingNumberService {
+
+    private static final int MAX_RETRY_ATTEMPTS = 10;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private static final String CLAIM_NUMBER_SQL = "INSERT INTO issued_numbers (tracking_number) VALUES (:trackingNumber)";
+
+    private static final String OUTBOX_INSERT_SQL = "INSERT INTO tracking_number_outbox"
+            + " (tracking_number, customer_id, customer_slug, origin_country_id, destination_country_id, created_at)"
+            + " VALUES (:trackingNumber, :customerId, :customerSlug, :originCountryId, :destinationCountryId, :createdAt)";
+
+    private final DatabaseClient databaseClient;
+    private final TrackingNumberGenerator trackingNumberGenerator;
+    private final TrackingNumberMetrics metrics;
+    private final Optional<TrackingNumberExistenceFilter> existenceFilter;
+    private final Optional<IssueStatistics> issueStatistics;
+    private final boolean outbox;
+    private final Optional<TransactionalOperator> transaction;
+    private final boolean partitioned;
+    private final boolean blockingGeneration;
+    private final TrackingProperties.NumberFormat numberFormat;
+    private final String existsSql;
+    private final String insertSql;
+
+    public ReactiveTrackingNumberService(DatabaseClient databaseClient,
+                                         TrackingNumberGenerator trackingNumberGenerator,
+                                         TrackingNumberMetrics metrics,
+                                         Optional<TrackingNumberExistenceFilter> existenceFilter,
+                                         Optional<IssueStatistics> issueStatistics,
+                                         Optional<TrackingNumberOutbox> outbox,
+                                         TrackingProperties properties) {
+        this.databaseClient = databaseClient;
+        this.trackingNumberGenerator = trackingNumberGenerator;
+        this.metrics = metrics;
+        this.existenceFilter = existenceFilter;
+        this.issueStatistics = issueStatistics;
+        this.outbox = outbox.isPresent();
+        this.blockingGeneration = properties.getGenerator().getMode() == TrackingProperties.GeneratorMode.SEQUENTIAL
+                && properties.getSequence().getAllocator() == TrackingProperties.SequenceAllocatorType.BLOCK;
+
+        // Partitioned storage only has to read the order month's partition
+        this.partitioned = properties.getStorage().getMode() == TrackingProperties.StorageMode.PARTITIONED;
+        this.transaction = this.outbox || partitioned
+                ? Optional.of(TransactionalOperator.create(new R2dbcTransactionManager(databaseClient.getConnectionFactory())))
+                : Optional.empty();
+        this.numberFormat = properties.getStorage().getNumberFormat();
+        this.existsSql = (numberFormat == TrackingProperties.NumberFormat.PACKED
+                ? "SELECT 1 FROM tracking_numbers WHERE tracking_number_hi = :high AND tracking_number_lo = :low"
+                : "SELECT 1 FROM tracking_numbers WHERE tracking_number = :trackingNumber")
+                + (partitioned ? " AND order_month = :orderMonth" : "");
+
+        boolean postgres = databaseClient.getConnectionFactory().getMetadata().getName().contains("PostgreSQL");
+        String nextId = postgres ? "nextval('tracking_numbers_seq')" : "NEXT VALUE FOR tracking_numbers_seq";
+        this.insertSql = "INSERT INTO tracking_numbers (id, tracking_number, tracking_number_hi, tracking_number_lo, origin_country_id, destination_country_id,"
+                + " weight, order_created_at, order_month, customer_id, customer_name, customer_slug, created_at, version)"
+                + " VALUES (" + nextId + ", :trackingNumber, :high, :low, :originCountryId, :destinationCountryId, :weight,"
+                + " :orderCreatedAt, :orderMonth, :customerId, :customerName, :customerSlug, :createdAt, 0)";
+    }
+
+    /**
+     * Generate a unique tracking number and insert it, completing once the row is committed
+     */
+    public Mono<TrackingNumberResponse> generateTrackingNumber(TrackingNumberRequest request) {
+        return insertWithRetry(request, 1)
+                .map(entity -> {
+                    issueStatistics.ifPresent(stats -> stats.record(entity));
+                    log.debug("Generated tracking number: {} for customer: {}", entity.getTrackingNumber(), request.getCustomerName());
+                    return toResponse(entity);
+                });
+    }
+
+    /**
+     * Start over with a new candidate when the number turns out to be taken at insert
+     */
+    private Mono<TrackingNumber> insertWithRetry(TrackingNumberRequest request, int attempt) {
+        return generateUniqueTrackingNumber(request)
+                .map(trackingNumber -> buildEntity(request, trackingNumber))
+                .flatMap(entity -> timed(insertIssued(entity), nanos -> metrics.recordSave(false, nanos))
+                        .doOnSuccess(ignored -> existenceFilter.ifPresent(filter -> filter.add(entity.getTrackingNumber())))
+                        .thenReturn(entity))
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    if (trackingNumberGenerator.isUniqueByConstruction() || attempt >= MAX_INSERT_ATTEMPTS) {
+                        return Mono.error(e);
+                    }
+                    metrics.recordInsertConflict();
+                    log.debug("Tracking number taken at insert, retrying (attempt {})", attempt, e);
+                    return insertWithRetry(request, attempt + 1);
+                });
+    }
+
+    private Mono<String> generateUniqueTrackingNumber(TrackingNumberRequest request) {
+        if (trackingNumberGenerator.isUniqueByConstruction()) {
+            // No lookup needed, the unique index on tracking_number is the only guard
+            Mono<String> generated = Mono.fromCallable(() -> generate(request));
+            return blockingGeneration ? generated.subscribeOn(Schedulers.boundedElastic()) : generated;
+        }
+        return findUnused(request, 1);
+    }
+
+    private Mono<String> findUnused(TrackingNumberRequest request, int attempt) {
+        return Mono.defer(() -> {
+            if (attempt > MAX_RETRY_ATTEMPTS) {
+                metrics.recordRetriesExhausted();
+                return Mono.error(new RuntimeException("Unable to generate unique tracking number after " + MAX_RETRY_ATTEMPTS + " attempts"));
+            }
+
+            String trackingNumber = generate(request);
+            return isTaken(trackingNumber, YearMonth.from(request.getCreatedAt()))
+                    .flatMap(taken -> {
+                        if (!taken) {
+                            return Mono.just(trackingNumber);
+                        }
+                        metrics.recordCollisions(attempt, 1);
+                        return findUnused(request, attempt + 1);
+                    });
+        });
+    }
+
+    private Mono<Boolean> isTaken(String trackingNumber, YearMonth orderMonth) {
+        if (existenceFilter.isPresent() && existenceFilter.get().candidatesToCheck(List.of(trackingNumber)).isEmpty()) {
+            return Mono.just(false);
+        }
+
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(existsSql);
+        if (numberFormat == TrackingProperties.NumberFormat.PACKED) {
+            PackedTrackingNumber packed = TrackingNumberCodec.encode(trackingNumber);
+            query = query.bind("high", packed.high()).bind("low", packed.low());
+        } else {
+            query = query.bind("trackingNumber", trackingNumber);
+        }
+        if (partitioned) {
+            query = query.bind("orderMonth", orderMonth.atDay(1));
+        }
+        Mono<Boolean> exists = query.fetch()
+                .first()
+                .hasElement();
+        return timed(exists, nanos -> metrics.recordCheck(false, nanos))
+                .doOnNext(taken -> existenceFilter.ifPresent(filter -> filter.recordChecked(1, taken ? 1 : 0)));
+    }
+
+    /**
+     * Insert the number, together with its global claim in partitioned storage and its outbox event
+     * when the outbox is enabled
+     */
+    private Mono<Long> insertIssued(TrackingNumber entity) {
+        if (transaction.isEmpty()) {
+            return insert(entity);
+        }
+        Mono<Long> inserted = insert(entity);
+        if (partitioned) {
+            inserted = inserted.flatMap(rows -> claimNumber(entity).thenReturn(rows));
+        }
+        if (outbox) {
+            inserted = inserted.flatMap(rows -> appendOutbox(entity).thenReturn(rows));
+        }
+        return inserted.as(transaction.get()::transactional);
+    }
+
+    private Mono<Long> claimNumber(TrackingNumber entity) {
+        return databaseClient.sql(CLAIM_NUMBER_SQL)
+                .bind("trackingNumber", entity.getTrackingNumber())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> appendOutbox(TrackingNumber entity) {
+        return databaseClient.sql(OUTBOX_INSERT_SQL)
+                .bind("trackingNumber", entity.getTrackingNumber())
+                .bind("customerId", entity.getCustomerId())
+                .bind("customerSlug", entity.getCustomerSlug())
+                .bind("originCountryId", entity.getOriginCountryId())
+                .bind("destinationCountryId", entity.getDestinationCountryId())
+                .bind("createdAt", entity.getCreatedAt())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> insert(TrackingNumber entity) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(insertSql)
+                .bind("trackingNumber", entity.getTrackingNumber());
+        if (numberFormat == TrackingProperties.NumberFormat.STRING) {
+            statement = statement.bindNull("high", Long.class).bindNull("low", Long.class);
+        } else {
+            PackedTrackingNumber packed = TrackingNumberCodec.encode(entity.getTrackingNumber());
+            statement = statement.bind("high", packed.high()).bind("low", packed.low());
+        }
+        return statement
+                .bind("originCountryId", entity.getOriginCountryId())
+                .bind("destinationCountryId", entity.getDestinationCountryId())
+                .bind("weight", entity.getWeight())
+                .bind("orderCreatedAt", entity.getOrderCreatedAt())
+                .bind("orderMonth", entity.getOrderMonth())
+                .bind("customerId", entity.getCustomerId())
+                .bind("customerName", entity.getCustomerName())
+                .bind("customerSlug", entity.getCustomerSlug())
+                .bind("createdAt", entity.getCreatedAt())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Time from subscription to completion, the database work of a reactive statement happens off the calling thread
+     */
+    private static <T> Mono<T> timed(Mono<T> operation, LongConsumer record) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return operation.doFinally(signal -> record.accept(System.nanoTime() - started));
+        });
+    }
+
+    private String generate(TrackingNumberRequest request) {
+        return metrics.timeGeneration(() -> trackingNumberGenerator.generate(request));
+    }
+
+    private TrackingNumber buildEntity(TrackingNumberRequest request, String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId(request.getOriginCountryId())
+                .destinationCountryId(request.getDestinationCountryId())
+                .weight(request.getWeight())
+                .orderCreatedAt(request.getCreatedAt())
+                .orderMonth(request.getCreatedAt().toLocalDate().withDayOfMonth(1))
+                .customerId(request.getCustomerId())
+                .customerName(request.getCustomerName())
+                .customerSlug(request.getCustomerSlug())
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+
+    private TrackingNumberResponse toResponse(TrackingNumber entity) {
+        return TrackingNumberResponse.builder()
+                .trackingNumber(entity.getTrackingNumber())
+                .createdAt(entity.getCreatedAt())
+                .originCountryId(entity.getOriginCountryId())
+                .destinationCountryId(entity.getDestinationCountryId())
+                .customerName(entity.getCustomerName())
+                .customerSlug(entity.getCustomerSlug())
+                .build();
+    }
+}
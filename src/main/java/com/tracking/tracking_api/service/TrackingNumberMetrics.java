@@ -0,0 +1,113 @@
+package com.tracking.tracking_api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the generation hot path: time spent generating candidates, checking them against the
+ * database and saving them, and how often candidates collide with existing numbers.
+ * <p>
+ * Collisions are counted per attempt number, so a rising count at attempt 2 and beyond warns that
+ * the random part is running out well before requests start failing with exhausted retries.
+ */
+@Component
+public class TrackingNumberMetrics {
+
+    /**
+     * Attempts beyond this share the last collision counter
+     */
+    static final int MAX_TAGGED_ATTEMPTS = 10;
+
+    private final Timer generationTimer;
+    private final Timer singleCheckTimer;
+    private final Timer batchCheckTimer;
+    private final Timer singleSaveTimer;
+    private final Timer batchSaveTimer;
+    private final Counter[] collisionCounters = new Counter[MAX_TAGGED_ATTEMPTS + 1];
+    private final Counter exhaustedCounter;
+    private final Counter insertConflictCounter;
+
+    public TrackingNumberMetrics(MeterRegistry meterRegistry) {
+        this.generationTimer = Timer.builder("tracking.generation")
+                .description("Time taken to generate one candidate tracking number")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(10))
+                .register(meterRegistry);
+        this.singleCheckTimer = checkTimer(meterRegistry, "single");
+        this.batchCheckTimer = checkTimer(meterRegistry, "batch");
+        this.singleSaveTimer = saveTimer(meterRegistry, "single");
+        this.batchSaveTimer = saveTimer(meterRegistry, "batch");
+        for (int attempt = 1; attempt <= MAX_TAGGED_ATTEMPTS; attempt++) {
+            collisionCounters[attempt] = Counter.builder("tracking.collisions")
+                    .description("Candidates that already existed, by attempt number")
+                    .tag("attempt", String.valueOf(attempt))
+                    .register(meterRegistry);
+        }
+        this.exhaustedCounter = Counter.builder("tracking.retries.exhausted")
+                .description("Requests that failed because every attempt collided")
+                .register(meterRegistry);
+        this.insertConflictCounter = Counter.builder("tracking.insert.conflicts")
+                .description("Inserts rejected by the unique index and retried with new numbers")
+                .register(meterRegistry);
+    }
+
+    public <T> T timeGeneration(Supplier<T> generation) {
+        return generationTimer.record(generation);
+    }
+
+    public <T> T timeCheck(boolean batch, Supplier<T> check) {
+        return (batch ? batchCheckTimer : singleCheckTimer).record(check);
+    }
+
+    public <T> T timeSave(boolean batch, Supplier<T> save) {
+        return (batch ? batchSaveTimer : singleSaveTimer).record(save);
+    }
+
+    /**
+     * Record a check that was not run on the calling thread, as on the reactive path
+     */
+    public void recordCheck(boolean batch, long nanos) {
+        (batch ? batchCheckTimer : singleCheckTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSave(boolean batch, long nanos) {
+        (batch ? batchSaveTimer : singleSaveTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCollisions(int attempt, int collisions) {
+        if (collisions > 0) {
+            collisionCounters[Math.min(attempt, MAX_TAGGED_ATTEMPTS)].increment(collisions);
+        }
+    }
+
+    public void recordRetriesExhausted() {
+        exhaustedCounter.increment();
+    }
+
+    public void recordInsertConflict() {
+        insertConflictCounter.increment();
+    }
+
+    private static Timer checkTimer(MeterRegistry meterRegistry, String path) {
+        return Timer.builder("tracking.uniqueness.check")
+                .description("Time taken to check candidates against existing tracking numbers")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer saveTimer(MeterRegistry meterRegistry, String path) {
+        return Timer.builder("tracking.save")
+                .description("Time taken to insert tracking numbers, including the flush")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
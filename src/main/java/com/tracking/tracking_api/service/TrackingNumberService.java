@@ -1,20 +1,37 @@
 package com.tracking.tracking_api.service;
 
+import com.tracking.tracking_api.cache.TrackingNumberCache;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberDetails;
 import com.tracking.tracking_api.dto.TrackingNumberRequest;
 import com.tracking.tracking_api.dto.TrackingNumberResponse;
 import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.existence.TrackingNumberExistenceFilter;
+import com.tracking.tracking_api.generator.TrackingNumberGenerator;
+import com.tracking.tracking_api.idempotency.IdempotencyCache;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.persistence.WriteBehindWriter;
+import com.tracking.tracking_api.pool.TrackingNumberPool;
 import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -22,119 +39,341 @@ import java.util.concurrent.atomic.AtomicLong;
 public class TrackingNumberService {
     
     private final TrackingNumberRepository trackingNumberRepository;
-    private final SecureRandom secureRandom = new SecureRandom();
-    private final AtomicLong sequenceCounter = new AtomicLong(0);
+    private final TrackingNumberLookup trackingNumberLookup;
+    private final TrackingNumberGenerator trackingNumberGenerator;
+    private final EntityManager entityManager;
+    private final TrackingProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<WriteBehindWriter> writeBehindWriter;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final TrackingNumberMetrics metrics;
+    private final Optional<TrackingNumberExistenceFilter> existenceFilter;
+    private final Optional<IdempotencyCache> idempotencyCache;
+    private final Optional<TrackingNumberPool> numberPool;
+    private final TrackingNumberCache trackingNumberCache;
     
-    private static final String ALPHANUMERIC_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int MAX_RETRY_ATTEMPTS = 10;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
     
     /**
      * Generate a unique tracking number asynchronously
      */
     @Async
-    @Transactional
     public CompletableFuture<TrackingNumberResponse> generateTrackingNumberAsync(TrackingNumberRequest request) {
-        return CompletableFuture.completedFuture(generateTrackingNumber(request));
+        return generateTrackingNumberAsync(request, null);
     }
     
     /**
-     * Generate a unique tracking number synchronously
+     * Generate a unique tracking number asynchronously, idempotent when a key is given
+     */
+    @Async
+    public CompletableFuture<TrackingNumberResponse> generateTrackingNumberAsync(TrackingNumberRequest request, String idempotencyKey) {
+        return CompletableFuture.completedFuture(generateTrackingNumber(request, idempotencyKey));
+    }
+    
+    /**
+     * Generate a unique tracking number synchronously.
+     * In write-behind mode the number is returned as soon as it is queued for insertion,
+     * otherwise it is inserted in its own transaction before returning.
      */
-    @Transactional
     public TrackingNumberResponse generateTrackingNumber(TrackingNumberRequest request) {
-        log.info("Generating tracking number for customer: {}", request.getCustomerName());
+        return generateTrackingNumber(request, null);
+    }
+    
+    /**
+     * Generate a unique tracking number, or return the one already issued for the same idempotency key.
+     * The key is taken from the Idempotency-Key header or, when enabled, derived from the order.
+     * Keyed numbers are always inserted before returning, also in write-behind mode.
+     */
+    public TrackingNumberResponse generateTrackingNumber(TrackingNumberRequest request, String idempotencyKey) {
+        log.debug("Generating tracking number for customer: {}", request.getCustomerName());
         
-        String trackingNumber = generateUniqueTrackingNumber(request);
+        Optional<String> key = idempotencyCache.flatMap(cache -> cache.resolveKey(request, idempotencyKey));
+        if (key.isEmpty()) {
+            return issue(request, null);
+        }
+        return idempotencyCache.get().getOrIssue(key.get(), () -> findOrIssue(request, key.get()));
+    }
+    
+    /**
+     * The stored details of an issued tracking number, served from memory for recently issued numbers
+     */
+    public Optional<TrackingNumberDetails> findTrackingNumber(String trackingNumber) {
+        return trackingNumberCache.find(trackingNumber);
+    }
+    
+    /**
+     * Answer a key that is not cached from the database, issuing a new number only if it was never used
+     */
+    private TrackingNumberResponse findOrIssue(TrackingNumberRequest request, String idempotencyKey) {
+        try {
+            return issue(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Issued concurrently by another instance
+            return trackingNumberRepository.findByIdempotencyKey(idempotencyKey)
+                    .map(this::toResponse)
+                    .orElseThrow(() -> e);
+        }
+    }
+    
+    private TrackingNumberResponse issue(TrackingNumberRequest request, String idempotencyKey) {
+        // Keyed numbers are inserted before answering even in write-behind mode, so the unique key
+        // index sees a repeat on another instance instead of the writer dropping its row later
+        if (writeBehindWriter.isPresent() && idempotencyKey == null) {
+            TrackingNumber entity = buildEntity(request, generate(request));
+            // Not cached: the row only exists once the writer has inserted it, lookups read it from then on
+            writeBehindWriter.get().submit(entity);
+            
+            log.debug("Queued tracking number: {} for customer: {}", entity.getTrackingNumber(), request.getCustomerName());
+            
+            return toResponse(entity);
+        }
         
-        TrackingNumber entity = TrackingNumber.builder()
-                .trackingNumber(trackingNumber)
-                .originCountryId(request.getOriginCountryId())
-                .destinationCountryId(request.getDestinationCountryId())
-                .weight(request.getWeight())
-                .orderCreatedAt(request.getCreatedAt())
-                .customerId(request.getCustomerId())
-                .customerName(request.getCustomerName())
-                .customerSlug(request.getCustomerSlug())
-                .createdAt(OffsetDateTime.now())
-                .build();
+        TrackingNumber saved = databaseConcurrencyLimiter.execute(() -> withRetry(() -> {
+            if (idempotencyKey != null) {
+                Optional<TrackingNumber> existing = trackingNumberRepository.findByIdempotencyKey(idempotencyKey);
+                if (existing.isPresent()) {
+                    return existing.get();
+                }
+            }
+            
+            // Taken only once the key is known to be new, so repeats do not use up sequence values
+            String preassigned = preassign(request);
+            return transactionTemplate.execute(status -> {
+                String trackingNumber = preassigned != null ? preassigned : generateUniqueTrackingNumber(request);
+                
+                TrackingNumber entity = buildEntity(request, trackingNumber);
+                entity.setIdempotencyKey(idempotencyKey);
+                TrackingNumber savedEntity = metrics.timeSave(false, () -> trackingNumberRepository.saveAndFlush(entity));
+                existenceFilter.ifPresent(filter -> filter.add(trackingNumber));
+                
+                log.debug("Generated tracking number: {} for customer: {}", trackingNumber, request.getCustomerName());
+                
+                return savedEntity;
+            });
+        }));
+        // Cached only once committed, so lookups never see a rolled back number
+        trackingNumberCache.put(saved);
+        return toResponse(saved);
+    }
+    
+    /**
+     * Generate unique tracking numbers for a whole manifest in one transaction.
+     * Inserts are flushed in chunks so Hibernate sends them as JDBC batches,
+     * responses are returned in request order.
+     */
+    public List<TrackingNumberResponse> generateTrackingNumbers(List<TrackingNumberRequest> requests) {
+        log.debug("Generating {} tracking numbers in batch", requests.size());
         
-        TrackingNumber savedEntity = trackingNumberRepository.save(entity);
+        List<String> preassigned = trackingNumberGenerator.isUniqueByConstruction()
+                ? requests.stream().map(this::generate).toList()
+                : null;
+        List<TrackingNumber> saved = databaseConcurrencyLimiter.execute(() -> inTransactionWithRetry(() -> insertBatch(requests, preassigned)));
+        List<TrackingNumberResponse> responses = new ArrayList<>(saved.size());
+        for (TrackingNumber entity : saved) {
+            trackingNumberCache.put(entity);
+            responses.add(toResponse(entity));
+        }
+        return responses;
+    }
+    
+    /**
+     * Run the insert in its own transaction, starting over with new candidates when a number
+     * turns out to be taken after all: inserted concurrently, or by another instance after
+     * the existence filter ruled it out
+     */
+    private <T> T inTransactionWithRetry(Supplier<T> insert) {
+        return withRetry(() -> transactionTemplate.execute(status -> insert.get()));
+    }
+    
+    /**
+     * Run an attempt that inserts in a transaction of its own, starting over as
+     * {@link #inTransactionWithRetry} does
+     */
+    private <T> T withRetry(Supplier<T> attempt) {
+        for (int attempts = 1; ; attempts++) {
+            try {
+                return attempt.get();
+            } catch (DataIntegrityViolationException e) {
+                if (trackingNumberGenerator.isUniqueByConstruction() || attempts >= MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                metrics.recordInsertConflict();
+                log.debug("Tracking number taken at insert, retrying (attempt {})", attempts, e);
+            }
+        }
+    }
+    
+    /**
+     * A number taken before a connection is held, when it is unique by
+     * construction and needs no lookup. Its sequence may have to lease a new block in a transaction
+     * of its own, which would otherwise wait for a second connection while holding the first.
+     */
+    private String preassign(TrackingNumberRequest request) {
+        return trackingNumberGenerator.isUniqueByConstruction() ? generate(request) : null;
+    }
+    
+    private List<TrackingNumber> insertBatch(List<TrackingNumberRequest> requests, List<String> preassigned) {
+        int chunkSize = properties.getBatch().getChunkSize();
+        List<TrackingNumber> saved = new ArrayList<>(requests.size());
         
-        log.info("Generated tracking number: {} for customer: {}", trackingNumber, request.getCustomerName());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<TrackingNumberRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            List<String> trackingNumbers = preassigned != null
+                    ? preassigned.subList(from, from + chunk.size())
+                    : generateUniqueTrackingNumbers(chunk);
+            
+            List<TrackingNumber> entities = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                entities.add(buildEntity(chunk.get(i), trackingNumbers.get(i)));
+            }
+            
+            metrics.timeSave(true, () -> {
+                trackingNumberRepository.saveAll(entities);
+                entityManager.flush();
+                return entities;
+            });
+            entityManager.clear();
+            existenceFilter.ifPresent(filter -> trackingNumbers.forEach(filter::add));
+            
+            saved.addAll(entities);
+        }
         
-        return TrackingNumberResponse.builder()
-                .trackingNumber(savedEntity.getTrackingNumber())
-                .createdAt(savedEntity.getCreatedAt())
-                .originCountryId(savedEntity.getOriginCountryId())
-                .destinationCountryId(savedEntity.getDestinationCountryId())
-                .customerName(savedEntity.getCustomerName())
-                .customerSlug(savedEntity.getCustomerSlug())
-                .build();
+        log.debug("Generated {} tracking numbers in batch", saved.size());
+        return saved;
     }
     
     /**
      * Generate a unique tracking number with creative algorithm
      */
     private String generateUniqueTrackingNumber(TrackingNumberRequest request) {
-        String trackingNumber;
-        int attempts = 0;
+        Optional<String> pooled = numberPool.flatMap(pool -> pool.take(request));
+        if (pooled.isPresent()) {
+            return pooled.get();
+        }
         
-        do {
-            trackingNumber = createTrackingNumber(request);
-            attempts++;
+        for (int attempt = 1; attempt <= MAX_RETRY_ATTEMPTS; attempt++) {
+            String trackingNumber = generate(request);
             
-            if (attempts > MAX_RETRY_ATTEMPTS) {
-                throw new RuntimeException("Unable to generate unique tracking number after " + MAX_RETRY_ATTEMPTS + " attempts");
+            if (!isTaken(trackingNumber, YearMonth.from(request.getCreatedAt()))) {
+                return trackingNumber;
             }
-        } while (trackingNumberRepository.existsByTrackingNumber(trackingNumber));
+            metrics.recordCollisions(attempt, 1);
+        }
         
-        return trackingNumber;
+        metrics.recordRetriesExhausted();
+        throw new RuntimeException("Unable to generate unique tracking number after " + MAX_RETRY_ATTEMPTS + " attempts");
     }
     
     /**
-     * Create a tracking number using creative algorithm incorporating request parameters
+     * Generate unique tracking numbers for a chunk of requests, checking all candidates
+     * of a round with a single IN query instead of one lookup per number
      */
-    private String createTrackingNumber(TrackingNumberRequest request) {
-        StringBuilder sb = new StringBuilder();
+    private List<String> generateUniqueTrackingNumbers(List<TrackingNumberRequest> requests) {
+        String[] trackingNumbers = new String[requests.size()];
         
-        // Prefix: First 2 letters from origin country
-        sb.append(request.getOriginCountryId().substring(0, 2));
-        
-        // Middle: Weight-based encoding (last 3 digits of weight * 1000)
-        BigDecimal weightValue = request.getWeight().multiply(BigDecimal.valueOf(1000));
-        String weightCode = String.format("%03d", weightValue.remainder(BigDecimal.valueOf(1000)).intValue());
-        sb.append(weightCode);
-        
-        // Customer identifier: First 2 letters of customer slug (uppercase)
-        String customerCode = request.getCustomerSlug().substring(0, Math.min(2, request.getCustomerSlug().length())).toUpperCase();
-        sb.append(customerCode);
-        
-        // Timestamp component: Last 2 digits of year + month
-        String timestampCode = request.getCreatedAt().getYear() % 100 + 
-                              String.format("%02d", request.getCreatedAt().getMonthValue());
-        sb.append(timestampCode);
-        
-        // Random component: 2 random alphanumeric characters
-        for (int i = 0; i < 2; i++) {
-            sb.append(ALPHANUMERIC_CHARS.charAt(secureRandom.nextInt(ALPHANUMERIC_CHARS.length())));
+        Set<String> assigned = new HashSet<>();
+        List<Integer> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TrackingNumberRequest request = requests.get(i);
+            Optional<String> pooled = numberPool.flatMap(pool -> pool.take(request));
+            if (pooled.isPresent() && assigned.add(pooled.get())) {
+                trackingNumbers[i] = pooled.get();
+            } else {
+                pending.add(i);
+            }
         }
         
-        // Sequence number: Last 2 digits of atomic counter
-        String sequenceCode = String.format("%02d", sequenceCounter.incrementAndGet() % 100);
-        sb.append(sequenceCode);
-        
-        String result = sb.toString();
-        
-        // Ensure the result matches the regex pattern and is not longer than 16 characters
-        if (result.length() > 16) {
-            result = result.substring(0, 16);
+        int attempts = 0;
+        while (!pending.isEmpty()) {
+            attempts++;
+            if (attempts > MAX_RETRY_ATTEMPTS) {
+                metrics.recordRetriesExhausted();
+                throw new RuntimeException("Unable to generate unique tracking number after " + MAX_RETRY_ATTEMPTS + " attempts");
+            }
+            
+            Map<String, Integer> candidates = new HashMap<>();
+            List<Integer> retry = new ArrayList<>();
+            for (int index : pending) {
+                String candidate = generate(requests.get(index));
+                if (assigned.contains(candidate) || candidates.putIfAbsent(candidate, index) != null) {
+                    retry.add(index);
+                }
+            }
+            
+            Set<String> existing = findTaken(candidates, requests);
+            candidates.forEach((candidate, index) -> {
+                if (existing.contains(candidate)) {
+                    retry.add(index);
+                } else {
+                    trackingNumbers[index] = candidate;
+                    assigned.add(candidate);
+                }
+            });
+            metrics.recordCollisions(attempts, retry.size());
+            pending = retry;
         }
         
-        // Pad with random characters if shorter than 12
-        while (result.length() < 12) {
-            result += ALPHANUMERIC_CHARS.charAt(secureRandom.nextInt(ALPHANUMERIC_CHARS.length()));
+        return List.of(trackingNumbers);
+    }
+    
+    private boolean isTaken(String trackingNumber, YearMonth orderMonth) {
+        if (existenceFilter.isEmpty()) {
+            return metrics.timeCheck(false, () -> trackingNumberLookup.exists(trackingNumber, orderMonth));
         }
+        return existenceFilter.get().exists(trackingNumber, candidate ->
+                metrics.timeCheck(false, () -> trackingNumberLookup.exists(candidate, orderMonth)));
+    }
+    
+    /**
+     * Which candidates are taken, one query per order month so partitioned storage only reads those partitions
+     */
+    private Set<String> findTaken(Map<String, Integer> candidates, List<TrackingNumberRequest> requests) {
+        Map<YearMonth, List<String>> byOrderMonth = new HashMap<>();
+        candidates.forEach((candidate, index) -> byOrderMonth
+                .computeIfAbsent(YearMonth.from(requests.get(index).getCreatedAt()), month -> new ArrayList<>())
+                .add(candidate));
         
-        return result;
+        Set<String> existing = new HashSet<>();
+        byOrderMonth.forEach((orderMonth, monthCandidates) -> {
+            List<String> toCheck = existenceFilter.map(filter -> filter.candidatesToCheck(monthCandidates)).orElse(monthCandidates);
+            if (toCheck.isEmpty()) {
+                return;
+            }
+            
+            List<String> taken = metrics.timeCheck(true, () -> trackingNumberLookup.findExisting(toCheck, orderMonth));
+            existenceFilter.ifPresent(filter -> filter.recordChecked(toCheck.size(), taken.size()));
+            existing.addAll(taken);
+        });
+        return existing;
+    }
+    
+    private String generate(TrackingNumberRequest request) {
+        return metrics.timeGeneration(() -> trackingNumberGenerator.generate(request));
+    }
+    
+    private TrackingNumber buildEntity(TrackingNumberRequest request, String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId(request.getOriginCountryId())
+                .destinationCountryId(request.getDestinationCountryId())
+                .weight(request.getWeight())
+                .orderCreatedAt(request.getCreatedAt())
+                .customerId(request.getCustomerId())
+                .customerName(request.getCustomerName())
+                .customerSlug(request.getCustomerSlug())
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+    
+    private TrackingNumberResponse toResponse(TrackingNumber entity) {
+        return TrackingNumberResponse.builder()
+                .trackingNumber(entity.getTrackingNumber())
+                .createdAt(entity.getCreatedAt())
+                .originCountryId(entity.getOriginCountryId())
+                .destinationCountryId(entity.getDestinationCountryId())
+                .customerName(entity.getCustomerName())
+                .customerSlug(entity.getCustomerSlug())
+                .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.tracking.tracking_api.stats;
+
+import com.tracking.tracking_api.entity.TrackingNumber;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts inserted tracking numbers in {@link IssueStatistics} once their transaction commits.
+ * <p>
+ * Hooked into the entity rather than the service, so numbers inserted by the synchronous, batch and
+ * write-behind paths and by journal replay are all counted, each exactly once: inserts rolled back
+ * and retried are only counted by the attempt that commits. Created by Hibernate through Spring's
+ * bean container, so statistics being disabled leaves nothing to count into.
+ */
+public class IssueCountingListener {
+
+    private final ObjectProvider<IssueStatistics> statistics;
+
+    public IssueCountingListener(ObjectProvider<IssueStatistics> statistics) {
+        this.statistics = statistics;
+    }
+
+    @PostPersist
+    void onInsert(TrackingNumber entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            statistics.ifAvailable(stats -> stats.record(entity));
+            return;
+        }
+
+        // One synchronization per transaction, however many numbers it inserts
+        PendingCounts pending = (PendingCounts) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            IssueStatistics stats = statistics.getIfAvailable();
+            if (stats == null) {
+                return;
+            }
+            pending = new PendingCounts(stats);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.inserted.add(entity);
+    }
+
+    private final class PendingCounts implements TransactionSynchronization {
+
+        private final IssueStatistics stats;
+        private final List<TrackingNumber> inserted = new ArrayList<>();
+
+        private PendingCounts(IssueStatistics stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(IssueCountingListener.this);
+            if (status == STATUS_COMMITTED) {
+                inserted.forEach(stats::record);
+            }
+        }
+    }
+}
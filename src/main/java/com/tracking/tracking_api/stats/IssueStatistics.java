@@ -0,0 +1,251 @@
+package com.tracking.tracking_api.stats;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.IssueRollup;
+import com.tracking.tracking_api.entity.IssueRollupKey;
+import com.tracking.tracking_api.entity.RollupFlush;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.IssueRollupRepository;
+import com.tracking.tracking_api.repository.RollupFlushRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracking numbers issued per customer, lane and order month, counted in memory and flushed to
+ * {@code tracking_number_rollups} as deltas, so statistics never need a {@code COUNT} over
+ * {@code tracking_numbers}.
+ * <p>
+ * Every committed insert increments a {@link LongAdder}, which spreads concurrent increments over
+ * cells instead of contending on one value. Every {@code flushInterval} the counters are swapped
+ * for an empty map and their sums are added to the rollups in one transaction. The swapped-out map
+ * is drained once more on the next flush, for increments from threads that still held it.
+ * <p>
+ * Each flush carries an id (instance id and sequence number) recorded in the same transaction as
+ * its deltas. A flush that fails is retried with the same id and deltas. If the failed attempt did
+ * commit after all, the recorded id shows it and the retry adds nothing, so a delta is never added
+ * twice. Counts are never rebuilt from memory after a restart, and on shutdown a final flush writes
+ * what is left. Only counts of the last interval before a crash are lost.
+ * <p>
+ * Numbers stored before counting started are added once, by the first instance to start: it
+ * records a marker flush whose time is the cutoff and, in the same transaction, adds the numbers
+ * created before the cutoff grouped by customer, lane and month. Other instances wait for that
+ * transaction on the marker's key and then read the cutoff. Every instance only counts numbers
+ * created from the cutoff on, so none is counted by both. Inserts still in flight on other
+ * instances while the seed runs may be missed.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.stats.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class IssueStatistics implements SmartLifecycle {
+
+    private final IssueRollupRepository rollupRepository;
+    private final RollupFlushRepository flushRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingProperties.Stats settings;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong flushSequence = new AtomicLong();
+
+    private volatile OffsetDateTime seedCutoff;
+    private volatile Map<IssueRollupKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private Map<IssueRollupKey, LongAdder> swapped = Map.of();
+    private PendingFlush pending;
+
+    private final Timer flushTimer;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public IssueStatistics(IssueRollupRepository rollupRepository,
+                           RollupFlushRepository flushRepository,
+                           PlatformTransactionManager transactionManager,
+                           TrackingProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.rollupRepository = rollupRepository;
+        this.flushRepository = flushRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getStats();
+
+        Gauge.builder("tracking.stats.counters", this, statistics -> statistics.counters.size())
+                .description("Customer, lane and month counters changed since the last flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("tracking.stats.flush")
+                .description("Time taken to add counter deltas to the rollup table")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tracking.stats.flush.failures")
+                .description("Rollup flushes that failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count a tracking number whose insert has committed, unless the seed already counted it
+     */
+    public void record(TrackingNumber entity) {
+        OffsetDateTime cutoff = seedCutoff;
+        if (cutoff != null && entity.getCreatedAt() != null && entity.getCreatedAt().isBefore(cutoff)) {
+            return;
+        }
+        IssueRollupKey key = new IssueRollupKey(entity.getCustomerId(), entity.getOriginCountryId(),
+                entity.getDestinationCountryId(), entity.getOrderMonth());
+        Map<IssueRollupKey, LongAdder> current = counters;
+        LongAdder counter = current.get(key);
+        if (counter == null) {
+            counter = current.computeIfAbsent(key, ignored -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Add the counts since the last flush to the rollups, first retrying a flush that failed
+     */
+    public synchronized void flush() {
+        if (pending == null) {
+            Map<IssueRollupKey, Long> deltas = new HashMap<>();
+            Map<IssueRollupKey, LongAdder> previous = swapped;
+            swapped = counters;
+            counters = new ConcurrentHashMap<>();
+            drain(previous, deltas);
+            drain(swapped, deltas);
+            if (deltas.isEmpty()) {
+                return;
+            }
+            pending = new PendingFlush(instanceId + ":" + flushSequence.incrementAndGet(), deltas);
+        }
+
+        try {
+            flushTimer.record(() -> apply(pending));
+            pending = null;
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Unable to flush {} issue counters, retrying in {}", pending.deltas().size(), settings.getFlushInterval(), e);
+        }
+    }
+
+    /**
+     * Add the tracking numbers stored before counting started to the rollups, unless an instance already did
+     */
+    public void seed() {
+        try {
+            seedCutoff = transactionTemplate.execute(status -> seedOnce());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the marker first, its transaction has committed by now
+            seedCutoff = transactionTemplate.execute(status -> seedOnce());
+        }
+    }
+
+    @Override
+    public void start() {
+        seed();
+        running = true;
+        long interval = settings.getFlushInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Tracking-stats-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(settings.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Twice, so the map swapped out by the first flush is drained as well
+        flush();
+        flush();
+        if (pending != null) {
+            log.error("Issue counters of {} customer lanes could not be flushed and are lost", pending.deltas().size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after write-behind has drained its queue, so the final flush counts those inserts too
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1536;
+    }
+
+    private void apply(PendingFlush flush) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (flushRepository.existsById(flush.id())) {
+                // An earlier attempt committed although it reported a failure
+                return;
+            }
+            flush.deltas().forEach(this::add);
+            OffsetDateTime now = OffsetDateTime.now();
+            flushRepository.save(new RollupFlush(flush.id(), now));
+            flushRepository.deleteFlushedBefore(now.minus(settings.getFlushRetention()));
+        });
+    }
+
+    private OffsetDateTime seedOnce() {
+        Optional<RollupFlush> marker = flushRepository.findById(RollupFlush.SEED_ID);
+        if (marker.isPresent()) {
+            return marker.get().getFlushedAt();
+        }
+
+        // Inserted first, so an instance seeding concurrently blocks on the key instead of counting too
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        flushRepository.saveAndFlush(new RollupFlush(RollupFlush.SEED_ID, cutoff));
+        long seeded = 0;
+        for (IssueRollupRepository.IssuedCount count : rollupRepository.countIssuedBefore(cutoff)) {
+            add(new IssueRollupKey(count.getCustomerId(), count.getOriginCountryId(),
+                    count.getDestinationCountryId(), count.getOrderMonth()), count.getIssued());
+            seeded += count.getIssued();
+        }
+        log.info("Seeded issue rollups with {} tracking numbers created before {}", seeded, cutoff);
+        return cutoff;
+    }
+
+    private void add(IssueRollupKey key, long delta) {
+        if (rollupRepository.addIssued(key, delta) == 0) {
+            rollupRepository.save(new IssueRollup(key, delta));
+        }
+    }
+
+    private static void drain(Map<IssueRollupKey, LongAdder> source, Map<IssueRollupKey, Long> deltas) {
+        source.forEach((key, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                deltas.merge(key, delta, Long::sum);
+            }
+        });
+    }
+
+    private record PendingFlush(String id, Map<IssueRollupKey, Long> deltas) {
+    }
+}
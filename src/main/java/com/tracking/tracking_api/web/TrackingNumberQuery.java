@@ -0,0 +1,17 @@
+package com.tracking.tracking_api.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a {@link com.tracking.tracking_api.dto.TrackingNumberRequest} from the snake_case query
+ * parameters of the generation endpoints, validated by {@link TrackingNumberQueryResolver}
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TrackingNumberQuery {
+}
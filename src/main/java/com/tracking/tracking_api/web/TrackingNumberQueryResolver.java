@@ -0,0 +1,206 @@
+package com.tracking.tracking_api.web;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.exception.InvalidParametersException;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Builds the {@link TrackingNumberRequest} of a {@link TrackingNumberQuery} parameter in one pass
+ * over the query parameters.
+ * <p>
+ * Each parameter is parsed and checked against the same rules as the DTO's Jakarta constraints,
+ * with plain character and range checks instead of regular expressions and the reflective
+ * validator, and written straight into the request that is passed on to the service. All failures
+ * are collected and answered with 400 together, as for an invalid batch entry.
+ */
+public class TrackingNumberQueryResolver implements HandlerMethodArgumentResolver {
+
+    static final String ORIGIN_COUNTRY_ID = "origin_country_id";
+    static final String DESTINATION_COUNTRY_ID = "destination_country_id";
+    static final String WEIGHT = "weight";
+    static final String CREATED_AT = "created_at";
+    static final String CUSTOMER_ID = "customer_id";
+    static final String CUSTOMER_NAME = "customer_name";
+    static final String CUSTOMER_SLUG = "customer_slug";
+
+    private static final BigDecimal MIN_WEIGHT = new BigDecimal("0.001");
+    private static final BigDecimal MAX_WEIGHT = new BigDecimal("999999.999");
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int UUID_LENGTH = 36;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(TrackingNumberQuery.class)
+                && parameter.getParameterType() == TrackingNumberRequest.class;
+    }
+
+    @Override
+    public TrackingNumberRequest resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                 NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return bind(webRequest.getParameterMap());
+    }
+
+    /**
+     * Parse and validate the query parameters, throwing {@link InvalidParametersException} with every failure
+     */
+    static TrackingNumberRequest bind(Map<String, String[]> parameters) {
+        return bind(parameters, values -> values.length > 0 ? values[0] : null);
+    }
+
+    /**
+     * Same as {@link #bind(Map)}, for the query parameters of a WebFlux request
+     */
+    public static TrackingNumberRequest bind(MultiValueMap<String, String> parameters) {
+        return bind(parameters, values -> values.isEmpty() ? null : values.get(0));
+    }
+
+    private static <V> TrackingNumberRequest bind(Map<String, V> parameters, Function<V, String> firstValue) {
+        TrackingNumberRequest request = new TrackingNumberRequest();
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        for (Map.Entry<String, V> parameter : parameters.entrySet()) {
+            String value = firstValue.apply(parameter.getValue());
+            switch (parameter.getKey()) {
+                case ORIGIN_COUNTRY_ID -> request.setOriginCountryId(countryCode(value, ORIGIN_COUNTRY_ID,
+                        "Origin country ID must be a valid ISO 3166-1 alpha-2 country code", errors));
+                case DESTINATION_COUNTRY_ID -> request.setDestinationCountryId(countryCode(value, DESTINATION_COUNTRY_ID,
+                        "Destination country ID must be a valid ISO 3166-1 alpha-2 country code", errors));
+                case WEIGHT -> request.setWeight(weight(value, errors));
+                case CREATED_AT -> request.setCreatedAt(createdAt(value, errors));
+                case CUSTOMER_ID -> request.setCustomerId(customerId(value, errors));
+                case CUSTOMER_NAME -> request.setCustomerName(customerName(value, errors));
+                case CUSTOMER_SLUG -> request.setCustomerSlug(customerSlug(value, errors));
+                default -> {
+                    // Other parameters are ignored, as with @RequestParam binding
+                }
+            }
+        }
+
+        requirePresent(request.getOriginCountryId(), ORIGIN_COUNTRY_ID, errors);
+        requirePresent(request.getDestinationCountryId(), DESTINATION_COUNTRY_ID, errors);
+        requirePresent(request.getWeight(), WEIGHT, errors);
+        requirePresent(request.getCreatedAt(), CREATED_AT, errors);
+        requirePresent(request.getCustomerId(), CUSTOMER_ID, errors);
+        requirePresent(request.getCustomerName(), CUSTOMER_NAME, errors);
+        requirePresent(request.getCustomerSlug(), CUSTOMER_SLUG, errors);
+        if (!errors.isEmpty()) {
+            throw new InvalidParametersException(errors);
+        }
+        return request;
+    }
+
+    private static String countryCode(String value, String name, String message, Map<String, String> errors) {
+        if (!isCountryCode(value)) {
+            errors.put(name, message);
+            return null;
+        }
+        return value;
+    }
+
+    private static BigDecimal weight(String value, Map<String, String> errors) {
+        BigDecimal weight;
+        try {
+            weight = new BigDecimal(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            errors.put(WEIGHT, "Weight must be a decimal number");
+            return null;
+        }
+        if (weight.compareTo(MIN_WEIGHT) < 0) {
+            errors.put(WEIGHT, "Weight must be at least 0.001 kg");
+        } else if (weight.compareTo(MAX_WEIGHT) > 0) {
+            errors.put(WEIGHT, "Weight cannot exceed 999999.999 kg");
+        } else if (weight.scale() > 3 || weight.precision() - weight.scale() > 6) {
+            errors.put(WEIGHT, "Weight must have up to 6 digits before decimal and exactly 3 digits after");
+        } else {
+            return weight;
+        }
+        return null;
+    }
+
+    private static OffsetDateTime createdAt(String value, Map<String, String> errors) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException | NullPointerException e) {
+            errors.put(CREATED_AT, "Order creation timestamp must be an RFC 3339 timestamp with offset");
+            return null;
+        }
+    }
+
+    private static UUID customerId(String value, Map<String, String> errors) {
+        // UUID.fromString also accepts shortened groups, only the canonical 36-character form is valid here
+        if (value != null && value.length() == UUID_LENGTH) {
+            try {
+                return UUID.fromString(value);
+            } catch (IllegalArgumentException e) {
+                // Reported below
+            }
+        }
+        errors.put(CUSTOMER_ID, "Customer ID must be a UUID");
+        return null;
+    }
+
+    private static String customerName(String value, Map<String, String> errors) {
+        if (value == null || value.isBlank() || value.length() > MAX_TEXT_LENGTH) {
+            errors.put(CUSTOMER_NAME, "Customer name must be between 1 and 255 characters");
+            return null;
+        }
+        return value;
+    }
+
+    private static String customerSlug(String value, Map<String, String> errors) {
+        if (value == null || value.isEmpty() || value.length() > MAX_TEXT_LENGTH || !isKebabCase(value)) {
+            errors.put(CUSTOMER_SLUG, "Customer slug must be in kebab-case format");
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Same as ^[A-Z]{2}$
+     */
+    public static boolean isCountryCode(String value) {
+        return value != null && value.length() == 2 && isUpperLetter(value.charAt(0)) && isUpperLetter(value.charAt(1));
+    }
+
+    /**
+     * Same as ^[a-z0-9]+(?:-[a-z0-9]+)*$: lowercase letters and digits, single hyphens between them
+     */
+    public static boolean isKebabCase(String value) {
+        char previous = '-';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                if (previous == '-') {
+                    return false;
+                }
+            } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+            previous = c;
+        }
+        return previous != '-';
+    }
+
+    private static boolean isUpperLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static void requirePresent(Object value, String name, Map<String, String> errors) {
+        if (value == null) {
+            errors.putIfAbsent(name, "Parameter '" + name + "' is required");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tracking.tracking_api.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a single {@link TrackingNumberResponse} as JSON field by field, skipping the bean
+ * introspection and serializer lookups of the generic Jackson converter on the hottest endpoint.
+ * <p>
+ * The output is the same as Jackson's for the DTO: same field order, nulls included and
+ * {@code createdAt} in the DTO's {@code @JsonFormat} pattern. Lists of responses, as returned by
+ * the batch endpoint, are left to Jackson.
+ */
+public class TrackingNumberResponseConverter extends AbstractHttpMessageConverter<TrackingNumberResponse> {
+
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    private final JsonFactory jsonFactory;
+
+    public TrackingNumberResponseConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TrackingNumberResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TrackingNumberResponse readInternal(Class<? extends TrackingNumberResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Tracking number responses are only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TrackingNumberResponse response, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            write(response, generator);
+        }
+    }
+
+    static void write(TrackingNumberResponse response, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("trackingNumber", response.getTrackingNumber());
+        OffsetDateTime createdAt = response.getCreatedAt();
+        generator.writeStringField("createdAt", createdAt != null ? CREATED_AT_FORMAT.format(createdAt) : null);
+        generator.writeStringField("originCountryId", response.getOriginCountryId());
+        generator.writeStringField("destinationCountryId", response.getDestinationCountryId());
+        generator.writeStringField("customerName", response.getCustomerName());
+        generator.writeStringField("customerSlug", response.getCustomerSlug());
+        generator.writeEndObject();
+    }
+}
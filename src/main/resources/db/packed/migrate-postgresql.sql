@@ -0,0 +1,47 @@
+-- Migration of an existing PostgreSQL tracking_numbers table to packed tracking numbers
+-- (tracking.storage.number-format=packed). Run the steps in order, each one while the service is up.
+
+-- Step 1: add the packed columns, nullable so that existing rows stay valid. Adding a nullable
+-- column without a default only changes the catalog, it does not rewrite the table.
+ALTER TABLE tracking_numbers ADD COLUMN IF NOT EXISTS tracking_number_hi BIGINT;
+ALTER TABLE tracking_numbers ADD COLUMN IF NOT EXISTS tracking_number_lo BIGINT;
+
+-- Single table: build the unique index without blocking inserts (run outside a transaction).
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_tracking_number_packed
+    ON tracking_numbers (tracking_number_hi, tracking_number_lo);
+
+-- Partitioned storage: one unique index per existing partition, PartitionMaintenance adds them to
+-- partitions it creates from now on, plus the routed lookup index on the parent.
+-- CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS tracking_numbers_default_tracking_number_packed
+--     ON tracking_numbers_default (tracking_number_hi, tracking_number_lo);
+-- CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS tracking_numbers_p2025_01_tracking_number_packed
+--     ON tracking_numbers_p2025_01 (tracking_number_hi, tracking_number_lo);
+-- CREATE INDEX IF NOT EXISTS idx_tracking_number_packed
+--     ON tracking_numbers (order_month, tracking_number_hi, tracking_number_lo);
+
+-- Step 2: restart every replica with tracking.storage.number-format=dual. New rows are written with
+-- both forms and PackedNumberBackfill packs the existing ones in pages of
+-- tracking.storage.backfill-page-size. Wait until tracking_storage_backfill_complete is 1, or
+-- until this returns 0:
+SELECT COUNT(*) FROM tracking_numbers WHERE tracking_number_hi IS NULL;
+
+-- Step 3: restart with tracking.storage.number-format=packed, lookups now go through the packed
+-- index. The string is still stored and returned, but its unique indexes are no longer needed to
+-- find numbers or keep them unique, so drop them to save their space and the cost of maintaining
+-- them on insert. Single table only; partitioned storage keeps its per-partition string indexes.
+DROP INDEX CONCURRENTLY IF EXISTS idx_tracking_number;
+
+-- Tables created by earlier versions also carry a unique constraint on the column, named by Hibernate
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = 'tracking_numbers'::regclass AND c.contype = 'u'
+          AND a.attname = 'tracking_number' AND array_length(c.conkey, 1) = 1
+    LOOP
+        EXECUTE format('ALTER TABLE tracking_numbers DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
@@ -0,0 +1,99 @@
+-- Schema for tracking.storage.mode=partitioned on PostgreSQL 13+ (see application-partitioned.properties).
+-- tracking_numbers is range partitioned by order month; the monthly partitions and their unique
+-- indexes are created ahead of time by PartitionMaintenance.
+
+CREATE SEQUENCE IF NOT EXISTS tracking_numbers_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tracking_numbers (
+    id                     BIGINT                   NOT NULL,
+    tracking_number        VARCHAR(16)              NOT NULL,
+    -- Packed form of tracking_number, see TrackingNumberCodec and tracking.storage.number-format
+    tracking_number_hi     BIGINT,
+    tracking_number_lo     BIGINT,
+    origin_country_id      VARCHAR(2)               NOT NULL,
+    destination_country_id VARCHAR(2)               NOT NULL,
+    weight                 NUMERIC(10, 3)           NOT NULL,
+    order_created_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    order_month            DATE                     NOT NULL,
+    customer_id            UUID                     NOT NULL,
+    customer_name          VARCHAR(255)             NOT NULL,
+    customer_slug          VARCHAR(255)             NOT NULL,
+    idempotency_key        VARCHAR(200),
+    created_at             TIMESTAMP WITH TIME ZONE NOT NULL,
+    version                BIGINT,
+    -- Primary and unique keys of a partitioned table have to include the partition key, so they only
+    -- hold within a month; issued_numbers and idempotency_keys below keep numbers and keys unique overall
+    PRIMARY KEY (id, order_month)
+) PARTITION BY RANGE (order_month);
+
+-- Orders for months without a partition, e.g. backfilled years-old orders
+CREATE TABLE IF NOT EXISTS tracking_numbers_default PARTITION OF tracking_numbers DEFAULT;
+CREATE UNIQUE INDEX IF NOT EXISTS tracking_numbers_default_tracking_number ON tracking_numbers_default (tracking_number);
+CREATE UNIQUE INDEX IF NOT EXISTS tracking_numbers_default_idempotency_key ON tracking_numbers_default (idempotency_key);
+CREATE UNIQUE INDEX IF NOT EXISTS tracking_numbers_default_tracking_number_packed ON tracking_numbers_default (tracking_number_hi, tracking_number_lo);
+
+-- Lookups by number are routed to one partition, so (order_month, tracking_number) is enough to find them
+CREATE INDEX IF NOT EXISTS idx_tracking_number ON tracking_numbers (order_month, tracking_number);
+CREATE INDEX IF NOT EXISTS idx_tracking_number_packed ON tracking_numbers (order_month, tracking_number_hi, tracking_number_lo);
+CREATE INDEX IF NOT EXISTS idx_customer_id ON tracking_numbers (customer_id);
+CREATE INDEX IF NOT EXISTS idx_created_at ON tracking_numbers (created_at);
+-- Keyset pages of the customer export
+CREATE INDEX IF NOT EXISTS idx_customer_created_at ON tracking_numbers (customer_id, created_at, id);
+
+-- Global unique keys of tracking_numbers, claimed by GlobalUniqueKeys in the transaction of each insert.
+-- A number can be read as more than one order month, so per-partition indexes alone let it be stored twice.
+CREATE TABLE IF NOT EXISTS issued_numbers (
+    tracking_number VARCHAR(16) PRIMARY KEY
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(200) PRIMARY KEY,
+    tracking_number VARCHAR(16)  NOT NULL
+);
+
+-- Rows stored before the tables existed, copied once: the guard is evaluated once and skips the scan
+-- as soon as issued_numbers has rows. Keys first, since filling issued_numbers closes the guard.
+INSERT INTO idempotency_keys (idempotency_key, tracking_number)
+SELECT idempotency_key, tracking_number FROM tracking_numbers
+WHERE idempotency_key IS NOT NULL AND NOT EXISTS (SELECT 1 FROM issued_numbers)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO issued_numbers (tracking_number)
+SELECT tracking_number FROM tracking_numbers
+WHERE NOT EXISTS (SELECT 1 FROM issued_numbers)
+ON CONFLICT DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS sequence_blocks (
+    name       VARCHAR(64) PRIMARY KEY,
+    next_value BIGINT      NOT NULL
+);
+
+-- Issued counts per customer, lane and order month, maintained by IssueStatistics
+CREATE TABLE IF NOT EXISTS tracking_number_rollups (
+    customer_id            UUID        NOT NULL,
+    origin_country_id      VARCHAR(2)  NOT NULL,
+    destination_country_id VARCHAR(2)  NOT NULL,
+    order_month            DATE        NOT NULL,
+    issued                 BIGINT      NOT NULL,
+    PRIMARY KEY (customer_id, order_month, origin_country_id, destination_country_id)
+);
+
+CREATE TABLE IF NOT EXISTS tracking_number_rollup_flushes (
+    flush_id   VARCHAR(64)              PRIMARY KEY,
+    flushed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_rollup_flushed_at ON tracking_number_rollup_flushes (flushed_at);
+
+-- Issued numbers waiting to be published, appended with each insert and deleted by OutboxRelay once delivered
+CREATE TABLE IF NOT EXISTS tracking_number_outbox (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tracking_number        VARCHAR(16)              NOT NULL,
+    customer_id            UUID                     NOT NULL,
+    customer_slug          VARCHAR(255)             NOT NULL,
+    origin_country_id      VARCHAR(2)               NOT NULL,
+    destination_country_id VARCHAR(2)               NOT NULL,
+    created_at             TIMESTAMP WITH TIME ZONE NOT NULL,
+    -- Set while a relay worker delivers the event, see TrackingNumberOutbox
+    leased_until           TIMESTAMP WITH TIME ZONE
+);
+ALTER TABLE tracking_number_outbox ADD COLUMN IF NOT EXISTS leased_until TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,126 @@
+package com.tracking.tracking_api;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.ReactiveTrackingNumberService;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Own database, the servlet test context may be alive at the same time
+                "spring.datasource.url=jdbc:h2:mem:reactivedb",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb",
+                // Events stay in the outbox, where the tests look for them
+                "tracking.outbox.enabled=true",
+                "tracking.outbox.workers=0",
+                "tracking.outbox.file=target/reactive-outbox.ndjson"
+        })
+@ActiveProfiles({"test", "reactive"})
+class ReactiveTrackingApiApplicationTests {
+
+    private static final String PARAMS = "?origin_country_id=MY" +
+            "&destination_country_id=ID" +
+            "&weight=1.234" +
+            "&created_at=2018-11-20T19:29:32Z" +
+            "&customer_id=de619854-b59b-425e-9db4-943979e1bd49" +
+            "&customer_name=RedBox%20Logistics";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveTrackingNumberService reactiveTrackingNumberService;
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testReactiveApiEndpoint() {
+        // When
+        TrackingNumberResponse response = webTestClient.get()
+                .uri("/api/v1/next-tracking-number" + PARAMS + "&customer_slug=redbox-logistics")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TrackingNumberResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertNotNull(response);
+        assertTrue(Pattern.matches("^[A-Z0-9]{1,16}$", response.getTrackingNumber()));
+        TrackingNumber stored = trackingNumberRepository.findByTrackingNumber(response.getTrackingNumber()).orElseThrow();
+        assertEquals("redbox-logistics", stored.getCustomerSlug());
+        assertEquals(0, new BigDecimal("1.234").compareTo(stored.getWeight()));
+        assertEquals(OffsetDateTime.parse("2018-11-01T00:00:00Z").toLocalDate(), stored.getOrderMonth());
+    }
+
+    @Test
+    void testConcurrentReactiveAndJpaInsertsAreUnique() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+        long before = trackingNumberRepository.count();
+
+        // When
+        List<TrackingNumberResponse> reactive = Flux.range(0, 50)
+                .flatMap(i -> reactiveTrackingNumberService.generateTrackingNumber(request), 50)
+                .collectList()
+                .block();
+        List<TrackingNumberResponse> blocking = List.of(
+                trackingNumberService.generateTrackingNumber(request),
+                trackingNumberService.generateTrackingNumber(request));
+
+        // Then
+        Set<String> trackingNumbers = new HashSet<>();
+        reactive.forEach(response -> assertTrue(trackingNumbers.add(response.getTrackingNumber())));
+        blocking.forEach(response -> assertTrue(trackingNumbers.add(response.getTrackingNumber())));
+        // Ids drawn from the sequence by both paths did not collide
+        assertEquals(before + 52, trackingNumberRepository.count());
+    }
+
+    @Test
+    void testReactiveInsertAppendsOutboxEvent() {
+        // When
+        TrackingNumberResponse response = reactiveTrackingNumberService.generateTrackingNumber(createValidRequest()).block();
+
+        // Then
+        assertNotNull(response);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tracking_number_outbox WHERE tracking_number = ? AND customer_slug = ?",
+                Integer.class, response.getTrackingNumber(), "redbox-logistics"));
+    }
+
+    @Test
+    void testInvalidSlugOnReactiveEndpoint() {
+        webTestClient.get()
+                .uri("/api/v1/next-tracking-number" + PARAMS + "&customer_slug=RedBox_Logistics")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors.customer_slug").exists();
+    }
+}
@@ -0,0 +1,38 @@
+package com.tracking.tracking_api;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Requests shared by the tests
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * The example request from the API documentation
+     */
+    public static TrackingNumberRequest createValidRequest() {
+        return createRequest(new BigDecimal("1.234"), "redbox-logistics", OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+    }
+
+    /**
+     * The example request with another weight, customer slug and order time
+     */
+    public static TrackingNumberRequest createRequest(BigDecimal weight, String slug, OffsetDateTime createdAt) {
+        TrackingNumberRequest request = new TrackingNumberRequest();
+        request.setOriginCountryId("MY");
+        request.setDestinationCountryId("ID");
+        request.setWeight(weight);
+        request.setCreatedAt(createdAt);
+        request.setCustomerId(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"));
+        request.setCustomerName("RedBox Logistics");
+        request.setCustomerSlug(slug);
+        return request;
+    }
+}
@@ -1,19 +1,32 @@
 package com.tracking.tracking_api;
 
+import com.tracking.tracking_api.dto.IssueStatsResponse;
+import com.tracking.tracking_api.dto.TrackingNumberDetails;
 import com.tracking.tracking_api.dto.TrackingNumberRequest;
 import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.idempotency.IdempotencyCache;
+import com.tracking.tracking_api.logging.RequestLoggingFilter;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
 import com.tracking.tracking_api.service.TrackingNumberService;
+import com.tracking.tracking_api.stats.IssueStatistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -21,11 +34,18 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@AutoConfigureObservability(tracing = false)
 class TrackingApiApplicationTests {
 
     @Autowired
     private TrackingNumberService trackingNumberService;
 
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private IssueStatistics issueStatistics;
+
     @Autowired
     private TestRestTemplate restTemplate;
 
@@ -115,6 +135,45 @@ class TrackingApiApplicationTests {
         assertTrue(Pattern.matches("^[A-Z0-9]{1,16}$", response.getBody().getTrackingNumber()));
     }
 
+    @Test
+    void testBatchApiEndpoint() {
+        // Given
+        String url = String.format("http://localhost:%d/api/v1/tracking-numbers/batch", port);
+        TrackingNumberRequest first = createValidRequest();
+        TrackingNumberRequest second = createValidRequest();
+        second.setOriginCountryId("SG");
+        TrackingNumberRequest third = createValidRequest();
+        third.setOriginCountryId("TH");
+
+        // When
+        ResponseEntity<List<TrackingNumberResponse>> response = restTemplate.exchange(
+                url, HttpMethod.POST, new HttpEntity<>(List.of(first, second, third)),
+                new ParameterizedTypeReference<>() {});
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<TrackingNumberResponse> body = response.getBody();
+        assertNotNull(body);
+        assertEquals(List.of("MY", "SG", "TH"), body.stream().map(TrackingNumberResponse::getOriginCountryId).toList());
+        assertEquals(3, body.stream().map(TrackingNumberResponse::getTrackingNumber).distinct().count());
+        body.forEach(item -> assertTrue(Pattern.matches("^[A-Z0-9]{1,16}$", item.getTrackingNumber())));
+    }
+
+    @Test
+    void testBatchRejectsInvalidEntry() {
+        // Given
+        String url = String.format("http://localhost:%d/api/v1/tracking-numbers/batch", port);
+        TrackingNumberRequest invalid = createValidRequest();
+        invalid.setOriginCountryId("INVALID");
+
+        // When
+        ResponseEntity<Object> response = restTemplate.postForEntity(
+                url, List.of(createValidRequest(), invalid), Object.class);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void testHealthEndpoint() {
         // Given
@@ -128,6 +187,153 @@ class TrackingApiApplicationTests {
         assertEquals("Tracking API is healthy", response.getBody());
     }
 
+    @Test
+    void testPrometheusEndpoint() {
+        // Given
+        trackingNumberService.generateTrackingNumber(createValidRequest());
+        String url = String.format("http://localhost:%d/actuator/prometheus", port);
+
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("tracking_generation_seconds_bucket"));
+        assertTrue(response.getBody().contains("tracking_uniqueness_check_seconds_count{path=\"single\"}"));
+        assertTrue(response.getBody().contains("tracking_save_seconds_count{path=\"single\"}"));
+        assertTrue(response.getBody().contains("tracking_collisions_total{attempt=\"1\"}"));
+        assertTrue(response.getBody().contains("tracking_retries_exhausted_total"));
+        assertTrue(response.getBody().contains("tracking_sequence_counter_wraps"));
+        assertTrue(response.getBody().contains("tracking_async_queue_depth"));
+    }
+
+    @Test
+    void testCorrelationIdEchoed() {
+        // Given
+        String url = String.format("http://localhost:%d/api/v1/health", port);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(RequestLoggingFilter.CORRELATION_ID_HEADER, "order-42");
+
+        // When
+        ResponseEntity<String> given = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> generated = restTemplate.getForEntity(url, String.class);
+
+        // Then
+        assertEquals("order-42", given.getHeaders().getFirst(RequestLoggingFilter.CORRELATION_ID_HEADER));
+        assertNotNull(generated.getHeaders().getFirst(RequestLoggingFilter.CORRELATION_ID_HEADER));
+    }
+
+    @Test
+    void testIdempotencyKeyReturnsIssuedNumber() {
+        // Given
+        String url = String.format("http://localhost:%d/api/v1/next-tracking-number", port);
+        String params = "?origin_country_id=MY" +
+                "&destination_country_id=ID" +
+                "&weight=1.234" +
+                "&created_at=2018-11-20T19:29:32Z" +
+                "&customer_id=de619854-b59b-425e-9db4-943979e1bd49" +
+                "&customer_name=RedBox%20Logistics" +
+                "&customer_slug=redbox-logistics";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyCache.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
+
+        // When
+        ResponseEntity<TrackingNumberResponse> first = restTemplate.exchange(
+                url + params, HttpMethod.GET, new HttpEntity<>(headers), TrackingNumberResponse.class);
+        ResponseEntity<TrackingNumberResponse> retried = restTemplate.exchange(
+                url + params, HttpMethod.GET, new HttpEntity<>(headers), TrackingNumberResponse.class);
+        ResponseEntity<TrackingNumberResponse> other = restTemplate.getForEntity(url + params, TrackingNumberResponse.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals(first.getBody().getTrackingNumber(), retried.getBody().getTrackingNumber());
+        assertNotEquals(first.getBody().getTrackingNumber(), other.getBody().getTrackingNumber());
+        assertTrue(trackingNumberRepository.findByIdempotencyKey(
+                "de619854-b59b-425e-9db4-943979e1bd49:h:" + headers.getFirst(IdempotencyCache.IDEMPOTENCY_KEY_HEADER)).isPresent());
+    }
+
+    @Test
+    void testLookupEndpoint() {
+        // Given
+        TrackingNumberResponse issued = trackingNumberService.generateTrackingNumber(createValidRequest());
+        String url = String.format("http://localhost:%d/api/v1/tracking-numbers/", port);
+
+        // When
+        ResponseEntity<TrackingNumberDetails> found = restTemplate.getForEntity(
+                url + issued.getTrackingNumber(), TrackingNumberDetails.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(found.getHeaders().getETag());
+        ResponseEntity<String> revalidated = restTemplate.exchange(
+                url + issued.getTrackingNumber(), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> unknown = restTemplate.getForEntity(url + "NOTISSUED1", String.class);
+        ResponseEntity<String> invalid = restTemplate.getForEntity(url + "not-a-number", String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertEquals(issued.getTrackingNumber(), found.getBody().getTrackingNumber());
+        assertEquals(new BigDecimal("1.234"), found.getBody().getWeight());
+        assertEquals(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"), found.getBody().getCustomerId());
+        assertNotNull(found.getHeaders().getETag());
+        assertTrue(found.getHeaders().getCacheControl().contains("max-age=300"));
+        assertTrue(found.getHeaders().getCacheControl().contains("private"));
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, unknown.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+
+    @Test
+    void testExportEndpoint() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+        request.setCustomerId(UUID.randomUUID());
+        OffsetDateTime from = OffsetDateTime.now().minusMinutes(1);
+        List<TrackingNumberResponse> issued = trackingNumberService.generateTrackingNumbers(List.of(request, request, request));
+        String url = String.format("http://localhost:%d/api/v1/tracking-numbers/export?customer_id=%s&from=%s&to=%s",
+                port, request.getCustomerId(), from.toInstant(), OffsetDateTime.now().plusMinutes(1).toInstant());
+
+        // When
+        ResponseEntity<String> ndjson = restTemplate.getForEntity(url, String.class);
+        ResponseEntity<String> csv = restTemplate.getForEntity(url + "&format=csv", String.class);
+        ResponseEntity<String> unknownFormat = restTemplate.getForEntity(url + "&format=xml", String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+        assertEquals("application/x-ndjson;charset=UTF-8", ndjson.getHeaders().getContentType().toString());
+        String[] lines = ndjson.getBody().split("\n");
+        assertEquals(3, lines.length);
+        issued.forEach(response -> assertTrue(ndjson.getBody().contains("\"" + response.getTrackingNumber() + "\"")));
+        assertEquals(4, csv.getBody().split("\n").length);
+        assertEquals(HttpStatus.BAD_REQUEST, unknownFormat.getStatusCode());
+    }
+
+    @Test
+    void testStatsEndpoint() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+        request.setCustomerId(UUID.randomUUID());
+        TrackingNumberRequest otherLane = createValidRequest();
+        otherLane.setCustomerId(request.getCustomerId());
+        otherLane.setDestinationCountryId("SG");
+        trackingNumberService.generateTrackingNumbers(List.of(request, request, otherLane));
+        trackingNumberService.generateTrackingNumber(request);
+        issueStatistics.flush();
+        String url = String.format("http://localhost:%d/api/v1/tracking-numbers/stats?customer_id=%s&from=2018-01&to=2018-12",
+                port, request.getCustomerId());
+
+        // When
+        ResponseEntity<IssueStatsResponse> response = restTemplate.getForEntity(url, IssueStatsResponse.class);
+        ResponseEntity<String> reversed = restTemplate.getForEntity(url.replace("from=2018-01&to=2018-12", "from=2018-12&to=2018-01"), String.class);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, response.getBody().getTotal());
+        assertEquals(2, response.getBody().getLanes().size());
+        assertEquals("ID", response.getBody().getLanes().get(0).getDestinationCountryId());
+        assertEquals(3, response.getBody().getLanes().get(0).getIssued());
+        assertEquals(YearMonth.of(2018, 11), response.getBody().getLanes().get(0).getOrderMonth());
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+    }
+
     @Test
     void testInvalidCountryCode() {
         // Given
@@ -166,6 +372,26 @@ class TrackingApiApplicationTests {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void testInvalidSlugOnGet() {
+        // Given
+        String url = String.format("http://localhost:%d/api/v1/next-tracking-number", port);
+        String params = "?origin_country_id=MY" +
+                "&destination_country_id=ID" +
+                "&weight=1.234" +
+                "&created_at=2018-11-20T19:29:32Z" +
+                "&customer_id=de619854-b59b-425e-9db4-943979e1bd49" +
+                "&customer_name=RedBox%20Logistics" +
+                "&customer_slug=RedBox_Logistics";
+
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity(url + params, String.class);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("customer_slug"));
+    }
+
     private TrackingNumberRequest createValidRequest() {
         TrackingNumberRequest request = new TrackingNumberRequest();
         request.setOriginCountryId("MY");
@@ -0,0 +1,113 @@
+package com.tracking.tracking_api.admission;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private static final String CUSTOMER = "de619854-b59b-425e-9db4-943979e1bd49";
+    private static final String LIMITED_CUSTOMER = "0b5e3c61-7a8f-4a57-9a3a-5f0d2e9b7c11";
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testShedsCustomerOverItsRate() throws Exception {
+        // Given: 2 per second by default, 1 per second without burst for one customer
+        AdmissionControl control = control(4);
+        AdmissionFilter filter = new AdmissionFilter(control);
+
+        // Then
+        assertEquals(200, filter(filter, CUSTOMER).getStatus());
+        assertEquals(200, filter(filter, CUSTOMER).getStatus());
+        MockHttpServletResponse refused = filter(filter, CUSTOMER);
+        assertEquals(429, refused.getStatus());
+        assertEquals("1", refused.getHeader("Retry-After"));
+        assertTrue(refused.getContentAsString().contains("\"status\":429"));
+
+        assertEquals(200, filter(filter, LIMITED_CUSTOMER).getStatus());
+        assertEquals(429, filter(filter, LIMITED_CUSTOMER).getStatus());
+
+        now.addAndGet(500_000_000L);
+        assertEquals(200, filter(filter, CUSTOMER).getStatus());
+        assertEquals(2, meterRegistry.get("tracking.admission.rejected").tag("reason", "customer").counter().count());
+    }
+
+    @Test
+    void testShedsOverGlobalConcurrency() throws Exception {
+        // Given: one slot, held by a request in progress
+        AdmissionControl control = control(1);
+        AdmissionFilter filter = new AdmissionFilter(control);
+        assertTrue(control.tryEnter());
+
+        // Then
+        assertEquals(429, filter(filter, UUID.randomUUID().toString()).getStatus());
+        control.exit();
+        assertEquals(200, filter(filter, UUID.randomUUID().toString()).getStatus());
+        assertEquals(1, meterRegistry.get("tracking.admission.rejected").tag("reason", "global").counter().count());
+    }
+
+    @Test
+    void testCustomerIdFromQueryString() {
+        assertEquals(UUID.fromString(CUSTOMER), AdmissionFilter.customerId(request("origin_country_id=MY&customer_id=" + CUSTOMER + "&weight=1")));
+        assertEquals(UUID.fromString(CUSTOMER), AdmissionFilter.customerId(request("customer_id=" + CUSTOMER)));
+        assertNull(AdmissionFilter.customerId(request("other_customer_id=" + CUSTOMER)));
+        assertNull(AdmissionFilter.customerId(request("customer_id=not-a-uuid")));
+        assertNull(AdmissionFilter.customerId(request(null)));
+    }
+
+    @Test
+    void testEncodedCustomerIdIsDecodedByTheContainer() throws Exception {
+        // Given
+        AdmissionFilter filter = new AdmissionFilter(control(4));
+        MockHttpServletRequest encodedName = request("origin_country_id=MY&customer%5Fid=" + LIMITED_CUSTOMER);
+        encodedName.addParameter("customer_id", LIMITED_CUSTOMER);
+        MockHttpServletRequest encodedValue = request("customer_id=" + LIMITED_CUSTOMER.replace("-", "%2D"));
+        encodedValue.addParameter("customer_id", LIMITED_CUSTOMER);
+
+        // Then
+        assertEquals(UUID.fromString(LIMITED_CUSTOMER), AdmissionFilter.customerId(encodedName));
+        assertEquals(UUID.fromString(LIMITED_CUSTOMER), AdmissionFilter.customerId(encodedValue));
+        assertEquals(200, filter(filter, encodedName).getStatus());
+        assertEquals(429, filter(filter, encodedValue).getStatus());
+    }
+
+    private AdmissionControl control(int maxConcurrency) {
+        TrackingProperties properties = new TrackingProperties();
+        TrackingProperties.Admission settings = properties.getAdmission();
+        settings.setRate(2);
+        settings.setBurst(2);
+        settings.setMaxConcurrency(maxConcurrency);
+        TrackingProperties.CustomerLimit limit = new TrackingProperties.CustomerLimit();
+        limit.setRate(1);
+        limit.setBurst(1);
+        settings.getCustomers().put(LIMITED_CUSTOMER, limit);
+        return new AdmissionControl(properties, null, meterRegistry, now::get);
+    }
+
+    private static MockHttpServletResponse filter(AdmissionFilter filter, String customerId) throws Exception {
+        return filter(filter, request("origin_country_id=MY&customer_id=" + customerId));
+    }
+
+    private static MockHttpServletResponse filter(AdmissionFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String queryString) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/next-tracking-number");
+        request.setServletPath("/api/v1/next-tracking-number");
+        request.setQueryString(queryString);
+        return request;
+    }
+}
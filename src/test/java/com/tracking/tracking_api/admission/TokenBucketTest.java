@@ -0,0 +1,70 @@
+package com.tracking.tracking_api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testBurstThenRate() {
+        // Given: 10 per second, bursts of 5
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        // Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0), "burst token " + i);
+        }
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+        assertEquals(SECOND / 20, bucket.tryAcquire(SECOND / 20));
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        assertTrue(bucket.tryAcquire(SECOND / 10) > 0);
+
+        // A long idle period refills the bucket only up to the burst
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(60 * SECOND));
+        }
+        assertTrue(bucket.tryAcquire(60 * SECOND) > 0);
+    }
+
+    @Test
+    void testConcurrentTakesNeverExceedBurst() throws Exception {
+        // Given
+        TokenBucket bucket = new TokenBucket(1, 1000, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(1000, admitted.get());
+    }
+}
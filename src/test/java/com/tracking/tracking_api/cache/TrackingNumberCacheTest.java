@@ -0,0 +1,72 @@
+package com.tracking.tracking_api.cache;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberDetails;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.DatabaseConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrackingNumberCacheTest {
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Test
+    void testReadThroughAndIssuedNumbers() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrackingNumberCache cache = new TrackingNumberCache(new TrackingNumberLookup(trackingNumberRepository, Optional.empty(), properties),
+                new DatabaseConcurrencyLimiter(properties, null, meterRegistry), properties, meterRegistry);
+        TrackingNumber stored = trackingNumberRepository.save(createEntity("CACHESTORED1"));
+        TrackingNumber issued = createEntity("CACHEISSUED1");
+
+        // When: a stored number is loaded once, an issued one is served without a query
+        Optional<TrackingNumberDetails> loaded = cache.find(stored.getTrackingNumber());
+        Optional<TrackingNumberDetails> reloaded = cache.find(stored.getTrackingNumber());
+        cache.put(issued);
+        Optional<TrackingNumberDetails> fromIssue = cache.find(issued.getTrackingNumber());
+        Optional<TrackingNumberDetails> unknown = cache.find("CACHELATER1");
+        trackingNumberRepository.save(createEntity("CACHELATER1"));
+        Optional<TrackingNumberDetails> later = cache.find("CACHELATER1");
+
+        // Then
+        assertEquals(stored.getCustomerId(), loaded.orElseThrow().getCustomerId());
+        assertEquals(loaded, reloaded);
+        assertEquals("CACHEISSUED1", fromIssue.orElseThrow().getTrackingNumber());
+        assertTrue(unknown.isEmpty());
+        assertTrue(later.isPresent(), "Unknown numbers must not be cached");
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "tracking.lookup").tag("result", "hit").functionCounter().count());
+        assertEquals(3, meterRegistry.get("cache.gets").tag("cache", "tracking.lookup").tag("result", "miss").functionCounter().count());
+    }
+
+    private static TrackingNumber createEntity(String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(OffsetDateTime.parse("2018-11-20T19:29:32+08:00"))
+                .customerId(UUID.randomUUID())
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tracking.tracking_api.existence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBloomFilterTest {
+
+    @Test
+    void testNoFalseNegativesAndFalsePositiveRateNearTarget() {
+        // Given
+        OffHeapBloomFilter filter = new OffHeapBloomFilter(100_000, 0.01);
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("TRK" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("TRK" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("OTHER" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, "False positives: " + falsePositives);
+        assertEquals(0.5, filter.fillRatio(), 0.05);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        OffHeapBloomFilter filter = new OffHeapBloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain("TRK1"));
+        assertEquals(0, filter.fillRatio());
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void testRejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(1_000, 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.tracking.tracking_api.existence;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrackingNumberExistenceFilterTest {
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Test
+    void testWarmLoadsEveryPageAndSkipsUnknownCandidates() {
+        // Given: more rows than one warm page
+        trackingNumberRepository.saveAll(IntStream.range(0, 25)
+                .mapToObj(i -> entity("WARM" + i))
+                .toList());
+        TrackingProperties properties = new TrackingProperties();
+        properties.getExistenceFilter().setExpectedEntries(1_000);
+        properties.getExistenceFilter().setWarmPageSize(10);
+        TrackingNumberExistenceFilter filter =
+                new TrackingNumberExistenceFilter(trackingNumberRepository, properties, new SimpleMeterRegistry());
+
+        // When
+        filter.start();
+        awaitWarm(filter);
+
+        // Then
+        for (int i = 0; i < 25; i++) {
+            assertTrue(filter.exists("WARM" + i, trackingNumberRepository::existsByTrackingNumber));
+        }
+        assertFalse(filter.exists("NEVER-SAVED", candidate -> fail("Unknown candidate must not be queried")));
+        assertEquals(List.of("WARM3"), filter.candidatesToCheck(List.of("WARM3", "NEVER-SAVED")));
+        filter.stop();
+    }
+
+    private static void awaitWarm(TrackingNumberExistenceFilter filter) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!filter.isWarm()) {
+            assertTrue(System.nanoTime() < deadline, "Filter did not warm in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static TrackingNumber entity(String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(OffsetDateTime.now())
+                .customerId(UUID.randomUUID())
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.tracking.tracking_api.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.DatabaseConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrackingNumberExporterTest {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2024-03-01T00:00:00Z");
+    private static final OffsetDateTime TO = OffsetDateTime.parse("2024-04-01T00:00:00Z");
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNdjsonPagesThroughRangeInOrder() throws Exception {
+        // Given: 7 numbers in range over pages of 3, the last of the first page sharing its timestamp
+        // with the first of the second, and rows to leave out
+        UUID customerId = UUID.randomUUID();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            OffsetDateTime createdAt = FROM.plusDays(i == 3 ? 2 : i);
+            expected.add(save(customerId, "EXPNDJ" + i, createdAt).getTrackingNumber());
+        }
+        save(customerId, "EXPNDJBEFORE", FROM.minusSeconds(1));
+        save(customerId, "EXPNDJAFTER", TO);
+        save(UUID.randomUUID(), "EXPNDJOTHER", FROM.plusDays(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter(3).export(customerId, FROM, TO, ExportFormat.NDJSON, out);
+
+        // Then
+        List<String> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            exported.add(row.get("trackingNumber").asText());
+            assertEquals(new BigDecimal("1.234"), row.get("weight").decimalValue());
+        }
+        assertEquals(7, rows);
+        assertEquals(expected, exported);
+    }
+
+    @Test
+    void testCsv() throws Exception {
+        // Given
+        UUID customerId = UUID.randomUUID();
+        save(customerId, "EXPCSV1", OffsetDateTime.parse("2024-03-02T10:00:00+08:00"));
+        save(customerId, "EXPCSV2", OffsetDateTime.parse("2024-03-03T10:00:00+08:00"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter(2).export(customerId, FROM, TO, ExportFormat.CSV, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals(TrackingNumberExporter.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("EXPCSV1,MY,ID,1.234,2018-11-20T19:29:32+08:00,"));
+        assertTrue(lines[2].startsWith("EXPCSV2,"));
+    }
+
+    private TrackingNumberExporter exporter(int pageSize) {
+        TrackingProperties properties = new TrackingProperties();
+        properties.getExport().setPageSize(pageSize);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new TrackingNumberExporter(jdbcTemplate, new DatabaseConcurrencyLimiter(properties, null, meterRegistry),
+                objectMapper, properties, meterRegistry);
+    }
+
+    private TrackingNumber save(UUID customerId, String trackingNumber, OffsetDateTime createdAt) {
+        TrackingNumber entity = trackingNumberRepository.save(TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(OffsetDateTime.parse("2018-11-20T19:29:32+08:00"))
+                .customerId(customerId)
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .build());
+        // created_at is set on insert, moved into the range afterwards
+        jdbcTemplate.update("UPDATE tracking_numbers SET created_at = ? WHERE id = ?", createdAt, entity.getId());
+        return entity;
+    }
+}
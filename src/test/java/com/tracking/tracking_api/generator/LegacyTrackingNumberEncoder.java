@@ -0,0 +1,61 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+
+import java.math.BigDecimal;
+import java.util.random.RandomGenerator;
+
+/**
+ * The original String-based algorithm, kept as the reference {@link TrackingNumberEncoder} must match
+ */
+public final class LegacyTrackingNumberEncoder {
+
+    private static final String ALPHANUMERIC_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private LegacyTrackingNumberEncoder() {
+    }
+
+    public static String encode(TrackingNumberRequest request, RandomGenerator random, long sequence) {
+        StringBuilder sb = new StringBuilder();
+
+        // Prefix: First 2 letters from origin country
+        sb.append(request.getOriginCountryId().substring(0, 2));
+
+        // Middle: Weight-based encoding (last 3 digits of weight * 1000)
+        BigDecimal weightValue = request.getWeight().multiply(BigDecimal.valueOf(1000));
+        String weightCode = String.format("%03d", weightValue.remainder(BigDecimal.valueOf(1000)).intValue());
+        sb.append(weightCode);
+
+        // Customer identifier: First 2 letters of customer slug (uppercase)
+        String customerCode = request.getCustomerSlug().substring(0, Math.min(2, request.getCustomerSlug().length())).toUpperCase();
+        sb.append(customerCode);
+
+        // Timestamp component: Last 2 digits of year + month
+        String timestampCode = request.getCreatedAt().getYear() % 100 +
+                              String.format("%02d", request.getCreatedAt().getMonthValue());
+        sb.append(timestampCode);
+
+        // Random component: 2 random alphanumeric characters
+        for (int i = 0; i < 2; i++) {
+            sb.append(ALPHANUMERIC_CHARS.charAt(random.nextInt(ALPHANUMERIC_CHARS.length())));
+        }
+
+        // Sequence number: Last 2 digits of atomic counter
+        String sequenceCode = String.format("%02d", sequence % 100);
+        sb.append(sequenceCode);
+
+        String result = sb.toString();
+
+        // Ensure the result matches the regex pattern and is not longer than 16 characters
+        if (result.length() > 16) {
+            result = result.substring(0, 16);
+        }
+
+        // Pad with random characters if shorter than 12
+        while (result.length() < 12) {
+            result += ALPHANUMERIC_CHARS.charAt(random.nextInt(ALPHANUMERIC_CHARS.length()));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.sequence.ClockSequence;
+import com.tracking.tracking_api.sequence.SequenceAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequentialTrackingNumberGeneratorTest {
+
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2026-03-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void testFormat() {
+        // Given
+        SequentialTrackingNumberGenerator generator = new SequentialTrackingNumberGenerator(new ClockSequence(7, FIXED_CLOCK));
+
+        // When
+        String trackingNumber = generator.generate(createValidRequest());
+
+        // Then
+        assertEquals(16, trackingNumber.length());
+        assertTrue(Pattern.matches("^[A-Z0-9]{12,16}$", trackingNumber));
+        assertTrue(trackingNumber.startsWith("MY1811"));
+        assertTrue(generator.isUniqueByConstruction());
+    }
+
+    @Test
+    void testUniqueWithinBurst() {
+        // Given: frozen clock, so every id after the first 8192 borrows from the next second
+        SequentialTrackingNumberGenerator generator = new SequentialTrackingNumberGenerator(new ClockSequence(1, FIXED_CLOCK));
+        TrackingNumberRequest request = createValidRequest();
+        Set<String> seen = new HashSet<>();
+
+        // When / Then
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(seen.add(generator.generate(request)));
+        }
+    }
+
+    @Test
+    void testNodesDoNotOverlap() {
+        // Given
+        ClockSequence node1 = new ClockSequence(1, FIXED_CLOCK);
+        ClockSequence node2 = new ClockSequence(2, FIXED_CLOCK);
+
+        // When
+        long id1 = node1.next();
+        long id2 = node2.next();
+
+        // Then
+        assertNotEquals(id1, id2);
+        assertTrue(id1 <= SequenceAllocator.MAX_ID && id2 <= SequenceAllocator.MAX_ID);
+    }
+
+    @Test
+    void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new ClockSequence(256, FIXED_CLOCK));
+    }
+}
@@ -0,0 +1,99 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static com.tracking.tracking_api.TestFixtures.createRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberEncoderTest {
+
+    private static final String[] WEIGHTS = {
+            "1.234", "0.001", "0", "0.5", "12", "999.999", "1.2345", "1.9999", "-1.234", "-0.5",
+            "12345678901.123", "123456789012345.678", "1E+3", "2.50", "0.0005"
+    };
+    private static final String[] SLUGS = {
+            "redbox-logistics", "r", "ab", "Zx", "9lives", "über-express", "ıx", "a-"
+    };
+    private static final int[] YEARS = {2018, 2000, 2005, 2099, 1999, 1, 10, -5};
+    private static final long[] SEQUENCES = {1, 7, 99, 100, 12345, Long.MAX_VALUE, 0, -3};
+
+    @Test
+    void testMatchesLegacyAlgorithm() {
+        Random random = new Random(42);
+
+        for (String weight : WEIGHTS) {
+            for (String slug : SLUGS) {
+                for (int year : YEARS) {
+                    for (long sequence : SEQUENCES) {
+                        // Given
+                        TrackingNumberRequest request = createRequest(new BigDecimal(weight), slug,
+                                OffsetDateTime.of(year, 1 + random.nextInt(12), 1, 0, 0, 0, 0, ZoneOffset.UTC));
+                        long seed = random.nextLong();
+
+                        // When
+                        String expected = LegacyTrackingNumberEncoder.encode(request, new Random(seed), sequence);
+                        String actual = TrackingNumberEncoder.encode(request, new Random(seed), sequence);
+
+                        // Then
+                        assertEquals(expected, actual, () -> "weight=" + weight + " slug=" + slug + " year=" + year);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesLegacyAlgorithmForRandomWeights() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            // Given
+            BigDecimal weight = BigDecimal.valueOf(random.nextLong(100_000_000L), random.nextInt(4));
+            TrackingNumberRequest request = createRequest(weight, "redbox-logistics",
+                    OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+            long seed = random.nextLong();
+
+            // When / Then
+            assertEquals(LegacyTrackingNumberEncoder.encode(request, new Random(seed), i),
+                    TrackingNumberEncoder.encode(request, new Random(seed), i), weight::toPlainString);
+        }
+    }
+
+    @Test
+    void testPrefixCompletesLikeEncode() {
+        Random random = new Random(11);
+
+        for (String weight : WEIGHTS) {
+            for (String slug : SLUGS) {
+                // Given
+                TrackingNumberRequest request = createRequest(new BigDecimal(weight), slug,
+                        OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+                long seed = random.nextLong();
+
+                // When
+                String prefix = TrackingNumberEncoder.encodePrefix(request);
+
+                // Then
+                assertEquals(TrackingNumberEncoder.encode(request, new Random(seed), 42),
+                        TrackingNumberEncoder.encodeWithPrefix(prefix, new Random(seed), 42));
+            }
+        }
+    }
+
+    @Test
+    void testSequentialLayout() {
+        // Given
+        TrackingNumberRequest request = createRequest(new BigDecimal("1.234"), "redbox-logistics",
+                OffsetDateTime.parse("2005-03-20T19:29:32+08:00"));
+
+        // When / Then
+        assertEquals("MY0503000000000Z", TrackingNumberEncoder.encodeSequential(request, 35));
+        assertEquals("MY0503ZZZZZZZZZZ", TrackingNumberEncoder.encodeSequential(request, 3_656_158_440_062_975L));
+    }
+}
@@ -0,0 +1,114 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static com.tracking.tracking_api.TestFixtures.createRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberTemplateTest {
+
+    @Test
+    void testDefaultLayoutTemplateMatchesEncoder() {
+        TrackingNumberTemplate template = TrackingNumberTemplate.compile("{origin}{weight}{customer}{yymm}{random:2}{seq:2}");
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            // Given: years with 2 digits, where the default layout is not padded
+            TrackingNumberRequest request = createRequest(BigDecimal.valueOf(random.nextLong(100_000_000L), random.nextInt(4)),
+                    "redbox-logistics", OffsetDateTime.of(2010 + random.nextInt(90), 1 + random.nextInt(12), 1, 0, 0, 0, 0, ZoneOffset.UTC));
+            long sequence = random.nextLong(Long.MAX_VALUE);
+            long seed = random.nextLong();
+
+            // When
+            String expected = TrackingNumberEncoder.encode(request, new Random(seed), sequence);
+            String actual = template.encode(request, new Random(seed), sequence);
+
+            // Then
+            assertEquals(expected, actual, () -> "request=" + request + " sequence=" + sequence);
+        }
+    }
+
+    @Test
+    void testCarrierLayoutWithCheckCharacter() {
+        // Given
+        TrackingNumberTemplate template = TrackingNumberTemplate.compile("RB{origin}{destination}{customer:3}{yymm}{random:2}{check}");
+        TrackingNumberRequest request = createRequest(new BigDecimal("1.234"), "a-b-cde",
+                OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+        Random random = new Random(7);
+
+        for (int i = 0; i < 1_000; i++) {
+            // When
+            String trackingNumber = template.encode(request, random, i);
+
+            // Then
+            assertTrue(trackingNumber.matches("^RBMYIDABC1811[A-Z0-9]{3}$"), trackingNumber);
+            assertTrue(isValidMod3736(trackingNumber), trackingNumber);
+        }
+        assertEquals(16, template.getMaxLength());
+    }
+
+    @Test
+    void testCheckCharacterDetectsSubstitutionsAndTranspositions() {
+        // Given
+        char[] number = "RBMYID1811K3Z".toCharArray();
+        char check = TrackingNumberTemplate.checkCharacter(number, number.length);
+
+        // When
+        char substituted = TrackingNumberTemplate.checkCharacter("RBMYID1811K4Z".toCharArray(), number.length);
+        char transposed = TrackingNumberTemplate.checkCharacter("RBMYID1181K3Z".toCharArray(), number.length);
+
+        // Then
+        assertNotEquals(check, substituted);
+        assertNotEquals(check, transposed);
+    }
+
+    @Test
+    void testSequenceAndShortSlugs() {
+        // Given
+        TrackingNumberTemplate template = TrackingNumberTemplate.compile("X{customer:4}{random:2}{seq:3}");
+        TrackingNumberRequest request = createRequest(new BigDecimal("1"), "r", OffsetDateTime.parse("2018-11-20T19:29:32+08:00"));
+
+        // When
+        String trackingNumber = template.encode(request, new Random(1), 123_456);
+
+        // Then
+        assertTrue(trackingNumber.matches("^XR[A-Z0-9]{2}456$"), trackingNumber);
+    }
+
+    @Test
+    void testRejectsInvalidTemplates() {
+        assertInvalid("{origin}{weight}", "at least 2 random characters");
+        assertInvalid("{origin}{random:2}-{seq:2}", "at position 18: literal characters must be A-Z or 0-9");
+        assertInvalid("{origin}{random:2}{check}{seq:2}", "{check} must be the last segment");
+        assertInvalid("{origin}{random:20}", "length must be 1 to 16");
+        assertInvalid("{origin}{random}", "segment needs a length");
+        assertInvalid("{origin:2}{random:2}", "{origin} takes no length");
+        assertInvalid("{origin}{random:2}{lane}", "unknown segment {lane}");
+        assertInvalid("{origin}{random:2", "unclosed {");
+        assertInvalid("CARRIERS{origin}{weight}{random:4}", "up to 17 characters");
+    }
+
+    private static void assertInvalid(String template, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TrackingNumberTemplate.compile(template));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    /**
+     * ISO 7064 MOD 37,36 validation: a number ending with its check character leaves a remainder of 1
+     */
+    private static boolean isValidMod3736(String number) {
+        int product = 36;
+        int sum = 0;
+        for (int i = 0; i < number.length(); i++) {
+            sum = (product + Character.digit(number.charAt(i), 36)) % 36;
+            product = (sum == 0 ? 36 : sum) * 2 % 37;
+        }
+        return sum == 1;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tracking.tracking_api.generator;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.random.SplittableRandomSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberTemplatesTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testGeneratorUsesTemplateOfCustomer() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        properties.getTemplates().getCustomers().put("redbox-logistics", "RB{origin}{yymm}{random:6}{check}");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RandomTrackingNumberGenerator generator = new RandomTrackingNumberGenerator(new SplittableRandomSource(),
+                new TrackingNumberTemplates(properties, meterRegistry), meterRegistry);
+
+        TrackingNumberRequest otherCustomer = createValidRequest();
+        otherCustomer.setCustomerSlug("bluebird-express");
+
+        // When
+        String templated = generator.generate(createValidRequest());
+        String standard = generator.generate(otherCustomer);
+
+        // Then
+        assertTrue(templated.matches("^RBMY1811[A-Z0-9]{7}$"), templated);
+        assertTrue(standard.startsWith("MY234BL1811"), standard);
+    }
+
+    @Test
+    void testReloadsChangedFileAndKeepsTemplatesOnInvalidChange() throws IOException {
+        // Given
+        Path file = directory.resolve("templates.properties");
+        Files.writeString(file, "bluebird-express=BB{random:8}\n");
+        TrackingProperties properties = new TrackingProperties();
+        properties.getTemplates().getCustomers().put("redbox-logistics", "RB{random:8}");
+        properties.getTemplates().getCustomers().put("bluebird-express", "XX{random:8}");
+        properties.getTemplates().setFile(file.toString());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrackingNumberTemplates templates = new TrackingNumberTemplates(properties, meterRegistry);
+
+        // When / Then: the file takes precedence over the properties
+        assertEquals("BB{random:8}", templates.find("bluebird-express").orElseThrow().toString());
+        assertFalse(templates.reload());
+
+        // When / Then: a changed file replaces the templates
+        Files.writeString(file, "bluebird-express=BB{origin}{random:8}\ncargo-hub=CH{random:4}{check}\n");
+        assertTrue(templates.reload());
+        assertEquals("BB{origin}{random:8}", templates.find("bluebird-express").orElseThrow().toString());
+        assertEquals("CH{random:4}{check}", templates.find("cargo-hub").orElseThrow().toString());
+        assertEquals("RB{random:8}", templates.find("redbox-logistics").orElseThrow().toString());
+
+        // When / Then: a file with an invalid template is rejected whole
+        Files.writeString(file, "bluebird-express=BB{random:9}\ncargo-hub=CH{weight}\n");
+        assertFalse(templates.reload());
+        assertEquals("BB{origin}{random:8}", templates.find("bluebird-express").orElseThrow().toString());
+        assertEquals(1.0, meterRegistry.get("tracking.templates.reloads").tag("result", "rejected").counter().count());
+
+        // When / Then: without the file only the properties remain
+        Files.delete(file);
+        assertTrue(templates.reload());
+        assertEquals("XX{random:8}", templates.find("bluebird-express").orElseThrow().toString());
+        assertTrue(templates.find("cargo-hub").isEmpty());
+        assertEquals(2.0, meterRegistry.get("tracking.templates").gauge().value());
+    }
+
+    @Test
+    void testInvalidTemplateFailsStartup() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        properties.getTemplates().getCustomers().put("redbox-logistics", "{origin}{weight}");
+
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new TrackingNumberTemplates(properties, new SimpleMeterRegistry()));
+
+        // Then
+        assertTrue(e.getMessage().contains("customer redbox-logistics"), e.getMessage());
+    }
+
+    @Test
+    void testPartitionedStorageNeedsOrderMonth() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        properties.getStorage().setMode(TrackingProperties.StorageMode.PARTITIONED);
+        properties.getTemplates().getCustomers().put("redbox-logistics", "RB{origin}{yymm}{random:6}");
+        properties.getTemplates().getCustomers().put("bluebird-express", "BB{origin}{random:8}");
+
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new TrackingNumberTemplates(properties, new SimpleMeterRegistry()));
+
+        // Then
+        assertTrue(e.getMessage().contains("customer bluebird-express"), e.getMessage());
+        assertTrue(e.getMessage().contains("{yymm}"), e.getMessage());
+    }
+}
@@ -0,0 +1,169 @@
+package com.tracking.tracking_api.grpc;
+
+import com.google.protobuf.ByteString;
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.grpc.v1.GenerateRequest;
+import com.tracking.tracking_api.grpc.v1.GenerateResponse;
+import com.tracking.tracking_api.grpc.v1.TrackingNumberGenerationGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:grpc",
+        "tracking.grpc.enabled=true",
+        "tracking.grpc.port=0"
+})
+@ActiveProfiles("test")
+class TrackingNumberGrpcServiceTest {
+
+    @Autowired
+    private TrackingNumberGrpcService trackingNumberGrpcService;
+
+    @Autowired
+    private GrpcServer grpcServer;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(trackingNumberGrpcService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testServerListensWhenEnabled() {
+        assertTrue(grpcServer.isRunning());
+        assertTrue(grpcServer.getPort() > 0);
+    }
+
+    @Test
+    void testGenerateIssuesTrackingNumber() {
+        // Given
+        TrackingNumberGenerationGrpc.TrackingNumberGenerationBlockingStub stub = TrackingNumberGenerationGrpc.newBlockingStub(channel);
+
+        // When
+        GenerateResponse response = stub.generate(createRequest(7));
+
+        // Then
+        assertEquals(7, response.getRequestId());
+        assertTrue(response.getTrackingNumber().matches("^[A-Z0-9]{1,16}$"));
+        assertTrue(response.getCreatedAtEpochSecond() > 0);
+        assertFalse(response.hasError());
+    }
+
+    @Test
+    void testGenerateRejectsInvalidRequest() {
+        // Given
+        TrackingNumberGenerationGrpc.TrackingNumberGenerationBlockingStub stub = TrackingNumberGenerationGrpc.newBlockingStub(channel);
+        GenerateRequest request = createRequest(1).toBuilder()
+                .setOriginCountryId("MYS")
+                .setCustomerId(ByteString.copyFrom(new byte[15]))
+                .build();
+
+        // When
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> stub.generate(request));
+
+        // Then
+        assertEquals(Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+    }
+
+    @Test
+    void testGenerateStreamAnswersEveryRequestInOrder() throws Exception {
+        // Given
+        List<GenerateResponse> responses = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        StreamObserver<GenerateRequest> requests = TrackingNumberGenerationGrpc.newStub(channel)
+                .generateStream(collectInto(responses, completed));
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            requests.onNext(createRequest(i));
+        }
+        requests.onNext(createRequest(6).toBuilder().setWeightGrams(0).setCustomerSlug("Not Kebab").build());
+        requests.onNext(createRequest(7));
+        requests.onCompleted();
+        completed.get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(7, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i + 1, responses.get(i).getRequestId());
+        }
+        GenerateResponse failed = responses.get(5);
+        assertTrue(failed.hasError());
+        assertEquals("INVALID_ARGUMENT", failed.getError().getCode());
+        assertEquals(List.of("weight_grams", "customer_slug"), List.copyOf(failed.getError().getFieldErrorsMap().keySet()));
+        assertEquals("", failed.getTrackingNumber());
+        assertEquals(6, responses.stream().map(GenerateResponse::getTrackingNumber).filter(n -> !n.isEmpty()).distinct().count());
+    }
+
+    private static StreamObserver<GenerateResponse> collectInto(List<GenerateResponse> responses, CompletableFuture<Void> completed) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(GenerateResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        };
+    }
+
+    private static GenerateRequest createRequest(long requestId) {
+        UUID customerId = UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49");
+        ByteBuffer customerIdBytes = ByteBuffer.allocate(16)
+                .putLong(customerId.getMostSignificantBits())
+                .putLong(customerId.getLeastSignificantBits())
+                .flip();
+        return GenerateRequest.newBuilder()
+                .setOriginCountryId("MY")
+                .setDestinationCountryId("ID")
+                .setWeightGrams(1234)
+                .setCreatedAtEpochSecond(1542981362)
+                .setCreatedAtOffsetSeconds(8 * 60 * 60)
+                .setCustomerId(ByteString.copyFrom(customerIdBytes))
+                .setCustomerName("RedBox Logistics")
+                .setCustomerSlug("redbox-logistics")
+                .setRequestId(requestId)
+                .build();
+    }
+}
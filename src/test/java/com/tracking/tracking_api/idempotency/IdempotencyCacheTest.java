@@ -0,0 +1,106 @@
+package com.tracking.tracking_api.idempotency;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.exception.InvalidRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tracking.tracking_api.TestFixtures.createRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void testConcurrentRepeatsIssueOnce() throws Exception {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(new TrackingProperties(), new SimpleMeterRegistry());
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<TrackingNumberResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.getOrIssue("key", () -> {
+                    sleep(50);
+                    return TrackingNumberResponse.builder()
+                            .trackingNumber("TRK" + generations.incrementAndGet())
+                            .build();
+                });
+            }));
+        }
+        start.countDown();
+        List<String> trackingNumbers = new ArrayList<>();
+        for (Future<TrackingNumberResponse> future : futures) {
+            trackingNumbers.add(future.get().getTrackingNumber());
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(1, generations.get());
+        assertTrue(trackingNumbers.stream().allMatch("TRK1"::equals));
+    }
+
+    @Test
+    void testFailedGenerationIsNotCached() {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(new TrackingProperties(), new SimpleMeterRegistry());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> cache.getOrIssue("key", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        TrackingNumberResponse response = cache.getOrIssue("key",
+                () -> TrackingNumberResponse.builder().trackingNumber("TRK1").build());
+
+        // Then
+        assertEquals("TRK1", response.getTrackingNumber());
+    }
+
+    @Test
+    void testResolveKey() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        IdempotencyCache headerOnly = new IdempotencyCache(properties, new SimpleMeterRegistry());
+        properties.getIdempotency().setDeriveKey(true);
+        IdempotencyCache derived = new IdempotencyCache(properties, new SimpleMeterRegistry());
+        TrackingNumberRequest request = request("1.2", "2018-11-20T19:29:32+08:00");
+        TrackingNumberRequest sameOrder = request("1.200", "2018-11-20T11:29:32Z");
+
+        // Then
+        assertEquals(Optional.empty(), headerOnly.resolveKey(request, null));
+        assertEquals(headerOnly.resolveKey(request, "order-1"), headerOnly.resolveKey(sameOrder, "order-1"));
+        assertEquals(derived.resolveKey(request, null), derived.resolveKey(sameOrder, null));
+        assertNotEquals(derived.resolveKey(request, null), derived.resolveKey(request("1.201", "2018-11-20T11:29:32Z"), null));
+        assertThrows(InvalidRequestException.class, () -> headerOnly.resolveKey(request, " "));
+        assertThrows(InvalidRequestException.class,
+                () -> headerOnly.resolveKey(request, "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1)));
+    }
+
+    private static TrackingNumberRequest request(String weight, String createdAt) {
+        return createRequest(new BigDecimal(weight), "redbox-logistics", OffsetDateTime.parse(createdAt));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tracking.tracking_api.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MdcTaskDecoratorTest {
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void testCorrelationIdCarriedToOtherThread() throws Exception {
+        // Given
+        MDC.put(RequestLoggingFilter.CORRELATION_ID_KEY, "abc-123");
+        CompletableFuture<String> seen = new CompletableFuture<>();
+        Runnable task = new MdcTaskDecorator().decorate(() -> seen.complete(MDC.get(RequestLoggingFilter.CORRELATION_ID_KEY)));
+
+        // When
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            executor.submit(task).get();
+
+            // Then: set while the task runs, cleared again afterwards
+            assertEquals("abc-123", seen.get());
+            assertNull(executor.submit(() -> MDC.get(RequestLoggingFilter.CORRELATION_ID_KEY)).get());
+        }
+    }
+}
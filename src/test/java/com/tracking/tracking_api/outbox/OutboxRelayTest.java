@@ -0,0 +1,295 @@
+package com.tracking.tracking_api.outbox;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.OutboxEvent;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "tracking.outbox.enabled=true",
+        "tracking.outbox.sink=custom",
+        // Batches are relayed by the tests themselves
+        "tracking.outbox.workers=0",
+        "tracking.outbox.batch-size=50"
+})
+@ActiveProfiles("test")
+@Import(OutboxRelayTest.SinkConfig.class)
+class OutboxRelayTest {
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private TrackingNumberOutbox outbox;
+
+    @Autowired
+    private InMemorySink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void drainOutbox() {
+        while (relay.relayBatch() > 0) {
+            // Events of numbers issued by other tests
+        }
+        sink.reset();
+    }
+
+    @Test
+    void testIssuedNumbersAreRelayedOnce() {
+        // Given
+        double relayedBefore = meterRegistry.get("tracking.outbox.relayed").counter().count();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            issued.add(trackingNumberService.generateTrackingNumber(createValidRequest()).getTrackingNumber());
+        }
+        List<TrackingNumberRequest> manifest = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            manifest.add(createValidRequest());
+        }
+        trackingNumberService.generateTrackingNumbers(manifest).forEach(response -> issued.add(response.getTrackingNumber()));
+
+        // When
+        List<Integer> batchSizes = new ArrayList<>();
+        for (int size = relay.relayBatch(); size > 0; size = relay.relayBatch()) {
+            batchSizes.add(size);
+        }
+
+        // Then
+        assertEquals(List.of(50, 50, 23), batchSizes);
+        assertEquals(123, sink.delivered.size());
+        assertEquals(issued, trackingNumbers(sink.delivered));
+        assertEquals(0, outboxSize());
+        OutboxEvent first = sink.delivered.get(0);
+        assertEquals(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"), first.getCustomerId());
+        assertEquals("redbox-logistics", first.getCustomerSlug());
+        assertEquals("MY", first.getOriginCountryId());
+        assertEquals("ID", first.getDestinationCountryId());
+        assertEquals(123.0, meterRegistry.get("tracking.outbox.relayed").counter().count() - relayedBefore);
+        assertEquals(50.0, meterRegistry.get("tracking.outbox.batch.size").summary().max());
+        assertTrue(meterRegistry.get("tracking.outbox.lag").timer().count() >= 123);
+    }
+
+    @Test
+    void testRolledBackInsertLeavesNoEvent() {
+        // Given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            trackingNumberRepository.save(createEntity("MY1811RB00000001"));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> trackingNumberRepository.save(createEntity("MY1811RB00000002")));
+
+        // Then
+        assertEquals(1, relay.relayBatch());
+        assertEquals(Set.of("MY1811RB00000002"), trackingNumbers(sink.delivered));
+    }
+
+    @Test
+    void testConcurrentClaimsSkipLockedEvents() throws Exception {
+        // Given
+        List<TrackingNumberRequest> manifest = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            manifest.add(createValidRequest());
+        }
+        Set<String> issued = new HashSet<>();
+        trackingNumberService.generateTrackingNumbers(manifest).forEach(response -> issued.add(response.getTrackingNumber()));
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sink.holdNext(delivering, release);
+
+        // When: one worker holds its claimed batch while delivering it, another claims meanwhile
+        CompletableFuture<Integer> held = CompletableFuture.supplyAsync(relay::relayBatch);
+        assertTrue(delivering.await(10, TimeUnit.SECONDS));
+        int claimedMeanwhile = relay.relayBatch();
+        release.countDown();
+
+        // Then
+        assertEquals(50, claimedMeanwhile);
+        assertEquals(50, held.get(10, TimeUnit.SECONDS));
+        assertEquals(0, relay.relayBatch());
+        assertEquals(100, sink.delivered.size());
+        assertEquals(issued, trackingNumbers(sink.delivered));
+    }
+
+    @Test
+    void testEventsOfDeadWorkerAreRelayedOnceLeaseExpires() {
+        // Given: a worker that leased a batch and died before delivering it
+        String issued = trackingNumberService.generateTrackingNumber(createValidRequest()).getTrackingNumber();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> outbox.claim(0, 50, now, now.plusMinutes(1)));
+
+        // When / Then: nobody else claims it while the lease lasts
+        assertEquals(0, relay.relayBatch());
+
+        // When / Then
+        jdbcTemplate.update("UPDATE tracking_number_outbox SET leased_until = ?", now.minusSeconds(1));
+        assertEquals(1, relay.relayBatch());
+        assertEquals(Set.of(issued), trackingNumbers(sink.delivered));
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void testWorkersRelayEverythingAndRetryFailedBatches() throws InterruptedException {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        properties.getOutbox().setWorkers(3);
+        properties.getOutbox().setBatchSize(10);
+        properties.getOutbox().setPollInterval(Duration.ofMillis(10));
+        SimpleMeterRegistry workerMetrics = new SimpleMeterRegistry();
+        OutboxRelay workers = new OutboxRelay(outbox, sink, transactionManager, properties, workerMetrics);
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(createValidRequest());
+            issued.add(response.getTrackingNumber());
+        }
+        sink.failNext(1);
+
+        // When
+        workers.start();
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (sink.delivered.size() < issued.size() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            workers.stop();
+        }
+
+        // Then: the failed batch was released and delivered once, later
+        assertEquals(200, sink.delivered.size());
+        assertEquals(issued, trackingNumbers(sink.delivered));
+        assertEquals(0, outboxSize());
+        assertEquals(1.0, workerMetrics.get("tracking.outbox.failed").counter().count());
+        assertEquals(200.0, workerMetrics.get("tracking.outbox.relayed").counter().count());
+        assertFalse(workers.isRunning());
+    }
+
+    private long outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_number_outbox", Long.class);
+    }
+
+    private static Set<String> trackingNumbers(List<OutboxEvent> events) {
+        Set<String> trackingNumbers = new HashSet<>();
+        events.forEach(event -> trackingNumbers.add(event.getTrackingNumber()));
+        return trackingNumbers;
+    }
+
+    private TrackingNumber createEntity(String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(OffsetDateTime.parse("2018-11-20T19:29:32+08:00"))
+                .customerId(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"))
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        InMemorySink inMemorySink() {
+            return new InMemorySink();
+        }
+    }
+
+    /**
+     * Collects delivered events, and can fail or hold deliveries
+     */
+    static class InMemorySink implements OutboxSink {
+
+        final List<OutboxEvent> delivered = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile CountDownLatch delivering;
+        private volatile CountDownLatch release;
+
+        @Override
+        public void deliver(List<OutboxEvent> events) {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            CountDownLatch hold = release;
+            if (hold != null) {
+                release = null;
+                delivering.countDown();
+                try {
+                    hold.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            delivered.addAll(events);
+        }
+
+        void failNext(int batches) {
+            failures.set(batches);
+        }
+
+        void holdNext(CountDownLatch delivering, CountDownLatch release) {
+            this.delivering = delivering;
+            this.release = release;
+        }
+
+        void reset() {
+            delivered.clear();
+            failures.set(0);
+            release = null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tracking.tracking_api.packed;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:packed",
+        "tracking.storage.number-format=packed",
+        "tracking.storage.backfill-page-size=2"
+})
+@ActiveProfiles("test")
+class PackedStorageTest {
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberLookup trackingNumberLookup;
+
+    @Autowired
+    private PackedNumberBackfill packedNumberBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testGeneratedNumbersArePackedAndFoundByTheirPackedValue() {
+        // Given
+        TrackingNumberRequest request = createValidRequest();
+
+        // When
+        TrackingNumberResponse single = trackingNumberService.generateTrackingNumber(request);
+        List<TrackingNumberResponse> batch = trackingNumberService.generateTrackingNumbers(List.of(request, request));
+
+        // Then
+        for (TrackingNumberResponse response : List.of(single, batch.get(0), batch.get(1))) {
+            TrackingNumber stored = trackingNumberLookup.findByTrackingNumber(response.getTrackingNumber()).orElseThrow();
+            assertEquals(response.getTrackingNumber(), stored.getTrackingNumber());
+            assertEquals(TrackingNumberCodec.encode(response.getTrackingNumber()),
+                    new PackedTrackingNumber(stored.getTrackingNumberHigh(), stored.getTrackingNumberLow()));
+            assertTrue(trackingNumberLookup.exists(response.getTrackingNumber(), YearMonth.of(2018, 11)));
+        }
+        List<String> candidates = List.of(single.getTrackingNumber(), "ZZ00000000000001");
+        assertEquals(List.of(single.getTrackingNumber()), trackingNumberLookup.findExisting(candidates, YearMonth.of(2018, 11)));
+    }
+
+    @Test
+    void testBackfillPacksRowsStoredAsStrings() {
+        // Given: rows written before the packed columns were filled
+        List<String> legacy = List.of("LEGACY0000000001", "LEGACY0000000002", "LEGACY3", "0LEGACY00004");
+        for (int i = 0; i < legacy.size(); i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO tracking_numbers (id, tracking_number, origin_country_id, destination_country_id, weight,
+                        order_created_at, order_month, customer_id, customer_name, customer_slug, created_at, version)
+                    VALUES (?, ?, 'MY', 'ID', 1.234, CURRENT_TIMESTAMP, ?, ?, 'Legacy', 'legacy', CURRENT_TIMESTAMP, 0)
+                    """, 1_000_000 + i, legacy.get(i), LocalDate.of(2018, 11, 1), UUID.randomUUID());
+        }
+        assertTrue(trackingNumberLookup.findByTrackingNumber(legacy.get(0)).isEmpty());
+
+        // When
+        long packed = packedNumberBackfill.backfill();
+
+        // Then
+        assertEquals(legacy.size(), packed);
+        assertTrue(packedNumberBackfill.isComplete());
+        for (String trackingNumber : legacy) {
+            assertEquals(trackingNumber, trackingNumberLookup.findByTrackingNumber(trackingNumber).orElseThrow().getTrackingNumber());
+        }
+        assertEquals(0, packedNumberBackfill.backfill());
+    }
+
+    @Test
+    void testBackfillPacksRowsWithoutOrderMonth() {
+        // Given: a row of an old table without an order month
+        jdbcTemplate.execute("ALTER TABLE tracking_numbers ALTER COLUMN order_month SET NULL");
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO tracking_numbers (id, tracking_number, origin_country_id, destination_country_id, weight,
+                        order_created_at, order_month, customer_id, customer_name, customer_slug, created_at, version)
+                    VALUES (2000000, 'NOMONTH000000001', 'MY', 'ID', 1.234, CURRENT_TIMESTAMP, NULL, ?, 'Legacy', 'legacy',
+                        CURRENT_TIMESTAMP, 0)
+                    """, UUID.randomUUID());
+
+            // When / Then
+            assertEquals(1, packedNumberBackfill.backfill());
+            assertTrue(packedNumberBackfill.isComplete());
+            assertTrue(trackingNumberLookup.findByTrackingNumber("NOMONTH000000001").isPresent());
+        } finally {
+            jdbcTemplate.update("DELETE FROM tracking_numbers WHERE id = 2000000");
+            jdbcTemplate.execute("ALTER TABLE tracking_numbers ALTER COLUMN order_month SET NOT NULL");
+        }
+    }
+
+    @Test
+    void testPackedColumnsAreUniquelyIndexed() {
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_TRACKING_NUMBER_PACKED'", Integer.class));
+    }
+}
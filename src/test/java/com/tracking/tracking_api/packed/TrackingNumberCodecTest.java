@@ -0,0 +1,90 @@
+package com.tracking.tracking_api.packed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberCodecTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @Test
+    void testRoundTripOfEveryLength() {
+        Random random = new Random(21);
+
+        for (int length = 1; length <= 16; length++) {
+            for (int i = 0; i < 1_000; i++) {
+                // Given
+                String trackingNumber = randomNumber(random, length);
+
+                // When
+                PackedTrackingNumber packed = TrackingNumberCodec.encode(trackingNumber);
+
+                // Then
+                assertEquals(trackingNumber, packed.unpack());
+                assertTrue(packed.high() >= 0 && packed.low() >= 0);
+            }
+        }
+    }
+
+    @Test
+    void testLeadingAndTrailingZerosAreKept() {
+        for (String trackingNumber : List.of("0", "00", "0000000000000000", "00000001", "000000010", "10000000", "A0")) {
+            assertEquals(trackingNumber, TrackingNumberCodec.encode(trackingNumber).unpack());
+        }
+        assertNotEquals(TrackingNumberCodec.encode("0"), TrackingNumberCodec.encode("00"));
+        assertEquals(0, TrackingNumberCodec.encode("12345678").low());
+    }
+
+    @Test
+    void testPackedOrderMatchesStringOrder() {
+        // Given
+        Random random = new Random(37);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            numbers.add(randomNumber(random, 1 + random.nextInt(16)));
+        }
+
+        // When
+        List<String> byPacked = numbers.stream()
+                .sorted(Comparator.comparing((String number) -> TrackingNumberCodec.encode(number).high())
+                        .thenComparing(number -> TrackingNumberCodec.encode(number).low()))
+                .toList();
+
+        // Then
+        assertEquals(numbers.stream().sorted().toList(), byPacked);
+    }
+
+    @Test
+    void testInvalidNumbersAreRejected() {
+        for (String trackingNumber : List.of("", "ABCDEFGHIJKLMNOPQ", "abc", "MY-1", "Ä")) {
+            assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.encode(trackingNumber), trackingNumber);
+        }
+    }
+
+    @Test
+    void testMalformedPackedValuesAreRejected() {
+        long oneChar = TrackingNumberCodec.encode("A").high();
+
+        assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.decode(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.decode(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.decode(Long.MAX_VALUE, 0));
+        // A character after the padding of the first word
+        assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.decode(1, 0));
+        // Characters in the low word after a short high word
+        assertThrows(IllegalArgumentException.class, () -> TrackingNumberCodec.decode(oneChar, oneChar));
+    }
+
+    private static String randomNumber(Random random, int length) {
+        StringBuilder number = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            number.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return number.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static com.tracking.tracking_api.TestFixtures.createRequest;
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:partitioned",
+        "tracking.storage.mode=partitioned"
+})
+@ActiveProfiles("test")
+class PartitionedStorageTest {
+
+    private static final Clock JUNE_2025 = Clock.fixed(Instant.parse("2025-06-15T00:00:00Z"), ZoneOffset.UTC);
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberLookup trackingNumberLookup;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private PartitionDialect partitionDialect;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testNumbersAreStoredAndFoundInTheirOrderMonth() {
+        // Given: an order late on the last day of the month, already the next month in UTC
+        TrackingNumberRequest request = createRequest(new BigDecimal("1.234"), "redbox-logistics", OffsetDateTime.parse("2018-11-30T23:00:00-05:00"));
+
+        // When
+        TrackingNumberResponse single = trackingNumberService.generateTrackingNumber(request);
+        List<TrackingNumberResponse> batch = trackingNumberService.generateTrackingNumbers(List.of(request, request));
+
+        // Then
+        for (TrackingNumberResponse response : List.of(single, batch.get(0), batch.get(1))) {
+            TrackingNumber stored = trackingNumberLookup.findByTrackingNumber(response.getTrackingNumber()).orElseThrow();
+            assertEquals(LocalDate.of(2018, 11, 1), stored.getOrderMonth());
+            assertTrue(trackingNumberLookup.exists(response.getTrackingNumber(), YearMonth.of(2018, 11)));
+            assertFalse(trackingNumberLookup.exists(response.getTrackingNumber(), YearMonth.of(2018, 12)));
+        }
+    }
+
+    @Test
+    void testNumbersAndKeysAreUniqueAcrossMonths() {
+        // Given: a number and an idempotency key stored in the partition of another month, which
+        // per-partition indexes on PostgreSQL do not see ("A1503" reads as 2015-03 or 2005-03)
+        jdbcTemplate.update("INSERT INTO issued_numbers (tracking_number) VALUES ('A1503GLOBAL01')");
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, tracking_number) VALUES ('key-2015', 'A1503GLOBAL02')");
+        TrackingNumber sameNumber = entity("A1503GLOBAL01", OffsetDateTime.parse("2005-03-10T00:00:00Z"));
+        TrackingNumber sameKey = entity("A1503GLOBAL03", OffsetDateTime.parse("2005-03-10T00:00:00Z"));
+        sameKey.setIdempotencyKey("key-2015");
+
+        // When / Then
+        assertThrows(DataIntegrityViolationException.class, () -> trackingNumberRepository.save(sameNumber));
+        assertThrows(DataIntegrityViolationException.class, () -> trackingNumberRepository.save(sameKey));
+        assertFalse(trackingNumberRepository.existsByTrackingNumber("A1503GLOBAL01"));
+        assertFalse(trackingNumberRepository.existsByTrackingNumber("A1503GLOBAL03"));
+
+        // When / Then: issued numbers are claimed with their row
+        TrackingNumberResponse issued = trackingNumberService.generateTrackingNumber(createValidRequest());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM issued_numbers WHERE tracking_number = ?",
+                Integer.class, issued.getTrackingNumber()));
+    }
+
+    @Test
+    void testRetentionDropsWholeMonths() {
+        // Given
+        partitionDialect.create(YearMonth.of(2025, 1));
+        trackingNumberRepository.save(entity("RETDROP2501", OffsetDateTime.parse("2025-01-10T00:00:00Z")));
+        trackingNumberRepository.save(entity("RETDROP2506", OffsetDateTime.parse("2025-06-10T00:00:00Z")));
+
+        // When
+        maintenance(TrackingProperties.RetentionAction.DROP).maintain();
+
+        // Then
+        List<YearMonth> partitions = partitionDialect.list();
+        assertFalse(partitions.contains(YearMonth.of(2025, 1)));
+        assertTrue(partitions.containsAll(List.of(YearMonth.of(2025, 6), YearMonth.of(2025, 9))));
+        assertFalse(trackingNumberRepository.existsByTrackingNumber("RETDROP2501"));
+        assertTrue(trackingNumberRepository.existsByTrackingNumber("RETDROP2506"));
+    }
+
+    @Test
+    void testRetentionArchivesWholeMonths() {
+        // Given
+        partitionDialect.create(YearMonth.of(2025, 2));
+        trackingNumberRepository.save(entity("RETARCH2502", OffsetDateTime.parse("2025-02-10T00:00:00Z")));
+
+        // When
+        maintenance(TrackingProperties.RetentionAction.ARCHIVE).maintain();
+
+        // Then
+        assertFalse(partitionDialect.list().contains(YearMonth.of(2025, 2)));
+        assertFalse(trackingNumberRepository.existsByTrackingNumber("RETARCH2502"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM archive.tracking_numbers WHERE tracking_number = 'RETARCH2502'", Integer.class));
+    }
+
+    private PartitionMaintenance maintenance(TrackingProperties.RetentionAction action) {
+        TrackingProperties properties = new TrackingProperties();
+        properties.getStorage().getPartitions().setRetentionMonths(3);
+        properties.getStorage().getPartitions().setRetentionAction(action);
+        return new PartitionMaintenance(partitionDialect, transactionManager, properties, new SimpleMeterRegistry(), JUNE_2025);
+    }
+
+    private static TrackingNumber entity(String trackingNumber, OffsetDateTime orderCreatedAt) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(orderCreatedAt)
+                .customerId(UUID.randomUUID())
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tracking.tracking_api.partition;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.generator.TrackingNumberEncoder;
+import com.tracking.tracking_api.generator.TrackingNumberTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.tracking.tracking_api.TestFixtures.createRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberMonthsTest {
+
+    private static final String[] SLUGS = {"redbox-logistics", "r", "9lives", "a-b"};
+    private static final String[] WEIGHTS = {"1.234", "0.5", "999.999"};
+
+    @Test
+    void testCandidatesIncludeOrderMonthOfEitherLayout() {
+        Random random = new Random(3);
+
+        for (int year = 2000; year < 2100; year += 3) {
+            for (int month = 1; month <= 12; month++) {
+                for (String slug : SLUGS) {
+                    for (String weight : WEIGHTS) {
+                        // Given
+                        TrackingNumberRequest request = createRequest(new BigDecimal(weight), slug,
+                                OffsetDateTime.of(year, month, 15, 12, 0, 0, 0, ZoneOffset.ofHours(8)));
+                        LocalDate orderMonth = LocalDate.of(year, month, 1);
+
+                        // When
+                        Set<LocalDate> randomLayout = TrackingNumberMonths.candidates(
+                                TrackingNumberEncoder.encode(request, new Random(random.nextLong()), random.nextInt(100)));
+                        Set<LocalDate> sequentialLayout = TrackingNumberMonths.candidates(
+                                TrackingNumberEncoder.encodeSequential(request, random.nextLong(1L << 40)));
+
+                        // Then
+                        assertTrue(randomLayout.contains(orderMonth), () -> "random " + request);
+                        assertTrue(sequentialLayout.contains(orderMonth), () -> "sequential " + request);
+                        assertTrue(randomLayout.size() <= 4);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCandidatesIncludeOrderMonthOfTemplates() {
+        // Given: the order month behind a carrier prefix and behind customer codes of any length
+        List<TrackingNumberTemplate> templates = List.of(
+                TrackingNumberTemplate.compile("RB{origin}{destination}{yymm}{random:5}{check}"),
+                TrackingNumberTemplate.compile("{customer:4}{random:3}{yymm}{seq:2}"));
+        Random random = new Random(5);
+
+        for (int year = 2000; year < 2100; year += 7) {
+            for (int month = 1; month <= 12; month++) {
+                for (String slug : SLUGS) {
+                    TrackingNumberRequest request = createRequest(new BigDecimal("1.234"), slug,
+                            OffsetDateTime.of(year, month, 15, 12, 0, 0, 0, ZoneOffset.ofHours(8)));
+                    LocalDate orderMonth = LocalDate.of(year, month, 1);
+                    for (TrackingNumberTemplate template : templates) {
+                        // When
+                        String trackingNumber = template.encode(request, random, random.nextInt(100));
+                        Set<LocalDate> months = TrackingNumberMonths.candidates(trackingNumber, templates);
+
+                        // Then
+                        assertTrue(months.contains(orderMonth), () -> template + " " + trackingNumber);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTemplateReadsOnlyNumbersItFits() {
+        // Given
+        TrackingNumberTemplate template = TrackingNumberTemplate.compile("RB{origin}{destination}{yymm}{random:5}{check}");
+        String trackingNumber = template.encode(createRequest(new BigDecimal("1.234"), "redbox-logistics",
+                OffsetDateTime.parse("2018-11-20T19:29:32+08:00")), new Random(1), 0);
+
+        char substituted = trackingNumber.charAt(12) == 'A' ? 'B' : 'A';
+        String mistyped = trackingNumber.substring(0, 12) + substituted + trackingNumber.substring(13);
+
+        // When / Then
+        assertArrayEquals(new int[] {6}, template.yearMonthPositions(trackingNumber));
+        assertEquals(0, template.yearMonthPositions("XX" + trackingNumber.substring(2)).length);
+        assertEquals(0, template.yearMonthPositions(mistyped).length);
+        assertEquals(0, template.yearMonthPositions(trackingNumber.substring(1)).length);
+    }
+
+    @Test
+    void testUnrecognizedNumberHasNoCandidates() {
+        assertTrue(TrackingNumberMonths.candidates("ERROR").isEmpty());
+        assertTrue(TrackingNumberMonths.candidates("ZZ00000000000001").isEmpty());
+    }
+}
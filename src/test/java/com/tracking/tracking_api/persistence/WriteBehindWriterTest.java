@@ -0,0 +1,276 @@
+package com.tracking.tracking_api.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.exception.ServiceOverloadedException;
+import com.tracking.tracking_api.generator.TrackingNumberGenerator;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind",
+        "tracking.generator.mode=sequential",
+        "tracking.persistence.mode=write-behind",
+        "tracking.persistence.write-behind.journal.enabled=true"
+})
+@ActiveProfiles("test")
+class WriteBehindWriterTest {
+
+    private static final String LEFTOVER_NUMBER = "MY1811000000000A";
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private TrackingNumberGenerator trackingNumberGenerator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        try {
+            // Journal left behind by a previous run that crashed before inserting its record
+            Path directory = Files.createTempDirectory("write-behind");
+            Files.writeString(directory.resolve("journal-0-0.log"), """
+                    {"trackingNumber":"%s","originCountryId":"MY","destinationCountryId":"ID","weight":1.234,\
+                    "orderCreatedAt":"2018-11-20T19:29:32+08:00","customerId":"de619854-b59b-425e-9db4-943979e1bd49",\
+                    "customerName":"RedBox Logistics","customerSlug":"redbox-logistics","createdAt":"2026-01-01T00:00:00Z"}
+                    """.formatted(LEFTOVER_NUMBER));
+            registry.add("tracking.persistence.write-behind.journal.directory", directory::toString);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void testJournalReplayedOnStartup() {
+        assertTrue(trackingNumberRepository.existsByTrackingNumber(LEFTOVER_NUMBER));
+    }
+
+    @Test
+    void testQueuedNumbersAreInserted() throws InterruptedException {
+        // Given
+        List<String> trackingNumbers = new ArrayList<>();
+        List<TrackingNumberResponse> responses = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(createValidRequest());
+            trackingNumbers.add(response.getTrackingNumber());
+            responses.add(response);
+        }
+
+        // Then
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (trackingNumberRepository.findExistingTrackingNumbers(trackingNumbers).size() < trackingNumbers.size()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(trackingNumbers.size(), trackingNumberRepository.findExistingTrackingNumbers(trackingNumbers).size());
+        // Stored as answered, so lookups and their ETags agree with the response on every instance
+        TrackingNumberResponse first = responses.get(0);
+        assertEquals(first.getCreatedAt().toInstant().truncatedTo(ChronoUnit.MILLIS),
+                trackingNumberService.findTrackingNumber(first.getTrackingNumber()).orElseThrow()
+                        .getCreatedAt().toInstant().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void testKeyedNumbersAreStoredBeforeAnswering() {
+        // When
+        TrackingNumberResponse response = trackingNumberService.generateTrackingNumber(createValidRequest(), "order-1");
+
+        // Then: another instance repeating the key finds its row right away
+        TrackingNumber stored = trackingNumberRepository.findByIdempotencyKey(
+                "de619854-b59b-425e-9db4-943979e1bd49:h:order-1").orElseThrow();
+        assertEquals(response.getTrackingNumber(), stored.getTrackingNumber());
+        assertEquals(response.getTrackingNumber(),
+                trackingNumberService.generateTrackingNumber(createValidRequest(), "order-1").getTrackingNumber());
+    }
+
+    @Test
+    void testOnlyConstraintViolationsAreDropped() throws InterruptedException {
+        // Given: a batch holding a number already stored, and a database failing the next insert
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FailingTransactionManager failing = new FailingTransactionManager(transactionManager);
+        WriteBehindWriter writer = writer(failing, meterRegistry);
+        TrackingNumber fresh = createEntity("MY1811RETRY00001");
+        TrackingNumber duplicate = createEntity(LEFTOVER_NUMBER);
+        writer.start();
+
+        // When: the batch is rejected, then the fresh number's own insert fails once
+        failing.failAfter(1);
+        writer.submit(fresh);
+        writer.submit(duplicate);
+        writer.stop();
+
+        // Then
+        assertTrue(trackingNumberRepository.existsByTrackingNumber("MY1811RETRY00001"));
+        assertEquals(1.0, meterRegistry.get("tracking.writebehind.failed").counter().count());
+    }
+
+    @Test
+    void testSubmissionsRacingStopAreInsertedOrRefused() throws Exception {
+        // Given
+        WriteBehindWriter writer = writer(transactionManager, new SimpleMeterRegistry());
+        writer.start();
+        Set<String> accepted = ConcurrentHashMap.newKeySet();
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            submitters.add(executor.submit(() -> {
+                while (true) {
+                    String trackingNumber = "MY1811STOP" + String.format("%06d", sequence.incrementAndGet());
+                    try {
+                        writer.submit(createEntity(trackingNumber));
+                    } catch (ServiceOverloadedException e) {
+                        return;
+                    }
+                    accepted.add(trackingNumber);
+                }
+            }));
+        }
+
+        // When
+        Thread.sleep(50);
+        writer.stop();
+        for (Future<?> submitter : submitters) {
+            submitter.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then: everything acknowledged before the refusals started was inserted
+        assertFalse(accepted.isEmpty());
+        assertEquals(accepted.size(), trackingNumberRepository.findExistingTrackingNumbers(List.copyOf(accepted)).size());
+    }
+
+    @Test
+    void testConcurrentAppendsShareFsyncs() throws Exception {
+        // Given
+        WriteBehindJournal journal = new WriteBehindJournal(Files.createTempDirectory("group-commit"), objectMapper);
+        List<Future<?>> appenders = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                int thread = i;
+                appenders.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        journal.append(createEntity("MY1811SYNC" + String.format("%02d%04d", thread, j)));
+                    }
+                }));
+            }
+            for (Future<?> appender : appenders) {
+                appender.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        // Then: every acknowledged record is on disk, with fewer fsyncs than records
+        Set<String> journaled = new HashSet<>();
+        journal.readPending().forEach(entity -> journaled.add(entity.getTrackingNumber()));
+        assertEquals(1600, journaled.size());
+        assertTrue(journal.forces() < 1600, "forces: " + journal.forces());
+        journal.close();
+    }
+
+    private WriteBehindWriter writer(PlatformTransactionManager transactionManager, SimpleMeterRegistry meterRegistry) {
+        TrackingProperties properties = new TrackingProperties();
+        // Long enough for both submissions of a test to share a batch
+        properties.getPersistence().getWriteBehind().setFlushInterval(Duration.ofMillis(200));
+        return new WriteBehindWriter(trackingNumberRepository, trackingNumberGenerator, transactionManager,
+                properties, objectMapper, meterRegistry);
+    }
+
+    private TrackingNumber createEntity(String trackingNumber) {
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(OffsetDateTime.parse("2018-11-20T19:29:32+08:00"))
+                .customerId(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"))
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+
+    /**
+     * Fails the transaction after the given number of further transactions, like a dropped connection
+     */
+    private static class FailingTransactionManager implements PlatformTransactionManager {
+
+        private final PlatformTransactionManager delegate;
+        private final AtomicInteger untilFailure = new AtomicInteger(-1);
+
+        FailingTransactionManager(PlatformTransactionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        void failAfter(int transactions) {
+            untilFailure.set(transactions);
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            if (untilFailure.getAndDecrement() == 0) {
+                throw new CannotCreateTransactionException("Connection refused");
+            }
+            return delegate.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            delegate.commit(status);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            delegate.rollback(status);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tracking.tracking_api.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockFreeRingTest {
+
+    @Test
+    void testBoundedFifo() {
+        // Given
+        LockFreeRing<Integer> ring = new LockFreeRing<>(3);
+
+        // When / Then: capacity rounded up to a power of two
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testEveryElementTakenExactlyOnceUnderConcurrency() throws Exception {
+        // Given
+        int producers = 4;
+        int perProducer = 20_000;
+        LockFreeRing<Integer> ring = new LockFreeRing<>(64);
+        AtomicIntegerArray taken = new AtomicIntegerArray(producers * perProducer);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(producers * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            futures.add(executor.submit(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!ring.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    Integer element;
+                    while ((element = ring.poll()) == null) {
+                        Thread.yield();
+                    }
+                    taken.incrementAndGet(element);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        for (int i = 0; i < taken.length(); i++) {
+            assertEquals(1, taken.get(i), "Element " + i);
+        }
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,72 @@
+package com.tracking.tracking_api.pool;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.generator.TrackingNumberEncoder;
+import com.tracking.tracking_api.partition.TrackingNumberLookup;
+import com.tracking.tracking_api.random.SplittableRandomSource;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import com.tracking.tracking_api.service.TrackingNumberMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrackingNumberPoolTest {
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Test
+    void testStarvesThenServesPreValidatedNumbers() {
+        // Given
+        TrackingProperties properties = new TrackingProperties();
+        properties.getPool().setCapacity(64);
+        properties.getPool().setLowWatermark(16);
+        properties.getPool().setRefillBatchSize(32);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrackingNumberPool pool = new TrackingNumberPool(new TrackingNumberLookup(trackingNumberRepository, Optional.empty(), properties),
+                new SplittableRandomSource(), Optional.empty(), Optional.empty(), new TrackingNumberMetrics(meterRegistry), properties, meterRegistry);
+        TrackingNumberRequest request = createValidRequest();
+        request.setCustomerId(UUID.randomUUID());
+        pool.start();
+
+        // When: the first request for a prefix finds its pool empty and triggers the refill
+        Optional<String> first = pool.take(request);
+        awaitAvailable(meterRegistry, 64);
+        Set<String> taken = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            taken.add(pool.take(request).orElseThrow());
+        }
+        pool.stop();
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(64, taken.size());
+        String prefix = TrackingNumberEncoder.encodePrefix(request);
+        assertTrue(taken.stream().allMatch(number -> number.startsWith(prefix) && number.length() == prefix.length() + 4));
+        assertTrue(trackingNumberRepository.findExistingTrackingNumbers(taken).isEmpty());
+        assertEquals(1, meterRegistry.get("tracking.pool.takes").tag("result", "starved").counter().count());
+        assertEquals(64, meterRegistry.get("tracking.pool.takes").tag("result", "hit").counter().count());
+    }
+
+    private static void awaitAvailable(SimpleMeterRegistry meterRegistry, int available) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (meterRegistry.get("tracking.pool.available").gauge().value() < available) {
+            assertTrue(System.nanoTime() < deadline, "Pool was not refilled in time");
+            Thread.onSpinWait();
+        }
+    }
+}
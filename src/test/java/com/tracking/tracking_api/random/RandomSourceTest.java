@@ -0,0 +1,92 @@
+package com.tracking.tracking_api.random;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSourceTest {
+
+    private static final int BOUND = 36;
+
+    @Test
+    void testSharedSecureRandom() throws Exception {
+        assertUniformUnderConcurrency(new SharedSecureRandomSource());
+    }
+
+    @Test
+    void testStripedDrbg() throws Exception {
+        assertUniformUnderConcurrency(new StripedDrbgRandomSource(4));
+    }
+
+    @Test
+    void testBuffered() throws Exception {
+        BufferedRandomSource source = new BufferedRandomSource(4, 256, 2, new SimpleMeterRegistry());
+        try {
+            assertUniformUnderConcurrency(source);
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void testBufferedLargeBound() {
+        BufferedRandomSource source = new BufferedRandomSource(1, 64, 1, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                int value = source.nextInt(1_000_000);
+                assertTrue(value >= 0 && value < 1_000_000);
+            }
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void testSplittable() throws Exception {
+        assertUniformUnderConcurrency(new SplittableRandomSource());
+    }
+
+    @Test
+    void testStripeCount() {
+        assertEquals(1, Stripes.count(1));
+        assertEquals(4, Stripes.count(3));
+        assertEquals(8, Stripes.count(8));
+        assertTrue(Integer.bitCount(Stripes.count(0)) == 1);
+    }
+
+    /**
+     * Draw from 8 threads at once: every value in range and each within 10% of the expected count
+     */
+    private void assertUniformUnderConcurrency(RandomSource source) throws Exception {
+        int threads = 8;
+        int drawsPerThread = 36_000;
+        AtomicLongArray counts = new AtomicLongArray(BOUND);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < drawsPerThread; i++) {
+                        counts.incrementAndGet(source.nextInt(BOUND));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        double expected = (double) threads * drawsPerThread / BOUND;
+        for (int value = 0; value < BOUND; value++) {
+            assertEquals(expected, counts.get(value), expected * 0.1, "count of " + value);
+        }
+    }
+}
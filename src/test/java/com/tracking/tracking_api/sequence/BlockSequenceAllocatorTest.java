@@ -0,0 +1,84 @@
+package com.tracking.tracking_api.sequence;
+
+import com.tracking.tracking_api.repository.SequenceBlockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlockSequenceAllocatorTest {
+
+    @Autowired
+    private SequenceBlockRepository sequenceBlockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testInstancesLeaseDisjointBlocks() throws Exception {
+        // Given: two "replicas" sharing the same table
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockSequenceAllocator replica1 = new BlockSequenceAllocator(
+                sequenceBlockRepository, transactionManager, meterRegistry, "shared", 100, 25);
+        BlockSequenceAllocator replica2 = new BlockSequenceAllocator(
+                sequenceBlockRepository, transactionManager, meterRegistry, "shared", 100, 25);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = IntStream.range(0, 8)
+                .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                    BlockSequenceAllocator allocator = i % 2 == 0 ? replica1 : replica2;
+                    for (int j = 0; j < 1_000; j++) {
+                        assertTrue(seen.add(allocator.next()));
+                    }
+                }))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        replica1.destroy();
+        replica2.destroy();
+
+        // Then
+        assertEquals(8_000, seen.size());
+        assertTrue(meterRegistry.get("tracking.sequence.lease").timers().stream()
+                .mapToLong(timer -> timer.count()).sum() >= 80);
+    }
+
+    @Test
+    void testRestartLeasesFreshBlock() throws Exception {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockSequenceAllocator beforeRestart = new BlockSequenceAllocator(
+                sequenceBlockRepository, transactionManager, meterRegistry, "restart", 50, 10);
+        long first = beforeRestart.next();
+        beforeRestart.destroy();
+
+        // When
+        BlockSequenceAllocator afterRestart = new BlockSequenceAllocator(
+                sequenceBlockRepository, transactionManager, meterRegistry, "restart", 50, 10);
+        long second = afterRestart.next();
+        afterRestart.destroy();
+
+        // Then
+        assertEquals(first + 50, second);
+        assertEquals(49 + 49, meterRegistry.get("tracking.sequence.wasted").counter().count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tracking.tracking_api.sequence;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.service.TrackingNumberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.tracking.tracking_api.TestFixtures.createValidRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:block-issuing",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "tracking.generator.mode=sequential",
+        "tracking.sequence.allocator=block",
+        // Tiny blocks and no prefetch, so requests keep running into leases
+        "tracking.sequence.block-size=5",
+        "tracking.sequence.low-watermark=0",
+        "tracking.execution.mode=virtual"
+})
+@ActiveProfiles("test")
+class BlockSequenceIssuingTest {
+
+    @Autowired
+    private TrackingNumberService trackingNumberService;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+
+    @Test
+    void testVirtualModeEnablesBootVirtualThreads() throws Exception {
+        // When
+        boolean virtual = CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), taskExecutor)
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("true", environment.getProperty("spring.threads.virtual.enabled"));
+        assertTrue(virtual);
+    }
+
+    @Test
+    void testLeasesDoNotExhaustThePool() throws Exception {
+        // Given: more concurrent requests than connections, every fifth one leasing a block
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        issued.add(trackingNumberService.generateTrackingNumber(createValidRequest()).getTrackingNumber());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        // Then
+        assertEquals(320, issued.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.tracking.tracking_api.sequence;
+
+import com.tracking.tracking_api.TrackingApiApplication;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TrackingApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-block",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-block",
+        "tracking.generator.mode=sequential",
+        "tracking.sequence.allocator=block",
+        // Tiny blocks and no prefetch, so requests keep running into leases
+        "tracking.sequence.block-size=2",
+        "tracking.sequence.low-watermark=0"
+})
+@ActiveProfiles({"test", "reactive"})
+@Import(ReactiveBlockSequenceTest.RecordingConfig.class)
+class ReactiveBlockSequenceTest {
+
+    private static final String PARAMS = "?origin_country_id=MY" +
+            "&destination_country_id=ID" +
+            "&weight=1.234" +
+            "&created_at=2018-11-20T19:29:32Z" +
+            "&customer_id=de619854-b59b-425e-9db4-943979e1bd49" +
+            "&customer_name=RedBox%20Logistics" +
+            "&customer_slug=redbox-logistics";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RecordingAllocator allocator;
+
+    @Test
+    void testIdsAreNotLeasedOnTheEventLoop() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            TrackingNumberResponse response = webTestClient.get()
+                    .uri("/api/v1/next-tracking-number" + PARAMS)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(TrackingNumberResponse.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertNotNull(response);
+        }
+
+        // Then
+        assertFalse(allocator.threads.isEmpty());
+        allocator.threads.forEach(thread -> assertFalse(thread.startsWith("reactor-http"), thread));
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        @Primary
+        RecordingAllocator recordingAllocator(@Qualifier("blockSequenceAllocator") SequenceAllocator delegate) {
+            return new RecordingAllocator(delegate);
+        }
+    }
+
+    /**
+     * Records the threads ids are taken on
+     */
+    static class RecordingAllocator implements SequenceAllocator {
+
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        private final SequenceAllocator delegate;
+
+        RecordingAllocator(SequenceAllocator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long next() {
+            threads.add(Thread.currentThread().getName());
+            return delegate.next();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tracking.tracking_api.stats;
+
+import com.tracking.tracking_api.config.TrackingProperties;
+import com.tracking.tracking_api.entity.IssueRollup;
+import com.tracking.tracking_api.entity.RollupFlush;
+import com.tracking.tracking_api.entity.TrackingNumber;
+import com.tracking.tracking_api.repository.IssueRollupRepository;
+import com.tracking.tracking_api.repository.RollupFlushRepository;
+import com.tracking.tracking_api.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IssueStatisticsTest {
+
+    @Autowired
+    private IssueRollupRepository rollupRepository;
+
+    @Autowired
+    private RollupFlushRepository flushRepository;
+
+    @Autowired
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testFlushesDeltasPerLaneAndMonth() {
+        // Given
+        IssueStatistics statistics = statistics(transactionManager);
+        UUID customerId = UUID.randomUUID();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            statistics.record(entity(customerId, "MY", "ID", "2024-03-05T10:00:00Z"));
+        }
+        statistics.record(entity(customerId, "MY", "SG", "2024-03-20T10:00:00Z"));
+        statistics.flush();
+        statistics.record(entity(customerId, "MY", "ID", "2024-03-31T23:00:00Z"));
+        statistics.record(entity(customerId, "MY", "ID", "2024-04-01T01:00:00Z"));
+        statistics.flush();
+        statistics.flush();
+
+        // Then
+        List<IssueRollup> rollups = rollupRepository.findByCustomer(customerId, LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-01"));
+        assertEquals(3, rollups.size());
+        assertEquals(4, issued(rollups, "ID", "2024-03-01"));
+        assertEquals(1, issued(rollups, "SG", "2024-03-01"));
+        assertEquals(1, issued(rollups, "ID", "2024-04-01"));
+    }
+
+    @Test
+    void testRetriedFlushIsNotAddedTwice() {
+        // Given: the first commit succeeds but reports a failure, as when the connection drops during commit
+        AtomicBoolean failNextCommit = new AtomicBoolean(true);
+        IssueStatistics statistics = statistics(new AmbiguousCommitTransactionManager(transactionManager, failNextCommit));
+        UUID customerId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            statistics.record(entity(customerId, "MY", "ID", "2024-03-05T10:00:00Z"));
+        }
+
+        // When
+        statistics.flush();
+        statistics.record(entity(customerId, "MY", "ID", "2024-03-06T10:00:00Z"));
+        statistics.flush();
+        statistics.flush();
+
+        // Then
+        assertFalse(failNextCommit.get());
+        List<IssueRollup> rollups = rollupRepository.findByCustomer(customerId, LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-01"));
+        assertEquals(6, issued(rollups, "ID", "2024-03-01"));
+    }
+
+    @Test
+    void testStoredNumbersAreSeededOnce() {
+        // Given: numbers stored before statistics were counted
+        UUID customerId = UUID.randomUUID();
+        OffsetDateTime before = OffsetDateTime.now().minusDays(1);
+        trackingNumberRepository.save(stored("MY1811SD00000001", customerId, "ID", "2024-03-05T10:00:00Z", before));
+        trackingNumberRepository.save(stored("MY1811SD00000002", customerId, "ID", "2024-03-20T10:00:00Z", before));
+        trackingNumberRepository.save(stored("MY1811SD00000003", customerId, "SG", "2024-04-01T10:00:00Z", before));
+        IssueStatistics first = statistics(transactionManager);
+        IssueStatistics second = statistics(transactionManager);
+
+        // When: two instances start, and an old number committing late is reported as well as a new one
+        first.seed();
+        second.seed();
+        second.record(stored("MY1811SD00000004", customerId, "ID", "2024-03-21T10:00:00Z", before));
+        second.record(stored("MY1811SD00000005", customerId, "ID", "2024-03-22T10:00:00Z", OffsetDateTime.now()));
+        second.flush();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                flushRepository.deleteFlushedBefore(OffsetDateTime.now().plusYears(1)));
+
+        // Then
+        List<IssueRollup> rollups = rollupRepository.findByCustomer(customerId, LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-01"));
+        assertEquals(3, issued(rollups, "ID", "2024-03-01"));
+        assertEquals(1, issued(rollups, "SG", "2024-04-01"));
+        assertTrue(flushRepository.existsById(RollupFlush.SEED_ID));
+    }
+
+    private IssueStatistics statistics(PlatformTransactionManager transactionManager) {
+        return new IssueStatistics(rollupRepository, flushRepository, transactionManager,
+                new TrackingProperties(), new SimpleMeterRegistry());
+    }
+
+    private static long issued(List<IssueRollup> rollups, String destination, String orderMonth) {
+        return rollups.stream()
+                .filter(rollup -> rollup.getKey().getDestinationCountryId().equals(destination)
+                        && rollup.getKey().getOrderMonth().equals(LocalDate.parse(orderMonth)))
+                .mapToLong(IssueRollup::getIssued)
+                .sum();
+    }
+
+    private static TrackingNumber entity(UUID customerId, String origin, String destination, String orderCreatedAt) {
+        OffsetDateTime createdAt = OffsetDateTime.parse(orderCreatedAt);
+        return TrackingNumber.builder()
+                .customerId(customerId)
+                .originCountryId(origin)
+                .destinationCountryId(destination)
+                .orderCreatedAt(createdAt)
+                .orderMonth(createdAt.toLocalDate().withDayOfMonth(1))
+                .build();
+    }
+
+    private static TrackingNumber stored(String trackingNumber, UUID customerId, String destination,
+                                         String orderCreatedAt, OffsetDateTime createdAt) {
+        OffsetDateTime orderCreated = OffsetDateTime.parse(orderCreatedAt);
+        return TrackingNumber.builder()
+                .trackingNumber(trackingNumber)
+                .originCountryId("MY")
+                .destinationCountryId(destination)
+                .weight(new BigDecimal("1.234"))
+                .orderCreatedAt(orderCreated)
+                .orderMonth(orderCreated.toLocalDate().withDayOfMonth(1))
+                .customerId(customerId)
+                .customerName("RedBox Logistics")
+                .customerSlug("redbox-logistics")
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private record AmbiguousCommitTransactionManager(PlatformTransactionManager delegate, AtomicBoolean failNextCommit)
+            implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return delegate.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            delegate.commit(status);
+            if (failNextCommit.getAndSet(false)) {
+                throw new TransactionSystemException("Connection lost during commit");
+            }
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            delegate.rollback(status);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tracking.tracking_api.web;
+
+import com.tracking.tracking_api.dto.TrackingNumberRequest;
+import com.tracking.tracking_api.exception.InvalidParametersException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberQueryResolverTest {
+
+    @Test
+    void testBindsValidParameters() {
+        // When
+        TrackingNumberRequest request = TrackingNumberQueryResolver.bind(validParameters());
+
+        // Then
+        assertEquals("MY", request.getOriginCountryId());
+        assertEquals("ID", request.getDestinationCountryId());
+        assertEquals(new BigDecimal("1.234"), request.getWeight());
+        assertEquals(OffsetDateTime.parse("2018-11-20T19:29:32+08:00"), request.getCreatedAt());
+        assertEquals(UUID.fromString("de619854-b59b-425e-9db4-943979e1bd49"), request.getCustomerId());
+        assertEquals("RedBox Logistics", request.getCustomerName());
+        assertEquals("redbox-logistics", request.getCustomerSlug());
+    }
+
+    @Test
+    void testReportsEveryInvalidParameter() {
+        // Given
+        Map<String, String[]> parameters = validParameters();
+        parameters.put(TrackingNumberQueryResolver.ORIGIN_COUNTRY_ID, new String[]{"my"});
+        parameters.put(TrackingNumberQueryResolver.WEIGHT, new String[]{"1.2345"});
+        parameters.put(TrackingNumberQueryResolver.CUSTOMER_ID, new String[]{"1-1-1-1-1"});
+        parameters.put(TrackingNumberQueryResolver.CUSTOMER_SLUG, new String[]{"redbox--logistics"});
+        parameters.remove(TrackingNumberQueryResolver.CREATED_AT);
+
+        // When
+        InvalidParametersException exception = assertThrows(InvalidParametersException.class,
+                () -> TrackingNumberQueryResolver.bind(parameters));
+
+        // Then
+        assertEquals(5, exception.getErrors().size());
+        assertTrue(exception.getErrors().keySet().containsAll(List.of(
+                TrackingNumberQueryResolver.ORIGIN_COUNTRY_ID, TrackingNumberQueryResolver.WEIGHT,
+                TrackingNumberQueryResolver.CUSTOMER_ID, TrackingNumberQueryResolver.CUSTOMER_SLUG,
+                TrackingNumberQueryResolver.CREATED_AT)));
+    }
+
+    @Test
+    void testSlugAndWeightRulesMatchDtoConstraints() {
+        for (String slug : new String[]{"redbox", "redbox-logistics-2", "a1-b2"}) {
+            assertDoesNotThrow(() -> TrackingNumberQueryResolver.bind(with(TrackingNumberQueryResolver.CUSTOMER_SLUG, slug)), slug);
+        }
+        for (String slug : new String[]{"-redbox", "redbox-", "RedBox", "red_box", "red box"}) {
+            assertThrows(InvalidParametersException.class,
+                    () -> TrackingNumberQueryResolver.bind(with(TrackingNumberQueryResolver.CUSTOMER_SLUG, slug)), slug);
+        }
+        for (String weight : new String[]{"0.001", "999999.999", "12", "1.50"}) {
+            assertDoesNotThrow(() -> TrackingNumberQueryResolver.bind(with(TrackingNumberQueryResolver.WEIGHT, weight)), weight);
+        }
+        for (String weight : new String[]{"0", "-1.234", "1000000", "1e3x", ""}) {
+            assertThrows(InvalidParametersException.class,
+                    () -> TrackingNumberQueryResolver.bind(with(TrackingNumberQueryResolver.WEIGHT, weight)), weight);
+        }
+    }
+
+    private static Map<String, String[]> with(String name, String value) {
+        Map<String, String[]> parameters = validParameters();
+        parameters.put(name, new String[]{value});
+        return parameters;
+    }
+
+    private static Map<String, String[]> validParameters() {
+        Map<String, String[]> parameters = new HashMap<>();
+        parameters.put(TrackingNumberQueryResolver.ORIGIN_COUNTRY_ID, new String[]{"MY"});
+        parameters.put(TrackingNumberQueryResolver.DESTINATION_COUNTRY_ID, new String[]{"ID"});
+        parameters.put(TrackingNumberQueryResolver.WEIGHT, new String[]{"1.234"});
+        parameters.put(TrackingNumberQueryResolver.CREATED_AT, new String[]{"2018-11-20T19:29:32+08:00"});
+        parameters.put(TrackingNumberQueryResolver.CUSTOMER_ID, new String[]{"de619854-b59b-425e-9db4-943979e1bd49"});
+        parameters.put(TrackingNumberQueryResolver.CUSTOMER_NAME, new String[]{"RedBox Logistics"});
+        parameters.put(TrackingNumberQueryResolver.CUSTOMER_SLUG, new String[]{"redbox-logistics"});
+        parameters.put("unrelated", new String[]{"ignored"});
+        return parameters;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tracking.tracking_api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracking.tracking_api.dto.TrackingNumberResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JsonTest
+class TrackingNumberResponseConverterTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testWritesSameJsonAsJackson() throws Exception {
+        // Given
+        TrackingNumberResponseConverter converter = new TrackingNumberResponseConverter(objectMapper.getFactory());
+        TrackingNumberResponse full = TrackingNumberResponse.builder()
+                .trackingNumber("MY234RE18A5")
+                .createdAt(OffsetDateTime.parse("2024-01-15T10:30:45.123456+08:00"))
+                .originCountryId("MY")
+                .destinationCountryId("ID")
+                .customerName("RedBox \"Logistics\" é")
+                .customerSlug("redbox-logistics")
+                .build();
+        TrackingNumberResponse error = TrackingNumberResponse.builder().trackingNumber("ERROR").build();
+
+        // Then
+        for (TrackingNumberResponse response : new TrackingNumberResponse[]{full, error}) {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(response, null, output);
+            assertEquals(objectMapper.writeValueAsString(response), output.getBodyAsString());
+        }
+        assertFalse(converter.canRead(TrackingNumberResponse.class, null));
+    }
+}